@@ -0,0 +1,78 @@
+package com.scrapx.api.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks del puntaje de coincidencia local.
+ *
+ * Sidenote: Los nombres se generan con una semilla fija a partir de palabras
+ * frecuentes en las listas (HOLDINGS, TRADING, ...), con un 25% de nombres con
+ * la forma societaria al final, para que el índice tenga muchos candidatos por trigrama.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameMatcherBenchmark {
+
+    private static final String[] WORDS = {
+            "AERO", "GLOBAL", "TRADING", "HOLDINGS", "CAPITAL", "MARINE", "ENERGY", "STAR",
+            "NORTH", "PACIFIC", "INVESTMENTS", "SHIPPING", "PETROLEUM", "GROUP", "BANK", "NATIONAL"
+    };
+
+    private NameMatcher.Name query;
+    private NameMatcher.Name candidate;
+    private TrigramIndex<String> index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < 2 + random.nextInt(3); w++) {
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            name.append((char) ('A' + random.nextInt(26))).append((char) ('A' + random.nextInt(26)));
+            if (random.nextInt(4) == 0) {
+                name.append(" LIMITED");
+            }
+            names.add(name.toString());
+        }
+        index = new TrigramIndex<>(names, s -> s);
+        query = NameMatcher.name("Pacific Shiping Holdings Ltd.");
+        candidate = NameMatcher.name("PACIFIC SHIPPING HOLDINGS LIMITED");
+    }
+
+    @Benchmark
+    public int score() {
+        return NameMatcher.score(query, candidate);
+    }
+
+    @Benchmark
+    public NameMatcher.Name normalize() {
+        return NameMatcher.name("Société Générale de Commerce S.A.");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int indexSearch() {
+        return index.search(query, 88).size();
+    }
+}
@@ -0,0 +1,219 @@
+package com.scrapx.api.scraping;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Microbenchmarks de las rutas calientes de WebScraper.
+ *
+ * Sidenote: Las páginas se leen de src/jmh/resources/fixtures, que replican la
+ * estructura de las páginas reales (tabla de OffShore con 100 filas, form de OFAC
+ * con su __VIEWSTATE y tabla gvSearchResults con 150 filas). Así se mide solo el
+ * costo de CPU y memoria del parseo, sin depender de la red. Las entradas (incluido
+ * el texto de la página de OffShore) se construyen una sola vez en @Setup, para que
+ * cada operación mida y asigne solo lo que hace el código medido.
+ *
+ * Se reporta el throughput (operaciones por segundo) y, con -prof gc, el ritmo de
+ * asignación (gc.alloc.rate) y los bytes asignados por operación (gc.alloc.rate.norm).
+ *
+ * Uso: mvn -Pbenchmark test-compile exec:exec
+ * (por defecto con -prof gc, para reportar los bytes asignados por operación)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebScraperBenchmark {
+
+    private static final String OFFSHORE_URL = "https://offshoreleaks.icij.org/search?q=aero&c=&j=&d=&from=0";
+    private static final String OFAC_URL = "https://sanctionssearch.ofac.treas.gov/";
+
+    private String offShorePage;
+    private byte[] ofacResults;
+    private String ofacFormHtml;
+    private Document ofacForm;
+    private Map<String, String> ofacInputs;
+    private HttpResponse<byte[]> plainResponse;
+    private HttpResponse<byte[]> gzipResponse;
+    private HttpResponse<byte[]> deflateResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        // 1. Cargar las páginas de prueba
+        offShorePage = new String(fixture("offshore-page.html"), StandardCharsets.UTF_8);
+        ofacResults = fixture("ofac-results.html");
+        ofacFormHtml = new String(fixture("ofac-form.html"), StandardCharsets.UTF_8);
+
+        // 2. Preparar el form de OFAC tal como queda antes del POST
+        ofacForm = Jsoup.parse(ofacFormHtml, OFAC_URL);
+        ofacInputs = new LinkedHashMap<>(WebScraper.extractAllInputs(ofacForm));
+        ofacInputs.put("ctl00$MainContent$txtLastName", "aero holdings");
+        ofacInputs.put("ctl00$MainContent$Slider1", "90");
+        ofacInputs.put("ctl00$MainContent$Slider1_Boundcontrol", "90");
+
+        // 3. Respuestas del GET inicial de OFAC, sin comprimir, con gzip y con deflate
+        byte[] formBytes = ofacFormHtml.getBytes(StandardCharsets.UTF_8);
+        plainResponse = new FixtureResponse(formBytes, Map.of());
+        gzipResponse = new FixtureResponse(gzip(formBytes), Map.of("Content-Encoding", List.of("gzip")));
+        deflateResponse = new FixtureResponse(deflate(formBytes), Map.of("Content-Encoding", List.of("deflate")));
+    }
+
+    @Benchmark
+    public void parseOffShoreRows(Blackhole bh) throws IOException {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())
+                .parse(offShorePage, OFFSHORE_URL)) {
+            WebScraper.parseOffShoreRows(parser, bh::consume);
+        }
+    }
+
+    @Benchmark
+    public boolean parseOFACRows(Blackhole bh) throws IOException {
+        return WebScraper.parseOFACRows(new ByteArrayInputStream(ofacResults), OFAC_URL, bh::consume);
+    }
+
+    @Benchmark
+    public Document parseOFACForm() {
+        return Jsoup.parse(ofacFormHtml, OFAC_URL);
+    }
+
+    @Benchmark
+    public Map<String, String> extractAllInputs() {
+        return WebScraper.extractAllInputs(ofacForm);
+    }
+
+    @Benchmark
+    public String decodeBodyPlain() {
+        return WebScraper.decodeBody(plainResponse);
+    }
+
+    @Benchmark
+    public String decodeBodyGzip() {
+        return WebScraper.decodeBody(gzipResponse);
+    }
+
+    @Benchmark
+    public String decodeBodyDeflate() {
+        return WebScraper.decodeBody(deflateResponse);
+    }
+
+    @Benchmark
+    public String encodeForm() {
+        return WebScraper.encodeForm(ofacInputs);
+    }
+
+    /**
+     * @return Contenido de una página de prueba
+     */
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = WebScraperBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IOException("No se encontró la página de prueba " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * @return Bytes comprimidos con gzip
+     */
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return Bytes comprimidos con deflate (formato zlib)
+     */
+    private static byte[] deflate(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Respuesta HTTP en memoria con un body y encabezados fijos.
+     */
+    private record FixtureResponse(byte[] body, Map<String, List<String>> headerMap) implements HttpResponse<byte[]> {
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(URI.create(OFAC_URL)).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<byte[]>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(headerMap, (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create(OFAC_URL);
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.scrapx.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,6 +15,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * estén disponibles para ser utilizados.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ScrapX implements WebMvcConfigurer {
 
     /**
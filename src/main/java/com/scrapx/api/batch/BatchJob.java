@@ -0,0 +1,149 @@
+package com.scrapx.api.batch;
+
+import com.scrapx.api.dto.*;
+import com.scrapx.api.source.ScrapeSource;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Estado en memoria de un lote de búsquedas.
+ *
+ * Sidenote: Cada entidad tiene una respuesta por cada fuente registrada al crear el
+ * lote, que escriben los hilos del executor a medida que terminan. Cuando una entidad
+ * completa todas sus fuentes se agrega a completionOrder, que usa el endpoint en streaming para emitir las entidades
+ * en el orden en que terminan; los lectores esperan sobre el monitor del propio lote.
+ */
+final class BatchJob {
+
+    final String id;
+    final String score;
+    final List<String> entities;
+    final int duplicates;
+    final Instant createdAt;
+
+    /** Fuentes de cada entidad, en el orden del registro */
+    final List<ScrapeSource<?>> sources;
+
+    /** Respuestas de cada fuente, en la posición entidad * sources.size() + fuente */
+    private final AtomicReferenceArray<SourceResponse<?>> responses;
+
+    /** Fuentes pendientes de cada entidad (protegido por el monitor del lote) */
+    private final byte[] pending;
+
+    /** Entidades completas, en el orden en que terminaron (protegido por el monitor del lote) */
+    private final int[] completionOrder;
+    private int completed;
+
+    private volatile boolean cancelled;
+    private volatile Instant finishedAt;
+
+    BatchJob(String id, String score, List<String> entities, int duplicates, List<ScrapeSource<?>> sources) {
+        this.id = id;
+        this.score = score;
+        this.entities = entities;
+        this.duplicates = duplicates;
+        this.createdAt = Instant.now();
+        this.sources = sources;
+        this.responses = new AtomicReferenceArray<>(entities.size() * sources.size());
+        this.pending = new byte[entities.size()];
+        Arrays.fill(pending, (byte) sources.size());
+        this.completionOrder = new int[entities.size()];
+        if (entities.isEmpty()) {
+            finishedAt = createdAt;
+        }
+    }
+
+    int size() {
+        return entities.size();
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true si el lote terminó o se canceló
+     */
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Registra la respuesta de una fuente para una entidad.
+     *
+     * @param item   Posición de la entidad en el lote
+     * @param source Posición de la fuente consultada en sources
+     */
+    void complete(int item, int source, SourceResponse<?> response) {
+        responses.set(item * sources.size() + source, response);
+        synchronized (this) {
+            if (--pending[item] == 0) {
+                completionOrder[completed++] = item;
+                if (completed == entities.size() && finishedAt == null) {
+                    finishedAt = Instant.now();
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Cancela el lote: las búsquedas en curso terminan, pero no se lanzan más.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (finishedAt == null) {
+            finishedAt = Instant.now();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Espera hasta que haya más de seen entidades completas, el lote termine o pase el plazo.
+     *
+     * @return Número de entidades completas
+     */
+    synchronized int awaitCompleted(int seen, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (completed <= seen && finishedAt == null && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return completed;
+    }
+
+    /**
+     * @return Posición en el lote de la n-ésima entidad completada
+     */
+    synchronized int completedAt(int n) {
+        return completionOrder[n];
+    }
+
+    /**
+     * @return Resultado actual de una entidad (las fuentes pendientes quedan en null)
+     */
+    BatchItem item(int item) {
+        Map<String, SourceResponse<?>> response = new LinkedHashMap<>();
+        boolean done = true;
+        for (int s = 0; s < sources.size(); s++) {
+            SourceResponse<?> r = responses.get(item * sources.size() + s);
+            response.put(sources.get(s).field(), r);
+            done &= r != null;
+        }
+        return new BatchItem(entities.get(item), done, response);
+    }
+
+    /**
+     * @return Estado del lote, con el código y mensaje dados
+     */
+    synchronized BatchStatus status(int code, String message) {
+        String status = cancelled ? "CANCELLED" : finishedAt != null ? "DONE" : "RUNNING";
+        return new BatchStatus(code, message, id, status, entities.size(), duplicates, completed, createdAt, finishedAt);
+    }
+}
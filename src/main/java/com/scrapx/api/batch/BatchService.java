@@ -0,0 +1,299 @@
+package com.scrapx.api.batch;
+
+import com.scrapx.api.dto.*;
+import com.scrapx.api.matching.NameNormalizer;
+import com.scrapx.api.service.ScrapingService;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Servicio de búsquedas por lotes: recibe muchas entidades en un solo trabajo y
+ * las busca en todas las fuentes registradas en segundo plano.
+ *
+ * Sidenote: Cada entidad se busca en cada fuente con los métodos de ScrapingService,
+ * por lo que pasa por la caché, el índice local, la protección de la fuente y la
+ * coincidencia local de nombres igual que una petición individual, y reutiliza las
+ * sesiones compartidas (pool de Chrome, sesión ASP.NET de OFAC, feed de WorldBank).
+ * Para no acaparar las fuentes, el lote se planifica así:
+ * 1) Los nombres se normalizan y se descartan los repetidos ("Aero Holdings Ltd." y "AERO HOLDINGS")
+ * 2) Cada fuente tiene un despachador por lote que lanza las búsquedas en el executor
+ * 3) Un semáforo por fuente, compartido por todos los lotes, limita las búsquedas en curso
+ * 4) Las búsquedas rechazadas por la protección de la fuente (503) se reintentan con espera creciente
+ */
+@Service
+public class BatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchService.class);
+    private final ScrapingService service;
+    private final ExecutorService executor;
+
+    /** Fuentes consultadas para cada entidad, en el orden del registro */
+    private final List<ScrapeSource<?>> sources;
+
+    /** Búsquedas por lotes en curso de cada fuente (comunes a todos los lotes) */
+    private final Map<String, Semaphore> permits;
+
+    /** Entidades distintas máximas por lote */
+    private final int maxEntities;
+
+    /** Reintentos de una búsqueda rechazada por la protección de la fuente */
+    private final int retries;
+
+    /** Espera antes del primer reintento (se duplica en cada intento) */
+    private final Duration backoff;
+
+    /** Tiempo que se conservan los lotes terminados */
+    private final Duration retention;
+
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que inyecta el servicio de scraping y la planificación de los lotes.
+     *
+     * @param service              Servicio de scraping usado para cada búsqueda.
+     * @param executor             Executor compartido donde se ejecutan las búsquedas.
+     * @param sources              Fuentes registradas, con sus búsquedas por lotes simultáneas.
+     * @param maxEntities          Entidades distintas máximas por lote.
+     * @param retries              Reintentos de una búsqueda rechazada (503).
+     * @param backoff              Espera antes del primer reintento.
+     * @param retention            Tiempo que se conservan los lotes terminados.
+     */
+    public BatchService(ScrapingService service,
+                        ExecutorService executor,
+                        SourceRegistry sources,
+                        @Value("${scrapx.batch.max-entities:50000}") int maxEntities,
+                        @Value("${scrapx.batch.retries:3}") int retries,
+                        @Value("${scrapx.batch.backoff:5s}") Duration backoff,
+                        @Value("${scrapx.batch.retention:24h}") Duration retention) {
+        this.service = service;
+        this.executor = executor;
+        this.sources = List.copyOf(sources.all());
+        this.permits = new HashMap<>();
+        sources.all().forEach(source ->
+                permits.put(source.name(), new Semaphore(source.settings().batchConcurrency(), true)));
+        this.maxEntities = maxEntities;
+        this.retries = retries;
+        this.backoff = backoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Crea un lote y lanza sus búsquedas en segundo plano.
+     *
+     * @param entities Nombres de las entidades (pueden repetirse o venir vacíos)
+     * @param score    Score mínimo para la búsqueda en OFAC
+     * @return BatchStatus Con código 202 y el id del lote, o 400 si el lote no es válido.
+     */
+    public BatchStatus submit(List<String> entities, String score) {
+        if (entities == null || score == null || score.isBlank()) {
+            return BatchStatus.error(400, "El lote debe incluir las entidades y el score");
+        }
+
+        // 1. Normalizar los nombres y descartar repetidos, conservando la primera forma recibida
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String entity : entities) {
+            String name = entity == null ? "" : entity.strip();
+            String key = NameNormalizer.normalize(name);
+            if (!key.isEmpty()) {
+                distinct.putIfAbsent(key, name);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return BatchStatus.error(400, "El lote no contiene entidades");
+        }
+        if (distinct.size() > maxEntities) {
+            return BatchStatus.error(400, "El lote supera el máximo de " + maxEntities + " entidades");
+        }
+
+        // 2. Registrar el lote y lanzar un despachador por fuente
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), score,
+                List.copyOf(distinct.values()), entities.size() - distinct.size(), sources);
+        jobs.put(job.id, job);
+        for (int s = 0; s < sources.size(); s++) {
+            int source = s;
+            executor.submit(() -> dispatch(job, source));
+        }
+        log.debug("Lote {} creado con {} entidades", job.id, job.size());
+        return job.status(202, "El lote fue aceptado");
+    }
+
+    /**
+     * @return BatchStatus Con el avance del lote, o código 404 si no existe.
+     */
+    public BatchStatus status(String id) {
+        BatchJob job = jobs.get(id);
+        return job == null ? notFound() : job.status(200, "Estado del lote");
+    }
+
+    /**
+     * Devuelve una página de resultados del lote, en el orden en que se recibieron las entidades.
+     *
+     * @param id   Id del lote
+     * @param page Número de página (desde 0)
+     * @param size Tamaño de página
+     * @return BatchPage Con los resultados de la página (las fuentes pendientes en null).
+     */
+    public BatchPage results(String id, int page, int size) {
+        BatchJob job = jobs.get(id);
+        if (job == null) {
+            return new BatchPage(notFound(), page, size, List.of());
+        }
+        int from = (int) Math.min((long) Math.max(page, 0) * Math.max(size, 1), job.size());
+        int to = (int) Math.min((long) from + Math.max(size, 1), job.size());
+        List<BatchItem> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(job.item(i));
+        }
+        return new BatchPage(job.status(200, "Resultados del lote"), page, size, items);
+    }
+
+    /**
+     * Emite las entidades del lote a medida que completan todas sus fuentes.
+     *
+     * Sidenote: La respuesta en streaming tiene un plazo (spring.mvc.async.request-timeout),
+     * por lo que se deja de esperar al cumplirse maxWait; el cliente puede continuar
+     * desde la última entidad recibida con el parámetro from.
+     *
+     * @param id      Id del lote
+     * @param from    Número de entidades completadas ya recibidas por el cliente
+     * @param maxWait Tiempo máximo de espera de nuevas entidades
+     * @param out     Consumidor de las entidades completas
+     * @return BatchStatus Con el estado del lote al terminar de emitir, o código 404 si no existe.
+     */
+    public BatchStatus stream(String id, int from, Duration maxWait, Consumer<BatchItem> out) {
+        BatchJob job = jobs.get(id);
+        if (job == null) {
+            return notFound();
+        }
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        int sent = Math.max(from, 0);
+        try {
+            while (true) {
+                long remaining = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+                int completed = job.awaitCompleted(sent, Math.max(remaining, 0));
+                while (sent < completed) {
+                    out.accept(job.item(job.completedAt(sent++)));
+                }
+                if (job.isFinished() || remaining <= 0) {
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return job.status(200, "Estado del lote");
+    }
+
+    /**
+     * Cancela un lote: las búsquedas en curso terminan, pero no se lanzan más.
+     *
+     * @return BatchStatus Con el estado del lote, o código 404 si no existe.
+     */
+    public BatchStatus cancel(String id) {
+        BatchJob job = jobs.get(id);
+        if (job == null) {
+            return notFound();
+        }
+        if (!job.isFinished()) {
+            job.cancel();
+            log.debug("Lote {} cancelado", id);
+        }
+        return job.status(200, "El lote fue cancelado");
+    }
+
+    /**
+     * Elimina los lotes terminados hace más de retention.
+     */
+    @Scheduled(fixedDelayString = "${scrapx.batch.eviction:10m}", initialDelayString = "${scrapx.batch.eviction:10m}")
+    public void evictExpired() {
+        Instant limit = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            BatchStatus status = job.status(200, "");
+            return status.finishedAt() != null && status.finishedAt().isBefore(limit);
+        });
+    }
+
+    /**
+     * Lanza las búsquedas de un lote en una fuente, respetando el semáforo de la fuente.
+     */
+    private void dispatch(BatchJob job, int source) {
+        String name = job.sources.get(source).name();
+        Semaphore semaphore = permits.get(name);
+        for (int i = 0; i < job.size() && !job.isCancelled(); i++) {
+            try {
+                semaphore.acquire();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job.isCancelled()) {
+                semaphore.release();
+                return;
+            }
+
+            int item = i;
+            executor.submit(() -> {
+                try {
+                    job.complete(item, source, search(job, item, name));
+                }
+                finally {
+                    semaphore.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Busca una entidad del lote en una fuente, reintentando si la fuente la rechaza (503).
+     */
+    private SourceResponse<?> search(BatchJob job, int item, String source) {
+        String entity = job.entities.get(item);
+        long wait = backoff.toMillis();
+        for (int attempt = 0; ; attempt++) {
+            SourceResponse<?> response;
+            try {
+                response = service.scrapSource(source, entity, job.score);
+            }
+            catch (RuntimeException e) {
+                log.warn("Error en el lote {} ({}): {}", job.id, source, e.getMessage());
+                return new SourceResponse<>(404, "No se pudo establecer la conexión", 0, new ArrayList<>());
+            }
+            if (response.code() != 503 || attempt >= retries || job.isCancelled()) {
+                return response;
+            }
+
+            try {
+                Thread.sleep(wait);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return response;
+            }
+            wait *= 2;
+        }
+    }
+
+    private static BatchStatus notFound() {
+        return BatchStatus.error(404, "No se encontró el lote");
+    }
+}
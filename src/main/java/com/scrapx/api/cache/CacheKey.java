@@ -0,0 +1,31 @@
+package com.scrapx.api.cache;
+
+import java.util.Locale;
+
+/**
+ * Llave de la caché de resultados: una búsqueda en una fuente.
+ *
+ * @param source Nombre de la fuente (offshore, worldbank, ofac)
+ * @param entity Nombre de la entidad normalizado (minúsculas y espacios simples)
+ * @param score  Score mínimo de la búsqueda ("" si la fuente no lo usa)
+ */
+public record CacheKey (
+        String source,
+        String entity,
+        String score
+) {
+
+    /**
+     * Construye la llave normalizando el nombre de la entidad, de modo que
+     * "Aero ", "AERO" y "aero" compartan la misma entrada.
+     *
+     * @param source Nombre de la fuente
+     * @param entity Nombre de la entidad tal como llegó en la petición
+     * @param score  Score mínimo de la búsqueda, o null si la fuente no lo usa
+     * @return CacheKey normalizada
+     */
+    public static CacheKey of(String source, String entity, String score) {
+        String normalized = entity.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return new CacheKey(source, normalized, score == null ? "" : score.trim());
+    }
+}
@@ -0,0 +1,20 @@
+package com.scrapx.api.cache;
+
+/**
+ * Métricas acumuladas de la caché de resultados.
+ *
+ * @param hits      Búsquedas resueltas desde la caché
+ * @param misses    Búsquedas que tuvieron que hacer scraping
+ * @param coalesced Búsquedas que esperaron un scraping idéntico ya en curso
+ * @param evictions Entradas descartadas por falta de espacio
+ * @param entries   Entradas almacenadas actualmente
+ * @param weight    Peso actual (filas almacenadas; una búsqueda sin resultados pesa 1)
+ */
+public record CacheStats (
+        long hits,
+        long misses,
+        long coalesced,
+        long evictions,
+        int entries,
+        long weight
+) { }
@@ -0,0 +1,322 @@
+package com.scrapx.api.cache;
+
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de resultados de scraping, con TTL por fuente y límite de peso.
+ *
+ * Sidenote: El flujo de una búsqueda es:
+ * 1) Si hay una entrada vigente para la llave, se devuelve directamente (hit)
+ * 2) Si otra petición idéntica ya está haciendo el scraping, se espera su resultado
+ * 3) Si no, se lanza el scraping y se guarda el resultado (miss)
+ *
+ * El scraping compartido corre en el executor y no en el hilo de la petición que lo
+ * lanzó: si esa petición agota su plazo y se interrumpe, las demás siguen esperando
+ * el mismo scraping, y su resultado se guarda igual para las siguientes.
+ *
+ * El peso de una entrada es su número de filas (como mínimo 1). Cuando el peso
+ * total supera maxWeight se descartan las entradas usadas hace más tiempo (LRU).
+ * Los resultados vacíos también se guardan: un fallo de la fuente se indica con
+ * una excepción y no llega a la caché. Una copia vencida del índice (StaleRows) se
+ * entrega a las peticiones que la esperan, pero no se guarda: la siguiente petición
+ * vuelve a intentar con la fuente.
+ */
+@Component
+public class ResultCache {
+
+    /**
+     * Entrada almacenada: resultados inmutables y su instante de expiración.
+     */
+    private record Entry(List<?> results, long expiresAt) { }
+
+    /** TTL de cada fuente (settings().cacheTtl()) */
+    private final Map<String, Duration> ttls;
+
+    /** Peso máximo (filas) que puede almacenar la caché */
+    private final long maxWeight;
+
+    /** Entradas en orden de acceso (la primera es la usada hace más tiempo) */
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Scrapings en curso, para que las peticiones idénticas los compartan */
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<List<?>>> inFlight = new ConcurrentHashMap<>();
+
+    private long weight;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Executor en el que corren los scrapings compartidos */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor con la configuración de la caché.
+     *
+     * @param sources   Fuentes registradas, con el TTL de cada una
+     * @param maxWeight Número máximo de filas almacenadas
+     * @param executor  Executor compartido, en el que corren los scrapings
+     */
+    public ResultCache(SourceRegistry sources,
+                       @Value("${scrapx.cache.max-weight:200000}") long maxWeight,
+                       ExecutorService executor) {
+        Map<String, Duration> ttls = new HashMap<>();
+        for (ScrapeSource<?> source : sources.all()) {
+            ttls.put(source.name(), source.settings().cacheTtl());
+        }
+        this.ttls = Map.copyOf(ttls);
+        this.maxWeight = maxWeight;
+        this.executor = executor;
+    }
+
+    /**
+     * Devuelve los resultados de una búsqueda desde la caché, o los obtiene con el loader.
+     *
+     * @param key    Llave de la búsqueda
+     * @param loader Función que hace el scraping si no hay una entrada vigente
+     * @return Resultados de la búsqueda (lista inmutable)
+     * @throws CancellationException Si el hilo se interrumpe mientras espera el scraping
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(CacheKey key, Supplier<List<T>> loader) {
+        // 1. Buscar una entrada vigente
+        List<T> cached = (List<T>) lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        // 2. Unirse a un scraping idéntico en curso, o registrarse como el que lo hace
+        CompletableFuture<List<?>> mine = new CompletableFuture<>();
+        CompletableFuture<List<?>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return (List<T>) await(running);
+        }
+
+        // 3. Lanzar el scraping en el executor y esperar su resultado como cualquier otra petición
+        misses.incrementAndGet();
+        try {
+            executor.execute(() -> load(key, loader, mine));
+        }
+        catch (RejectedExecutionException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        return (List<T>) await(mine);
+    }
+
+    /**
+     * Variante asíncrona de get(): el loader devuelve un future y nadie espera bloqueado.
+     *
+     * Sidenote: Comparte los scrapings en curso con get(), por lo que una petición
+     * síncrona y una asíncrona idénticas hacen un solo scraping.
+     *
+     * @param key    Llave de la búsqueda
+     * @param loader Función que lanza el scraping si no hay una entrada vigente
+     * @return Resultados de la búsqueda (lista inmutable)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<List<T>> getAsync(CacheKey key, Supplier<CompletableFuture<List<T>>> loader) {
+        // 1. Buscar una entrada vigente
+        List<T> cached = (List<T>) lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // 2. Unirse a un scraping idéntico en curso, o registrarse como el que lo hace
+        CompletableFuture<List<?>> mine = new CompletableFuture<>();
+        CompletableFuture<List<?>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running.thenApply(results -> (List<T>) results);
+        }
+
+        // 3. Lanzar el scraping y guardar el resultado cuando termine
+        misses.incrementAndGet();
+        CompletableFuture<List<T>> load;
+        try {
+            load = loader.get();
+        }
+        catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        return load.thenApply(ResultCache::freeze).whenComplete((results, e) -> {
+            if (e == null) {
+                store(key, results);
+            }
+            inFlight.remove(key, mine);
+            if (e == null) {
+                mine.complete(results);
+            }
+            else {
+                mine.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    /**
+     * Devuelve los resultados de una búsqueda solo si hay una entrada vigente.
+     *
+     * Sidenote: Lo usa el endpoint en streaming, que ante un miss emite los
+     * resultados a medida que llegan en lugar de acumularlos para la caché.
+     *
+     * @param key Llave de la búsqueda
+     * @return Resultados (lista inmutable) o null si no hay entrada vigente
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getIfPresent(CacheKey key) {
+        List<T> cached = (List<T>) lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+        }
+        else {
+            misses.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * Reemplaza la entrada de una búsqueda con resultados recién obtenidos en vivo.
+     *
+     * @param key     Llave de la búsqueda
+     * @param results Resultados obtenidos
+     */
+    public void put(CacheKey key, List<?> results) {
+        store(key, List.copyOf(results));
+    }
+
+    /**
+     * @return Métricas acumuladas de la caché
+     */
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.get(), misses.get(), coalesced.get(), evictions.get(), entries.size(), weight);
+        }
+    }
+
+    /**
+     * Busca una entrada vigente, descartándola si ya expiró.
+     */
+    private List<?> lookup(CacheKey key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= System.nanoTime()) {
+                entries.remove(key);
+                weight -= weight(entry.results());
+                return null;
+            }
+            return entry.results();
+        }
+    }
+
+    /**
+     * Guarda una entrada y descarta las menos usadas si se supera el peso máximo.
+     */
+    private void store(CacheKey key, List<?> results) {
+        Duration ttl = ttls.getOrDefault(key.source(), Duration.ZERO);
+        if (ttl.isZero() || weight(results) > maxWeight || results instanceof StaleRows) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(results, System.nanoTime() + ttl.toNanos()));
+            if (previous != null) {
+                weight -= weight(previous.results());
+            }
+            weight += weight(results);
+
+            Iterator<Map.Entry<CacheKey, Entry>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= weight(eldest.next().getValue().results());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return Copia inmutable de los resultados (una copia vencida del índice ya es inmutable y conserva su marca)
+     */
+    private static <T> List<T> freeze(List<T> rows) {
+        return rows instanceof StaleRows<T> ? rows : List.copyOf(rows);
+    }
+
+    /**
+     * @return Peso de una entrada: sus filas, o 1 si está vacía (para que también cuente en el límite)
+     */
+    private static long weight(List<?> results) {
+        return Math.max(1, results.size());
+    }
+
+    /**
+     * Hace un scraping compartido, guarda su resultado y lo entrega a las peticiones que lo esperan.
+     *
+     * Sidenote: El scraping deja de estar en curso antes de entregar su resultado: una
+     * petición que llega después de un fallo lanza un scraping nuevo en lugar de unirse
+     * al que ya falló.
+     */
+    private <T> void load(CacheKey key, Supplier<List<T>> loader, CompletableFuture<List<?>> shared) {
+        List<T> results;
+        try {
+            results = freeze(loader.get());
+            store(key, results);
+        }
+        catch (RuntimeException | Error e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+            return;
+        }
+        inFlight.remove(key, shared);
+        shared.complete(results);
+    }
+
+    /**
+     * Espera el resultado de un scraping compartido.
+     *
+     * Sidenote: Interrumpir a una petición (p. ej. porque agotó su plazo) solo termina
+     * su espera: el scraping sigue para las demás, y la interrupción no se confunde con
+     * una búsqueda sin resultados.
+     *
+     * @throws CancellationException Si el hilo se interrumpe mientras espera
+     */
+    private List<?> await(CompletableFuture<List<?>> running) {
+        try {
+            return running.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Se interrumpió la espera del scraping");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.scrapx.api.cluster;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.resilience.SourceUnavailableException;
+import com.scrapx.api.scraping.ScrapingException;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Modo clúster: reparte las búsquedas entre varias réplicas de la aplicación.
+ *
+ * Sidenote: Los nodos se declaran de forma estática (scrapx.cluster.nodes, incluido
+ * este nodo en scrapx.cluster.self) y se comunican por HTTP con los endpoints
+ * /internal/cluster/*. Cada búsqueda (fuente, entidad y score) tiene un nodo dueño
+ * en un anillo de hashing consistente:
+ * 1) Un nodo que recibe una búsqueda ajena la reenvía a su dueño, que la resuelve con
+ *    su caché, su índice local y la protección de la fuente. La caché de cada nodo
+ *    guarda solo sus búsquedas: en conjunto funcionan como una caché distribuida, y
+ *    las búsquedas repetidas en distintas réplicas llegan una sola vez a la fuente
+ * 2) Si el dueño no responde (conexión rechazada o cortada), se marca caído durante
+ *    scrapx.cluster.down-for y sus búsquedas pasan al siguiente nodo del anillo; la
+ *    búsqueda en curso se resuelve localmente
+ * 3) Si el dueño rechaza la búsqueda (503) o la fuente falla, el error se propaga
+ *    igual que en una búsqueda local
+ *
+ * Los endpoints internos solo se registran en modo clúster y exigen el secreto compartido
+ * (scrapx.cluster.secret, cabecera X-ScrapX-Cluster): sin secreto, el nodo no arranca en modo clúster.
+ */
+@Component
+public class Cluster {
+
+    private static final Logger log = LoggerFactory.getLogger(Cluster.class);
+
+    /** Cabecera con el secreto compartido de los nodos */
+    public static final String SECRET_HEADER = "X-ScrapX-Cluster";
+
+    /** Cabecera con el instante de la copia, si el dueño respondió desde una copia vencida del índice */
+    public static final String FETCHED_AT_HEADER = "X-ScrapX-Fetched-At";
+
+    private final boolean enabled;
+    private final String self;
+    private final List<String> nodes;
+    private final HashRing ring;
+    private final String secret;
+
+    /** Tiempo que un nodo que no respondió queda fuera del anillo */
+    private final Duration downFor;
+
+    /** Instante (System.nanoTime) hasta el que cada nodo se considera caído */
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    /** Lectores de los resultados de cada fuente */
+    private final Map<String, ObjectReader> rowsReaders = new HashMap<>();
+
+    private final HttpClient client;
+
+    /**
+     * Constructor con la configuración del clúster.
+     *
+     * @param enabled      true para repartir las búsquedas entre los nodos
+     * @param self         URL de este nodo, tal como aparece en nodes
+     * @param nodes        URLs de todos los nodos del clúster (incluido este)
+     * @param virtualNodes Posiciones de cada nodo en el anillo
+     * @param downFor      Tiempo que un nodo que no respondió queda fuera del anillo
+     * @param secret       Secreto compartido de los endpoints internos (obligatorio en modo clúster)
+     * @param sources      Fuentes registradas, con el tipo de resultado de cada una
+     * @param mapper       Mapper JSON de la aplicación
+     * @param executor     Executor compartido, usado por el cliente HTTP
+     */
+    public Cluster(@Value("${scrapx.cluster.enabled:false}") boolean enabled,
+                   @Value("${scrapx.cluster.self:http://127.0.0.1:8080}") String self,
+                   @Value("${scrapx.cluster.nodes:}") List<String> nodes,
+                   @Value("${scrapx.cluster.virtual-nodes:128}") int virtualNodes,
+                   @Value("${scrapx.cluster.down-for:30s}") Duration downFor,
+                   @Value("${scrapx.cluster.secret:}") String secret,
+                   SourceRegistry sources,
+                   ObjectMapper mapper,
+                   ExecutorService executor) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("El modo clúster requiere scrapx.cluster.secret");
+        }
+        this.self = url(self);
+        List<String> members = new ArrayList<>();
+        for (String node : nodes) {
+            if (!node.isBlank() && !members.contains(url(node))) {
+                members.add(url(node));
+            }
+        }
+        if (!members.contains(this.self)) {
+            members.add(this.self);
+        }
+        this.nodes = List.copyOf(members);
+        this.enabled = enabled && this.nodes.size() > 1;
+        this.ring = new HashRing(this.nodes, virtualNodes);
+        this.downFor = downFor;
+        this.secret = secret;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+        for (ScrapeSource<?> source : sources.all()) {
+            rowsReaders.put(source.name(), mapper.readerForListOf(source.resultType()));
+        }
+        if (this.enabled) {
+            log.info("Modo clúster: {} en {}", this.self, this.nodes);
+        }
+    }
+
+    /**
+     * @return true si las búsquedas se reparten entre varios nodos
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @return URL de este nodo
+     */
+    public String self() {
+        return self;
+    }
+
+    /**
+     * Devuelve el nodo dueño de una llave.
+     *
+     * @param key Llave (p. ej. "upstream:ofac")
+     * @return URL del dueño, o null si es este nodo o el modo clúster está deshabilitado
+     */
+    public String owner(String key) {
+        if (!enabled) {
+            return null;
+        }
+        String owner = ring.owner(key, this::isUp);
+        return owner == null || owner.equals(self) ? null : owner;
+    }
+
+    /**
+     * Devuelve el nodo dueño de una búsqueda.
+     *
+     * @return URL del dueño, o null si es este nodo o el modo clúster está deshabilitado
+     */
+    public String owner(CacheKey key) {
+        return owner(key.source() + "|" + key.entity() + "|" + key.score());
+    }
+
+    /**
+     * Pide a otro nodo los resultados de una búsqueda (sin el puntaje de coincidencia).
+     *
+     * @param owner   URL del nodo dueño
+     * @param key     Llave de la búsqueda
+     * @param timeout Plazo de la respuesta (el de la fuente)
+     * @return Resultados, o null si el nodo no respondió y la búsqueda se debe resolver localmente
+     * @throws SourceUnavailableException Si el dueño rechazó la búsqueda
+     * @throws ScrapingException          Si la búsqueda falló en el dueño o superó el plazo
+     */
+    public <T> List<T> rows(String owner, CacheKey key, Duration timeout) {
+        try {
+            HttpResponse<byte[]> response = client.send(rowsRequest(owner, key, timeout), HttpResponse.BodyHandlers.ofByteArray());
+            return rows(owner, key, response);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingException(key.source());
+        }
+        catch (IOException e) {
+            return unreachable(owner, key, e);
+        }
+    }
+
+    /**
+     * Variante asíncrona de rows(): no ocupa ningún hilo mientras espera al dueño.
+     *
+     * @return Resultados; se completa con null si el nodo no respondió
+     */
+    public <T> CompletableFuture<List<T>> rowsAsync(String owner, CacheKey key, Duration timeout) {
+        return client.sendAsync(rowsRequest(owner, key, timeout), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return rows(owner, key, response);
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IOException io) {
+                        return unreachable(owner, key, io);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Pide tokens de una fuente al nodo dueño de su límite de peticiones.
+     *
+     * @param owner  URL del nodo dueño del límite
+     * @param source Nombre de la fuente
+     * @param count  Tokens pedidos
+     * @return Tokens concedidos (0 si el límite está agotado), o -1 si el nodo no respondió
+     */
+    public long tokens(String owner, String source, int count) {
+        HttpRequest request = internal(owner + "/internal/cluster/tokens/" + source + "?count=" + count)
+                .timeout(Duration.ofSeconds(2))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                return Long.parseLong(response.body().trim());
+            }
+            log.warn("Respuesta inesperada de {} al pedir tokens: {}", owner, response.statusCode());
+            return -1;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+        catch (IOException | NumberFormatException e) {
+            markDown(owner, e);
+            return -1;
+        }
+    }
+
+    /**
+     * @param header Valor de la cabecera X-ScrapX-Cluster de una petición interna
+     * @return true si la petición trae el secreto del clúster (comparado en tiempo constante)
+     */
+    public boolean authorized(String header) {
+        return !secret.isEmpty() && header != null
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Nodos del clúster y si se consideran vivos
+     */
+    public List<ClusterStatus.Node> nodes() {
+        return nodes.stream().map(node -> new ClusterStatus.Node(node, node.equals(self), isUp(node))).toList();
+    }
+
+    private HttpRequest rowsRequest(String owner, CacheKey key, Duration timeout) {
+        String uri = owner + "/internal/cluster/rows/" + key.source()
+                + "?entity=" + URLEncoder.encode(key.entity(), StandardCharsets.UTF_8)
+                + "&score=" + URLEncoder.encode(key.score(), StandardCharsets.UTF_8);
+        return internal(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    /**
+     * @return Petición a un endpoint interno, con el secreto del clúster si está configurado
+     */
+    private HttpRequest.Builder internal(String uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri));
+        return secret.isEmpty() ? builder : builder.header(SECRET_HEADER, secret);
+    }
+
+    /**
+     * Interpreta la respuesta del dueño: 200 resultados (StaleRows si trae FETCHED_AT_HEADER),
+     * 503 rechazada, otro código fallida.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> rows(String owner, CacheKey key, HttpResponse<byte[]> response) {
+        switch (response.statusCode()) {
+            case 200 -> {
+                try {
+                    List<T> rows = (List<T>) rowsReaders.get(key.source()).readValue(response.body());
+                    Optional<String> fetchedAt = response.headers().firstValue(FETCHED_AT_HEADER);
+                    return fetchedAt.isPresent() ? new StaleRows<>(rows, Instant.parse(fetchedAt.get())) : rows;
+                }
+                catch (JacksonException | DateTimeParseException e) {
+                    log.warn("Respuesta inválida de {}: {}", owner, e.getMessage());
+                    throw new ScrapingException(key.source());
+                }
+            }
+            case 503 -> throw new SourceUnavailableException(new String(response.body(), StandardCharsets.UTF_8));
+            default -> throw new ScrapingException(key.source());
+        }
+    }
+
+    /**
+     * Un plazo agotado se trata como una búsqueda fallida (el dueño sigue buscando);
+     * un error de conexión deja al nodo fuera del anillo y la búsqueda se resuelve localmente.
+     */
+    private <T> List<T> unreachable(String owner, CacheKey key, IOException e) {
+        if (e instanceof HttpTimeoutException) {
+            log.warn("El nodo {} no respondió a tiempo la búsqueda de {}", owner, key.source());
+            throw new ScrapingException(key.source());
+        }
+        markDown(owner, e);
+        return null;
+    }
+
+    private void markDown(String node, Exception e) {
+        downUntil.put(node, System.nanoTime() + downFor.toNanos());
+        log.warn("Nodo {} fuera del anillo por {}s: {}", node, downFor.toSeconds(), e.toString());
+    }
+
+    private boolean isUp(String node) {
+        Long until = downUntil.get(node);
+        if (until == null) {
+            return true;
+        }
+        if (System.nanoTime() - until >= 0) {
+            downUntil.remove(node, until);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return URL sin la barra final
+     */
+    private static String url(String node) {
+        String trimmed = node.strip();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,43 @@
+package com.scrapx.api.cluster;
+
+import java.util.List;
+
+/**
+ * Estado del clúster visto desde un nodo, expuesto en /api/cluster/status.
+ *
+ * @param enabled   true si las búsquedas se reparten entre los nodos
+ * @param self      URL de este nodo
+ * @param nodes     Nodos del clúster
+ * @param upstreams Límite de peticiones de cada fuente que lo tiene configurado
+ */
+public record ClusterStatus(
+        boolean enabled,
+        String self,
+        List<Node> nodes,
+        List<Upstream> upstreams
+) {
+
+    /**
+     * @param url  URL del nodo
+     * @param self true si es este nodo
+     * @param up   false si el nodo no respondió y está fuera del anillo
+     */
+    public record Node(
+            String url,
+            boolean self,
+            boolean up
+    ) { }
+
+    /**
+     * @param source        Nombre de la fuente
+     * @param ratePerMinute Peticiones por minuto a la fuente, sumando todos los nodos
+     * @param owner         URL del nodo dueño del bucket
+     * @param available     Tokens disponibles en este nodo (los del bucket si es el dueño)
+     */
+    public record Upstream(
+            String source,
+            long ratePerMinute,
+            String owner,
+            long available
+    ) { }
+}
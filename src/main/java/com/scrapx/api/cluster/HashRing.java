@@ -0,0 +1,78 @@
+package com.scrapx.api.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Anillo de hashing consistente: asigna cada llave a un nodo del clúster.
+ *
+ * Sidenote: Cada nodo ocupa virtualNodes posiciones en el anillo, y una llave
+ * pertenece al primer nodo que aparece al recorrer el anillo desde el hash de la
+ * llave. Así:
+ * 1) Las llaves se reparten de forma pareja entre los nodos
+ * 2) Al agregar o quitar un nodo solo cambian de dueño las llaves de ese nodo
+ * 3) Si el dueño está caído, la llave pasa al siguiente nodo vivo del anillo, el
+ *    mismo para todos los nodos que lo ven caído
+ */
+public final class HashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * @param nodes        URLs de los nodos (el orden no importa)
+     * @param virtualNodes Posiciones de cada nodo en el anillo
+     */
+    public HashRing(List<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Devuelve el dueño de una llave.
+     *
+     * @param key   Llave (p. ej. fuente, entidad y score de una búsqueda)
+     * @param alive Indica si un nodo está vivo
+     * @return URL del primer nodo vivo desde el hash de la llave, o null si no hay ninguno
+     */
+    public String owner(String key, Predicate<String> alive) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        long hash = hash(key);
+        for (Map.Entry<Long, String> e : ring.tailMap(hash, true).entrySet()) {
+            if (alive.test(e.getValue())) {
+                return e.getValue();
+            }
+        }
+        for (Map.Entry<Long, String> e : ring.headMap(hash, false).entrySet()) {
+            if (alive.test(e.getValue())) {
+                return e.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hash de 64 bits de un texto: FNV-1a sobre sus bytes UTF-8, seguido de la
+     * mezcla final de MurmurHash3 para repartir mejor las llaves parecidas.
+     */
+    static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,227 @@
+package com.scrapx.api.cluster;
+
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Límite de peticiones por minuto a cada fuente externa, compartido por todo el clúster.
+ *
+ * Sidenote: A diferencia de ClientQuotas (por cliente y por nodo), este límite protege
+ * a la fuente de la suma de todos los nodos (scrapx.cluster.upstream-rate.<fuente>;
+ * 0 = sin límite):
+ * 1) El bucket de Bucket4j de cada fuente vive en el nodo dueño de "upstream:<fuente>"
+ *    en el anillo del clúster
+ * 2) Los demás nodos le piden tokens por lotes (scrapx.cluster.token-lease) y los
+ *    gastan localmente; los que no se usan vencen tras scrapx.cluster.token-lease-ttl,
+ *    así un nodo inactivo no acapara el límite. Un solo hilo pide cada lote, sin
+ *    bloquear el límite mientras espera al dueño, y los demás esperan su respuesta;
+ *    si el dueño no concede tokens, las búsquedas se rechazan sin volver a pedirlos
+ *    hasta que vence scrapx.cluster.token-lease-ttl
+ * 3) Si el dueño no responde, el nodo usa su propio bucket hasta que el anillo elige
+ *    otro dueño, por lo que la fuente nunca queda sin límite
+ * Con el modo clúster deshabilitado, el bucket de cada fuente es local.
+ */
+@Component
+public class UpstreamLimiter {
+
+    /**
+     * Límite de una fuente: bucket local y tokens pedidos al dueño del límite.
+     */
+    private static final class Limit {
+        private final long ratePerMinute;
+        private final Bucket bucket;
+        private long leased;
+        private long leaseExpiresAt;
+
+        /** Instante hasta el que se recuerda que el dueño no concedió tokens */
+        private long emptyUntil;
+
+        /** Pedido de tokens en curso (null si no hay); se completa con false si el dueño no respondió */
+        private CompletableFuture<Boolean> refill;
+
+        private Limit(long ratePerMinute) {
+            this.ratePerMinute = ratePerMinute;
+            this.bucket = Bucket.builder().addLimit(Bandwidth.builder()
+                    .capacity(ratePerMinute)
+                    .refillGreedy(ratePerMinute, Duration.ofMinutes(1))
+                    .build()).build();
+        }
+    }
+
+    /** Espera máxima de un hilo por el lote que pide otro hilo (mayor que el plazo del pedido) */
+    private static final long LEASE_WAIT_SECONDS = 3;
+
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+    private final Cluster cluster;
+
+    /** Tokens pedidos al dueño del límite en cada lote */
+    private final int lease;
+
+    /** Vigencia de los tokens pedidos al dueño */
+    private final Duration leaseTtl;
+
+    /**
+     * Constructor que lee el límite de cada fuente.
+     *
+     * @param sources  Fuentes registradas
+     * @param env      Entorno de Spring con las propiedades scrapx.cluster.upstream-rate.*
+     * @param cluster  Nodos del clúster y dueño de cada límite
+     * @param lease    Tokens pedidos al dueño en cada lote
+     * @param leaseTtl Vigencia de los tokens pedidos al dueño
+     */
+    public UpstreamLimiter(SourceRegistry sources, Environment env, Cluster cluster,
+                           @Value("${scrapx.cluster.token-lease:5}") int lease,
+                           @Value("${scrapx.cluster.token-lease-ttl:10s}") Duration leaseTtl) {
+        this.cluster = cluster;
+        this.lease = Math.max(1, lease);
+        this.leaseTtl = leaseTtl;
+        for (ScrapeSource<?> source : sources.all()) {
+            long rate = env.getProperty("scrapx.cluster.upstream-rate." + source.name(), Long.class, 0L);
+            if (rate > 0) {
+                limits.put(source.name(), new Limit(rate));
+            }
+        }
+    }
+
+    /**
+     * Intenta consumir 1 token del límite de una fuente.
+     *
+     * @param source Nombre de la fuente
+     * @return true si la búsqueda puede llegar a la fuente (siempre, si la fuente no tiene límite)
+     */
+    public boolean tryAcquire(String source) {
+        Limit limit = limits.get(source);
+        if (limit == null) {
+            return true;
+        }
+        String owner = cluster.owner(upstreamKey(source));
+        if (owner == null) {
+            return limit.bucket.tryConsume(1);
+        }
+
+        // 1. Gastar los tokens pedidos antes al dueño, o rechazar si el dueño no concedió ninguno
+        CompletableFuture<Boolean> refill;
+        boolean leader = false;
+        synchronized (limit) {
+            Boolean leased = consumeLeased(limit);
+            if (leased != null) {
+                return leased;
+            }
+            if (limit.refill == null) {
+                limit.refill = new CompletableFuture<>();
+                leader = true;
+            }
+            refill = limit.refill;
+        }
+
+        // 2. Un solo hilo pide el lote nuevo (sin bloquear el límite); los demás esperan su respuesta
+        boolean reachable;
+        if (leader) {
+            long granted = -1;
+            try {
+                granted = cluster.tokens(owner, source, lease);
+            }
+            finally {
+                synchronized (limit) {
+                    long now = System.nanoTime();
+                    limit.leased = Math.max(granted, 0);
+                    limit.leaseExpiresAt = now + leaseTtl.toNanos();
+                    limit.emptyUntil = granted == 0 ? now + leaseTtl.toNanos() : now;
+                    limit.refill = null;
+                }
+                refill.complete(granted >= 0);
+            }
+            reachable = granted >= 0;
+        }
+        else {
+            try {
+                reachable = refill.get(LEASE_WAIT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            catch (ExecutionException | TimeoutException e) {
+                return false;
+            }
+        }
+
+        // 3. Gastar del lote nuevo; si el dueño no respondió, usar el bucket local
+        if (!reachable) {
+            return limit.bucket.tryConsume(1);
+        }
+        synchronized (limit) {
+            return Boolean.TRUE.equals(consumeLeased(limit));
+        }
+    }
+
+    /**
+     * Gasta un token del lote pedido al dueño (se llama con el límite bloqueado).
+     *
+     * @return true si había un token vigente, false si el dueño no concedió tokens hace
+     *         menos de token-lease-ttl, o null si hay que pedir un lote nuevo
+     */
+    private static Boolean consumeLeased(Limit limit) {
+        long now = System.nanoTime();
+        if (limit.leased > 0 && now - limit.leaseExpiresAt < 0) {
+            limit.leased--;
+            return true;
+        }
+        if (now - limit.emptyUntil < 0) {
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Concede tokens del bucket local a otro nodo (este nodo es el dueño del límite).
+     *
+     * @param source Nombre de la fuente
+     * @param count  Tokens pedidos
+     * @return Tokens concedidos, entre 0 y count (count si la fuente no tiene límite)
+     */
+    public long grant(String source, int count) {
+        Limit limit = limits.get(source);
+        if (limit == null) {
+            return Math.max(0, count);
+        }
+        return limit.bucket.tryConsumeAsMuchAsPossible(Math.max(0, count));
+    }
+
+    /**
+     * @return Límite de cada fuente, con su dueño y los tokens disponibles en este nodo
+     */
+    public List<ClusterStatus.Upstream> status() {
+        List<ClusterStatus.Upstream> status = new ArrayList<>();
+        limits.forEach((source, limit) -> {
+            String owner = cluster.owner(upstreamKey(source));
+            long available;
+            synchronized (limit) {
+                available = owner == null ? limit.bucket.getAvailableTokens()
+                        : (System.nanoTime() - limit.leaseExpiresAt < 0 ? limit.leased : 0);
+            }
+            status.add(new ClusterStatus.Upstream(source, limit.ratePerMinute,
+                    owner == null ? cluster.self() : owner, available));
+        });
+        return status;
+    }
+
+    private static String upstreamKey(String source) {
+        return "upstream:" + source;
+    }
+}
@@ -0,0 +1,38 @@
+package com.scrapx.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuración del motor de ejecución concurrente usado por el scraping.
+ *
+ * Sidenote: El proyecto compila con Java 17 (versión definida por el parent de
+ * Spring Boot y la imagen de Docker), por lo que no hay hilos virtuales disponibles.
+ * Se usa un pool "cached" de hilos daemon: el trabajo de scraping es casi
+ * exclusivamente de espera por red, y un pool sin límite fijo evita bloqueos
+ * cuando una tarea de scraping espera a otras tareas del mismo pool.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    /**
+     * Executor compartido para lanzar las búsquedas de cada fuente en paralelo.
+     *
+     * @return ExecutorService que se cierra junto con el contexto de Spring
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService scrapingExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "scrapx-scraping-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(factory);
+    }
+}
@@ -0,0 +1,30 @@
+package com.scrapx.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
+
+/**
+ * Configuración de los formatos de respuesta compactos.
+ *
+ * Sidenote: Además de JSON, las respuestas se pueden pedir en CBOR
+ * (Accept: application/cbor) o Smile (Accept: application/x-jackson-smile), que
+ * ocupan menos y se decodifican más rápido en listas grandes de resultados.
+ * CBOR usa el converter por defecto. En Smile se activan además las referencias
+ * a valores repetidos: los textos cortos que se repiten entre filas (jurisdicción,
+ * programa, lista, score) se escriben una sola vez y el resto son referencias.
+ */
+@Configuration
+public class EncodingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        SmileMapper smile = SmileMapper.builder()
+                .enable(SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        builder.withSmileConverter(new JacksonSmileHttpMessageConverter(smile));
+    }
+}
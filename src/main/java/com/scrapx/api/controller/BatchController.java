@@ -0,0 +1,181 @@
+package com.scrapx.api.controller;
+
+import com.scrapx.api.batch.BatchService;
+import com.scrapx.api.dto.BatchPage;
+import com.scrapx.api.dto.BatchRequest;
+import com.scrapx.api.dto.BatchStatus;
+import com.scrapx.api.resilience.ClientQuotas;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Controlador de las búsquedas por lotes: recibe una lista (JSON, texto o archivo)
+ * de entidades, devuelve el id del lote y expone su avance y sus resultados,
+ * paginados o en streaming.
+ *
+ * Crear un lote consume un solo token del rate-limit, sin importar el número de
+ * entidades; la carga sobre las fuentes la regula BatchService.
+ */
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    /** Content-Type de la respuesta en streaming: un objeto JSON por línea */
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BatchService batches;
+    private final ObjectMapper mapper;
+    private final ClientQuotas quotas;
+
+    /** Tiempo máximo de una respuesta en streaming, menor que el plazo de las respuestas asíncronas */
+    private final Duration streamWait;
+
+    /**
+     * Constructor que inyecta el servicio de lotes.
+     *
+     * @param batches    Servicio que gestiona los lotes.
+     * @param mapper     Mapper JSON usado para serializar las líneas en streaming.
+     * @param quotas     Rate-limit por cliente (un bucket de Bucket4j por IP).
+     * @param streamWait Tiempo máximo de una respuesta en streaming.
+     */
+    public BatchController(BatchService batches, ObjectMapper mapper, ClientQuotas quotas,
+                           @Value("${scrapx.batch.stream-wait:80s}") Duration streamWait) {
+        this.batches = batches;
+        this.mapper = mapper;
+        this.quotas = quotas;
+        this.streamWait = streamWait;
+    }
+
+    /**
+     * Crea un lote a partir de un cuerpo JSON: {"entities": [...], "score": "90"}.
+     *
+     * @param body    Entidades y score del lote.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return BatchStatus Con código 202 y el id del lote (400 o 429 si se rechaza).
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchStatus submit(@RequestBody BatchRequest body, HttpServletRequest request) {
+        if (!quotas.tryConsume(request)) {
+            return BatchStatus.error(429, "Has superado el límite de solicitudes. Intenta más tarde.");
+        }
+        return batches.submit(body.entities(), body.score());
+    }
+
+    /**
+     * Crea un lote a partir de un cuerpo de texto con una entidad por línea.
+     *
+     * @param body    Entidades, una por línea.
+     * @param score   El score mínimo para la búsqueda en OFAC.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return BatchStatus Con código 202 y el id del lote (400 o 429 si se rechaza).
+     */
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public BatchStatus submitText(@RequestBody String body, @RequestParam String score, HttpServletRequest request) {
+        if (!quotas.tryConsume(request)) {
+            return BatchStatus.error(429, "Has superado el límite de solicitudes. Intenta más tarde.");
+        }
+        return batches.submit(body.lines().toList(), score);
+    }
+
+    /**
+     * Crea un lote a partir de un archivo (multipart, campo "file") con una entidad por línea.
+     *
+     * @param file    Archivo de texto UTF-8 con las entidades.
+     * @param score   El score mínimo para la búsqueda en OFAC.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return BatchStatus Con código 202 y el id del lote (400 o 429 si se rechaza).
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public BatchStatus submitFile(@RequestParam("file") MultipartFile file, @RequestParam String score,
+                                  HttpServletRequest request) throws IOException {
+        if (!quotas.tryConsume(request)) {
+            return BatchStatus.error(429, "Has superado el límite de solicitudes. Intenta más tarde.");
+        }
+        List<String> entities = new String(file.getBytes(), StandardCharsets.UTF_8).lines().toList();
+        return batches.submit(entities, score);
+    }
+
+    /**
+     * Endpoint que devuelve el avance de un lote.
+     *
+     * @param id Id del lote.
+     * @return BatchStatus Con el estado y las entidades completadas (404 si no existe).
+     */
+    @GetMapping("/{id}")
+    public BatchStatus status(@PathVariable String id) {
+        return batches.status(id);
+    }
+
+    /**
+     * Endpoint que devuelve una página de resultados del lote, en el orden de las entidades.
+     *
+     * @param id   Id del lote.
+     * @param page Número de página (desde 0).
+     * @param size Tamaño de página (máximo 500).
+     * @return BatchPage Con el estado del lote y los resultados de la página.
+     */
+    @GetMapping("/{id}/results")
+    public BatchPage results(@PathVariable String id,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "100") int size) {
+        return batches.results(id, page, Math.min(Math.max(size, 1), 500));
+    }
+
+    /**
+     * Variante en streaming de /results: escribe en formato NDJSON cada entidad
+     * (BatchItem) a medida que completa todas sus fuentes y, al final, el estado del lote.
+     *
+     * Si el lote sigue en curso al cumplirse el plazo de la respuesta, el cliente
+     * puede continuar con from igual al número de entidades ya recibidas.
+     *
+     * @param id   Id del lote.
+     * @param from Entidades completadas ya recibidas en respuestas anteriores.
+     * @return Cuerpo de la respuesta que se escribe de forma incremental.
+     */
+    @GetMapping(value = "/{id}/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream(@PathVariable String id,
+                                                        @RequestParam(defaultValue = "0") int from) {
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(out -> writeLine(out, batches.stream(id, from, streamWait, item -> writeLine(out, item))));
+    }
+
+    /**
+     * Endpoint que cancela un lote; las búsquedas en curso terminan y sus resultados se conservan.
+     *
+     * @param id Id del lote.
+     * @return BatchStatus Con el estado del lote (404 si no existe).
+     */
+    @DeleteMapping("/{id}")
+    public BatchStatus cancel(@PathVariable String id) {
+        return batches.cancel(id);
+    }
+
+    /**
+     * Escribe un objeto como una línea JSON y la envía al cliente.
+     */
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(mapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        }
+        catch (IOException e) {
+            // El cliente cerró la conexión
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.scrapx.api.controller;
+
+import com.scrapx.api.cluster.Cluster;
+import com.scrapx.api.cluster.ClusterStatus;
+import com.scrapx.api.cluster.UpstreamLimiter;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador del estado del clúster: nodos y límite de peticiones a cada fuente.
+ *
+ * Sidenote: Los endpoints que usan los nodos entre sí están en ClusterInternalController,
+ * que solo se registra en modo clúster.
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    private final Cluster cluster;
+    private final UpstreamLimiter upstream;
+
+    /**
+     * Constructor que inyecta el estado del clúster.
+     *
+     * @param cluster  Nodos del clúster.
+     * @param upstream Límite de peticiones por minuto a cada fuente.
+     */
+    public ClusterController(Cluster cluster, UpstreamLimiter upstream) {
+        this.cluster = cluster;
+        this.upstream = upstream;
+    }
+
+    /**
+     * Endpoint que devuelve los nodos del clúster y el límite de peticiones de cada fuente.
+     *
+     * @return ClusterStatus Visto desde este nodo.
+     */
+    @GetMapping("/status")
+    public ClusterStatus status() {
+        return new ClusterStatus(cluster.enabled(), cluster.self(), cluster.nodes(), upstream.status());
+    }
+}
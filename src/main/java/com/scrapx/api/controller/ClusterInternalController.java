@@ -0,0 +1,98 @@
+package com.scrapx.api.controller;
+
+import com.scrapx.api.cluster.Cluster;
+import com.scrapx.api.cluster.UpstreamLimiter;
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.resilience.SourceUnavailableException;
+import com.scrapx.api.scraping.ScrapingException;
+import com.scrapx.api.service.ScrapingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Endpoints internos del modo clúster, que usan los nodos entre sí: búsquedas
+ * reenviadas al dueño y tokens del límite de peticiones a cada fuente.
+ *
+ * Sidenote: Solo se registran con scrapx.cluster.enabled=true, y cada petición debe
+ * traer el secreto del clúster (cabecera X-ScrapX-Cluster; el nodo no arranca en modo
+ * clúster sin secreto), ya que no pasan por el rate-limit por cliente. A diferencia de
+ * los endpoints públicos, responden con el código HTTP real (503 rechazada, 502
+ * fallida, 403 sin el secreto), ya que solo los consume Cluster.
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+@ConditionalOnProperty(name = "scrapx.cluster.enabled", havingValue = "true")
+public class ClusterInternalController {
+
+    private final ScrapingService service;
+    private final Cluster cluster;
+    private final UpstreamLimiter upstream;
+
+    /**
+     * Constructor que inyecta el servicio de scraping y el estado del clúster.
+     *
+     * @param service  Servicio que resuelve las búsquedas reenviadas.
+     * @param cluster  Nodos del clúster, con su secreto.
+     * @param upstream Límite de peticiones por minuto a cada fuente.
+     */
+    public ClusterInternalController(ScrapingService service, Cluster cluster, UpstreamLimiter upstream) {
+        this.service = service;
+        this.cluster = cluster;
+        this.upstream = upstream;
+    }
+
+    /**
+     * Resuelve una búsqueda de la que este nodo es dueño.
+     *
+     * @param source Nombre de la fuente.
+     * @param entity Nombre de la entidad, normalizado.
+     * @param score  Score de la llave de la búsqueda.
+     * @param secret Secreto compartido del clúster.
+     * @return Resultados de la fuente, sin el puntaje de coincidencia.
+     */
+    @GetMapping("/rows/{source}")
+    public ResponseEntity<?> rows(@PathVariable String source, @RequestParam String entity,
+                                  @RequestParam(defaultValue = "") String score,
+                                  @RequestHeader(value = Cluster.SECRET_HEADER, required = false) String secret) {
+        if (!cluster.authorized(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!service.hasSource(source)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            List<?> rows = service.clusterRows(source, entity, score);
+            Instant fetchedAt = StaleRows.fetchedAt(rows);
+            return fetchedAt == null ? ResponseEntity.ok(rows)
+                    : ResponseEntity.ok().header(Cluster.FETCHED_AT_HEADER, fetchedAt.toString()).body(rows);
+        }
+        catch (SourceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+        catch (ScrapingException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+
+    /**
+     * Concede tokens del límite de peticiones de una fuente a otro nodo.
+     *
+     * @param source Nombre de la fuente.
+     * @param count  Tokens pedidos.
+     * @param secret Secreto compartido del clúster.
+     * @return Tokens concedidos.
+     */
+    @PostMapping("/tokens/{source}")
+    public ResponseEntity<Long> tokens(@PathVariable String source, @RequestParam(defaultValue = "1") int count,
+                                       @RequestHeader(value = Cluster.SECRET_HEADER, required = false) String secret) {
+        if (!cluster.authorized(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(upstream.grant(source, count));
+    }
+}
@@ -0,0 +1,102 @@
+package com.scrapx.api.controller;
+
+import com.scrapx.api.dto.JobStatus;
+import com.scrapx.api.jobs.JobQueueStats;
+import com.scrapx.api.jobs.JobService;
+import com.scrapx.api.resilience.ClientQuotas;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controlador de los trabajos de scraping en segundo plano: encola una búsqueda en
+ * una fuente, responde de inmediato con el id del trabajo y expone su estado y su
+ * resultado, consultándolo o esperando a que termine (long-poll).
+ *
+ * Crear un trabajo consume un token del rate-limit; consultarlo no.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobs;
+    private final ClientQuotas quotas;
+
+    /** Espera máxima de una consulta, menor que el plazo de las respuestas asíncronas */
+    private final Duration maxWait;
+
+    /**
+     * Constructor que inyecta el servicio de trabajos.
+     *
+     * @param jobs    Servicio que gestiona los trabajos.
+     * @param quotas  Rate-limit por cliente (un bucket de Bucket4j por IP).
+     * @param maxWait Espera máxima de una consulta (long-poll).
+     */
+    public JobController(JobService jobs, ClientQuotas quotas,
+                         @Value("${scrapx.jobs.max-wait:60s}") Duration maxWait) {
+        this.jobs = jobs;
+        this.quotas = quotas;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Encola una búsqueda en una fuente.
+     *
+     * @param source  Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity  Nombre de la entidad a buscar.
+     * @param score   El score mínimo (solo lo usan las fuentes que lo soportan, como OFAC).
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return JobStatus Con código 202 y el id del trabajo (400, 404, 429 o 503 si se rechaza).
+     */
+    @PostMapping("/{source}")
+    public JobStatus submit(@PathVariable String source, @RequestParam String entity,
+                            @RequestParam(required = false) String score,
+                            HttpServletRequest request) {
+        if (!quotas.tryConsume(request)) {
+            return JobStatus.error(429, "Has superado el límite de solicitudes. Intenta más tarde.");
+        }
+        return jobs.submit(source, entity, score);
+    }
+
+    /**
+     * Endpoint que devuelve el estado de un trabajo y, si terminó, su resultado.
+     *
+     * Con wait, la respuesta se retiene hasta que el trabajo termina o se cumple la
+     * espera (como máximo scrapx.jobs.max-wait), sin ocupar un hilo mientras tanto.
+     *
+     * @param id   Id del trabajo.
+     * @param wait Espera máxima en segundos (0 para responder de inmediato).
+     * @return JobStatus Con el estado del trabajo (404 si no existe).
+     */
+    @GetMapping("/{id}")
+    public CompletableFuture<JobStatus> status(@PathVariable String id,
+                                               @RequestParam(defaultValue = "0") long wait) {
+        Duration requested = Duration.ofSeconds(Math.max(wait, 0));
+        return jobs.status(id, requested.compareTo(maxWait) > 0 ? maxWait : requested);
+    }
+
+    /**
+     * Endpoint que cancela un trabajo que sigue en la cola.
+     *
+     * @param id Id del trabajo.
+     * @return JobStatus Con el estado del trabajo (404 si no existe, 409 si ya está en curso).
+     */
+    @DeleteMapping("/{id}")
+    public JobStatus cancel(@PathVariable String id) {
+        return jobs.cancel(id);
+    }
+
+    /**
+     * Endpoint que devuelve los workers, la cola y los trabajos en curso de cada fuente.
+     *
+     * @return Lista con el estado de OffShore, WorldBank y OFAC.
+     */
+    @GetMapping("/stats")
+    public List<JobQueueStats> stats() {
+        return jobs.stats();
+    }
+}
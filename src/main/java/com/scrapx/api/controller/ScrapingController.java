@@ -1,14 +1,25 @@
 package com.scrapx.api.controller;
 
+import com.scrapx.api.cache.CacheStats;
 import com.scrapx.api.dto.*;
+import com.scrapx.api.index.IndexStats;
+import com.scrapx.api.resilience.ClientQuotas;
+import com.scrapx.api.resilience.SourceStatus;
 import com.scrapx.api.service.ScrapingService;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Controlador que maneja las solicitudes de scraping de las tres fuentes externas:
@@ -24,19 +35,24 @@ import java.util.ArrayList;
 @RequestMapping("/api")
 public class ScrapingController {
 
+    /** Content-Type de la respuesta en streaming: un objeto JSON por línea */
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ScrapingService service;
-    private final Bucket bucket;
+    private final ObjectMapper mapper;
+    private final ClientQuotas quotas;
 
     /**
      * Constructor que inyecta el servicio de scraping.
      *
      * @param service El servicio que gestiona las operaciones de scraping.
+     * @param mapper  Mapper JSON usado para serializar los frames en streaming.
+     * @param quotas  Rate-limit por cliente (un bucket de Bucket4j por IP).
      */
-    public ScrapingController(ScrapingService service) {
+    public ScrapingController(ScrapingService service, ObjectMapper mapper, ClientQuotas quotas) {
         this.service = service;
-        // Configuración del Bucket: 20 solicitudes, recarga de 20 solicitudes cada minuto
-        Bandwidth limit = Bandwidth.classic(20, Refill.intervally(20, Duration.ofMinutes(1)));
-        this.bucket = Bucket.builder().addLimit(limit).build();
+        this.mapper = mapper;
+        this.quotas = quotas;
     }
 
     /**
@@ -48,11 +64,12 @@ public class ScrapingController {
      *
      * @param entity Nombre de la entidad a buscar en las fuentes.
      * @param score  El score mínimo para la búsqueda en OFAC.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
      * @return ScrapingResponse Con los resultados de las tres fuentes.
      */
     @GetMapping("/scrap")
-    public ScrapingResponse scrap(@RequestParam String entity, @RequestParam String score) {
-        if (bucket.tryConsume(1)) {
+    public ScrapingResponse scrap(@RequestParam String entity, @RequestParam String score, HttpServletRequest request) {
+        if (quotas.tryConsume(request)) {
             return service.scrap(entity, score);
         }
         else {
@@ -65,6 +82,42 @@ public class ScrapingController {
         }
     }
 
+    /**
+     * Variante en streaming de /scrap: escribe los resultados de las tres fuentes
+     * en formato NDJSON (un objeto JSON por línea) a medida que se obtienen.
+     *
+     * Cada línea es un `StreamFrame`: un frame "result" por resultado y, al terminar
+     * cada fuente, un frame "summary" con su código de estado (200, 404 o 504),
+     * mensaje y número de resultados.
+     *
+     * @param entity Nombre de la entidad a buscar en las fuentes.
+     * @param score  El score mínimo para la búsqueda en OFAC.
+     * @param limit  Resultados máximos por fuente (0 = sin límite).
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return Cuerpo de la respuesta que se escribe de forma incremental.
+     */
+    @GetMapping(value = "/scrap/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> scrapStream(@RequestParam String entity, @RequestParam String score,
+                                                             @RequestParam(defaultValue = "0") long limit,
+                                                             HttpServletRequest request) {
+        if (quotas.tryConsume(request)) {
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_NDJSON)
+                    .body(out -> service.scrapStream(entity, score, limit, ndjsonWriter(out)));
+        }
+        else {
+            // Si no hay tokens disponibles, cada fuente responde solo con su "summary" 429
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_NDJSON)
+                    .body(out -> {
+                        Consumer<StreamFrame> writer = ndjsonWriter(out);
+                        for (String source : new String[] {"offShore", "worldBank", "ofac"}) {
+                            writer.accept(StreamFrame.summary(source, 429, "Has superado el límite de solicitudes. Intenta más tarde.", 0));
+                        }
+                    });
+        }
+    }
+
     /**
      * Endpoint que maneja la solicitud de scraping solo en OffShore Leaks.
      *
@@ -72,11 +125,12 @@ public class ScrapingController {
      * con un código de estado (200 o 404) y un mensaje explicativo.
      *
      * @param entity Nombre de la entidad a buscar en OffShore Leaks.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
      * @return SourceResponse Con los resultados de OffShore Leaks.
      */
     @GetMapping("/offshore")
-    public SourceResponse<OffShoreResult> offshore(@RequestParam String entity) {
-        if (bucket.tryConsume(1)) {
+    public SourceResponse<OffShoreResult> offshore(@RequestParam String entity, HttpServletRequest request) {
+        if (quotas.tryConsume(request)) {
             return service.scrapOffShore(entity);
         }
         else {
@@ -92,11 +146,12 @@ public class ScrapingController {
      * con un código de estado (200 o 404) y un mensaje explicativo.
      *
      * @param entity Nombre de la entidad a buscar en World Bank.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
      * @return SourceResponse Con los resultados de World Bank.
      */
     @GetMapping("/worldbank")
-    public SourceResponse<WorldBankResult> worldbank(@RequestParam String entity) {
-        if (bucket.tryConsume(1)) {
+    public SourceResponse<WorldBankResult> worldbank(@RequestParam String entity, HttpServletRequest request) {
+        if (quotas.tryConsume(request)) {
             return service.scrapWorldBank(entity);
         }
         else {
@@ -108,19 +163,181 @@ public class ScrapingController {
      * Endpoint que maneja la solicitud de scraping solo en OFAC.
      *
      * Realiza el scraping de la fuente OFAC, devolviendo los resultados
-     * con un código de estado (200 o 404) y un mensaje explicativo.
+     * con un código de estado (200, 404 o 504) y un mensaje explicativo.
+     *
+     * La búsqueda es asíncrona: el hilo de Tomcat se libera mientras se espera a OFAC
+     * y la respuesta se escribe cuando se completa el future.
      *
      * @param entity Nombre de la entidad a buscar en OFAC.
      * @param score  El score mínimo para la búsqueda en OFAC.
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
      * @return SourceResponse Con los resultados de OFAC.
      */
     @GetMapping("/ofac")
-    public SourceResponse<OFACResults> ofac(@RequestParam String entity, @RequestParam String score) {
-        if (bucket.tryConsume(1)) {
-            return service.scrapOFAC(entity,score);
+    public CompletableFuture<SourceResponse<OFACResults>> ofac(@RequestParam String entity, @RequestParam String score, HttpServletRequest request) {
+        if (quotas.tryConsume(request)) {
+            return service.scrapOFACAsync(entity, score);
         }
         else {
-            return new SourceResponse<>(429, "Has superado el límite de solicitudes. Intenta más tarde.", 0, new ArrayList<>());
+            return CompletableFuture.completedFuture(
+                    new SourceResponse<>(429, "Has superado el límite de solicitudes. Intenta más tarde.", 0, new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Endpoint que maneja la solicitud de scraping en una fuente por su nombre
+     * (offshore, worldbank, ofac o cualquier otra fuente registrada).
+     *
+     * Realiza el scraping de la fuente con el mismo flujo que los endpoints de cada
+     * fuente, devolviendo los resultados con un código de estado (200, 404, 503 o 504).
+     * Si la fuente no existe responde con código 404 sin consumir el rate-limit.
+     *
+     * @param name    Nombre de la fuente.
+     * @param entity  Nombre de la entidad a buscar.
+     * @param score   El score mínimo (solo lo usan las fuentes que lo soportan, como OFAC).
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return SourceResponse Con los resultados de la fuente.
+     */
+    @GetMapping("/sources/{name}")
+    public CompletableFuture<? extends SourceResponse<?>> source(@PathVariable String name, @RequestParam String entity,
+                                                                 @RequestParam(required = false) String score,
+                                                                 HttpServletRequest request) {
+        if (!service.hasSource(name)) {
+            return CompletableFuture.completedFuture(
+                    new SourceResponse<>(404, "La fuente " + name + " no existe", 0, new ArrayList<>()));
+        }
+        if (quotas.tryConsume(request)) {
+            return service.scrapSourceAsync(name, entity, score);
+        }
+        else {
+            return CompletableFuture.completedFuture(
+                    new SourceResponse<>(429, "Has superado el límite de solicitudes. Intenta más tarde.", 0, new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Variante en streaming de /sources/{name}: escribe los resultados de la fuente en
+     * formato NDJSON a medida que el cliente los lee, hasta limit resultados, seguidos
+     * de un frame "summary".
+     *
+     * En las fuentes paginadas (OffShore) cada página se descarga solo cuando el
+     * cliente ya leyó los resultados anteriores, por lo que pedir los primeros N
+     * resultados no recorre la búsqueda completa.
+     *
+     * @param name    Nombre de la fuente.
+     * @param entity  Nombre de la entidad a buscar.
+     * @param score   El score mínimo (solo lo usan las fuentes que lo soportan, como OFAC).
+     * @param limit   Resultados máximos (0 = sin límite).
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return Cuerpo de la respuesta que se escribe de forma incremental.
+     */
+    @GetMapping(value = "/sources/{name}/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> sourceStream(@PathVariable String name, @RequestParam String entity,
+                                                              @RequestParam(required = false) String score,
+                                                              @RequestParam(defaultValue = "0") long limit,
+                                                              HttpServletRequest request) {
+        if (!service.hasSource(name)) {
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_NDJSON)
+                    .body(out -> ndjsonWriter(out).accept(StreamFrame.summary(name, 404, "La fuente " + name + " no existe", 0)));
+        }
+        if (quotas.tryConsume(request)) {
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_NDJSON)
+                    .body(out -> service.scrapSourceStream(name, entity, score, limit, ndjsonWriter(out)));
+        }
+        else {
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_NDJSON)
+                    .body(out -> ndjsonWriter(out).accept(
+                            StreamFrame.summary(name, 429, "Has superado el límite de solicitudes. Intenta más tarde.", 0)));
+        }
+    }
+
+    /**
+     * Endpoint que devuelve solo los cambios en los resultados de una fuente desde
+     * la consulta anterior de la misma búsqueda: resultados nuevos y resultados que
+     * ya no aparecen.
+     *
+     * Pensado para los trabajos que repiten las mismas búsquedas periódicamente
+     * (p. ej. un control diario de una cartera de entidades).
+     *
+     * @param name    Nombre de la fuente.
+     * @param entity  Nombre de la entidad a buscar.
+     * @param score   El score mínimo (solo lo usan las fuentes que lo soportan, como OFAC).
+     * @param request Petición HTTP, identifica al cliente para el rate-limit.
+     * @return ChangeResponse Con los resultados agregados y quitados.
+     */
+    @GetMapping("/sources/{name}/changes")
+    public ChangeResponse<?> changes(@PathVariable String name, @RequestParam String entity,
+                                     @RequestParam(required = false) String score,
+                                     HttpServletRequest request) {
+        if (!service.hasSource(name)) {
+            return ChangeResponse.error(404, "La fuente " + name + " no existe");
+        }
+        if (quotas.tryConsume(request)) {
+            return service.scrapChanges(name, entity, score);
         }
+        else {
+            return ChangeResponse.error(429, "Has superado el límite de solicitudes. Intenta más tarde.");
+        }
+    }
+
+    /**
+     * Endpoint que devuelve las métricas de la caché de resultados.
+     *
+     * No consume tokens del rate-limit, ya que no realiza scraping.
+     *
+     * @return CacheStats Con hits, misses, esperas compartidas y descartes.
+     */
+    @GetMapping("/cache/stats")
+    public CacheStats cacheStats() {
+        return service.cacheStats();
+    }
+
+    /**
+     * Endpoint que devuelve el estado del índice local de cada fuente: búsquedas
+     * almacenadas, filas, búsquedas vencidas y búsquedas actualizadas en segundo plano.
+     *
+     * No consume tokens del rate-limit, ya que no realiza scraping.
+     *
+     * @return Lista con el estado del índice de OffShore, WorldBank y OFAC.
+     */
+    @GetMapping("/index/stats")
+    public List<IndexStats> indexStats() {
+        return service.indexStats();
+    }
+
+    /**
+     * Endpoint que devuelve el estado de protección de cada fuente: estado del
+     * circuit breaker, límite de concurrencia actual y búsquedas en curso.
+     *
+     * No consume tokens del rate-limit, ya que no realiza scraping.
+     *
+     * @return Lista con el estado de OffShore, WorldBank y OFAC.
+     */
+    @GetMapping("/sources/status")
+    public List<SourceStatus> sourceStatus() {
+        return service.sourceStatus();
+    }
+
+    /**
+     * Crea un consumidor que escribe cada frame como una línea JSON y la envía al cliente.
+     *
+     * @param out Stream de la respuesta HTTP
+     * @return Consumidor de frames
+     */
+    private Consumer<StreamFrame> ndjsonWriter(OutputStream out) {
+        return frame -> {
+            try {
+                out.write(mapper.writeValueAsBytes(frame));
+                out.write('\n');
+                out.flush();
+            }
+            catch (IOException e) {
+                // El cliente cerró la conexión
+                throw new UncheckedIOException(e);
+            }
+        };
     }
 }
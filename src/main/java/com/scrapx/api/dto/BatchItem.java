@@ -0,0 +1,22 @@
+package com.scrapx.api.dto;
+
+import java.util.Map;
+
+/**
+ * Resultado de una entidad de un lote.
+ *
+ * Sidenote: La respuesta tiene una entrada por cada fuente registrada, con el campo
+ * de la fuente (ScrapeSource.field()) como llave, por lo que las fuentes de
+ * /api/scrap conservan el mismo formato (offShore, worldBank, ofac) y una fuente
+ * nueva aparece sin cambiar este DTO. Las fuentes aún pendientes se devuelven como
+ * null; done indica que todas las fuentes ya se consultaron.
+ *
+ * @param entity   Nombre de la entidad (primera forma en que aparece en el lote)
+ * @param done     true si todas las fuentes ya se consultaron
+ * @param response Resultado de cada fuente, en el orden del registro
+ */
+public record BatchItem(
+        String entity,
+        boolean done,
+        Map<String, SourceResponse<?>> response
+) { }
@@ -0,0 +1,18 @@
+package com.scrapx.api.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de un lote, en el orden en que se recibieron las entidades.
+ *
+ * @param status Estado del lote
+ * @param page   Número de página (desde 0)
+ * @param size   Tamaño de página
+ * @param items  Resultados de las entidades de la página
+ */
+public record BatchPage(
+        BatchStatus status,
+        int page,
+        int size,
+        List<BatchItem> items
+) { }
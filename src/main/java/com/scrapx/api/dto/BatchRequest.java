@@ -0,0 +1,14 @@
+package com.scrapx.api.dto;
+
+import java.util.List;
+
+/**
+ * Petición de un lote de búsquedas (POST /api/batch con JSON).
+ *
+ * @param entities Nombres de las entidades a buscar en todas las fuentes registradas
+ * @param score    Score mínimo para la búsqueda en OFAC (igual para todo el lote)
+ */
+public record BatchRequest(
+        List<String> entities,
+        String score
+) { }
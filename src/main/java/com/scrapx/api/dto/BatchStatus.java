@@ -0,0 +1,36 @@
+package com.scrapx.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Estado de un lote de búsquedas.
+ *
+ * @param code       Código de respuesta (202 aceptado, 200 consultado, 400, 404 o 429)
+ * @param message    Mensaje descriptivo
+ * @param id         Identificador del lote (null si fue rechazado)
+ * @param status     RUNNING, DONE o CANCELLED
+ * @param total      Entidades distintas del lote, tras normalizar y quitar duplicados
+ * @param duplicates Entidades descartadas por estar repetidas o vacías
+ * @param completed  Entidades con todas sus fuentes ya consultadas
+ * @param createdAt  Instante en que se recibió el lote
+ * @param finishedAt Instante en que terminó o se canceló el lote (null si sigue en curso)
+ */
+public record BatchStatus(
+        int code,
+        String message,
+        String id,
+        String status,
+        int total,
+        int duplicates,
+        int completed,
+        Instant createdAt,
+        Instant finishedAt
+) {
+
+    /**
+     * @return Estado de un lote rechazado o inexistente
+     */
+    public static BatchStatus error(int code, String message) {
+        return new BatchStatus(code, message, null, null, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,38 @@
+package com.scrapx.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cambios en los resultados de una fuente desde la consulta anterior de la misma búsqueda.
+ *
+ * @param code              Código de estado (200, 404, 503 o 429)
+ * @param message           Mensaje descriptivo
+ * @param previousFetchedAt Instante de la consulta anterior (null si es la primera)
+ * @param fetchedAt         Instante de esta consulta (null si falló)
+ * @param numAdded          Número de resultados nuevos
+ * @param numRemoved        Número de resultados que ya no aparecen
+ * @param numUnchanged      Número de resultados que siguen igual
+ * @param added             Resultados nuevos
+ * @param removed           Resultados que ya no aparecen
+ * @param <T> Tipo de los resultados (OffShoreResult, WorldBankResult, OFACResults)
+ */
+public record ChangeResponse<T>(
+        int code,
+        String message,
+        Instant previousFetchedAt,
+        Instant fetchedAt,
+        int numAdded,
+        int numRemoved,
+        int numUnchanged,
+        List<T> added,
+        List<T> removed
+) {
+
+    /**
+     * @return Respuesta sin cambios calculados (búsqueda rechazada o fallida)
+     */
+    public static <T> ChangeResponse<T> error(int code, String message) {
+        return new ChangeResponse<>(code, message, null, null, 0, 0, 0, List.of(), List.of());
+    }
+}
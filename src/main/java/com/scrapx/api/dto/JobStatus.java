@@ -0,0 +1,42 @@
+package com.scrapx.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Estado de un trabajo de scraping en segundo plano.
+ *
+ * @param code       Código de respuesta (202 aceptado, 200 consultado, 400, 404, 409, 429 o 503)
+ * @param message    Mensaje descriptivo
+ * @param id         Identificador del trabajo (null si fue rechazado)
+ * @param source     Fuente consultada (offshore, worldbank, ofac)
+ * @param entity     Nombre de la entidad buscada
+ * @param score      Score solicitado (null si la fuente no lo usa)
+ * @param status     QUEUED, RUNNING, DONE o CANCELLED
+ * @param attempts   Veces que se inició el trabajo (más de una si un reinicio lo interrumpió)
+ * @param createdAt  Instante en que se recibió el trabajo
+ * @param startedAt  Instante en que se inició por última vez (null si sigue en la cola)
+ * @param finishedAt Instante en que terminó o se canceló (null si sigue pendiente)
+ * @param result     Respuesta de la fuente (null hasta que el trabajo termina)
+ */
+public record JobStatus(
+        int code,
+        String message,
+        String id,
+        String source,
+        String entity,
+        String score,
+        String status,
+        int attempts,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        SourceResponse<?> result
+) {
+
+    /**
+     * @return Estado de un trabajo rechazado o inexistente
+     */
+    public static JobStatus error(int code, String message) {
+        return new JobStatus(code, message, null, null, null, null, null, 0, null, null, null, null);
+    }
+}
@@ -1,15 +1,18 @@
 package com.scrapx.api.dto;
 
+import com.scrapx.api.matching.Matchable;
+
 /**
  * Representa un resultado de búsqueda en la fuente OFAC (Office of Foreign Assets Control).
  * Contiene información sobre entidades o individuos que han sido sancionados.
  *
- * @param name    Nombre de la entidad o individuo sancionado
- * @param address Dirección de la entidad sancionada
- * @param type    Tipo de entidad/individuo
- * @param program Programa o legislación bajo la cual la entidad fue sancionada
- * @param list    Tipo de lista en la que la entidad está incluida
- * @param score   Porcentaje de coincidencia en el nombre
+ * @param name       Nombre de la entidad o individuo sancionado
+ * @param address    Dirección de la entidad sancionada
+ * @param type       Tipo de entidad/individuo
+ * @param program    Programa o legislación bajo la cual la entidad fue sancionada
+ * @param list       Tipo de lista en la que la entidad está incluida
+ * @param score      Porcentaje de coincidencia en el nombre (calculado por OFAC)
+ * @param matchScore Puntaje de coincidencia local con el nombre buscado (0 a 100)
  */
 public record OFACResults (
         String name,
@@ -17,5 +20,24 @@ public record OFACResults (
         String type,
         String program,
         String list,
-        String score
-) { }
+        String score,
+        Integer matchScore
+) implements Matchable<OFACResults> {
+
+    /**
+     * Resultado tal como se obtiene de la fuente, aún sin puntaje de coincidencia.
+     */
+    public OFACResults(String name, String address, String type, String program, String list, String score) {
+        this(name, address, type, program, list, score, null);
+    }
+
+    @Override
+    public String matchName() {
+        return name;
+    }
+
+    @Override
+    public OFACResults withMatchScore(int matchScore) {
+        return new OFACResults(name, address, type, program, list, score, matchScore);
+    }
+}
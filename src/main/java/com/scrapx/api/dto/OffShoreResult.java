@@ -1,5 +1,7 @@
 package com.scrapx.api.dto;
 
+import com.scrapx.api.matching.Matchable;
+
 /**
  * Representa un resultado de búsqueda en la fuente OffShore Leaks (ICIJ).
  * Contiene la información relevante sobre una entidad.
@@ -8,10 +10,30 @@ package com.scrapx.api.dto;
  * @param jurisdiction Jurisdicción donde se encuentra registrada la entidad
  * @param linkedTo    Entidad o país al que la entidad está vinculada
  * @param dataFrom    Fuente de los datos
+ * @param matchScore  Puntaje de coincidencia local con el nombre buscado (0 a 100)
  */
 public record OffShoreResult (
         String entity,
         String jurisdiction,
         String linkedTo,
-        String dataFrom
-) { }
+        String dataFrom,
+        Integer matchScore
+) implements Matchable<OffShoreResult> {
+
+    /**
+     * Resultado tal como se obtiene de la fuente, aún sin puntaje de coincidencia.
+     */
+    public OffShoreResult(String entity, String jurisdiction, String linkedTo, String dataFrom) {
+        this(entity, jurisdiction, linkedTo, dataFrom, null);
+    }
+
+    @Override
+    public String matchName() {
+        return entity;
+    }
+
+    @Override
+    public OffShoreResult withMatchScore(int matchScore) {
+        return new OffShoreResult(entity, jurisdiction, linkedTo, dataFrom, matchScore);
+    }
+}
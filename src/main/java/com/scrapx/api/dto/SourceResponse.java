@@ -1,5 +1,8 @@
 package com.scrapx.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -7,11 +10,25 @@ import java.util.List;
  * Incluye el código de estado HTTP, un mensaje descriptivo, el número de resultados obtenidos
  * y la lista de resultados específicos para esa fuente.
  *
+ * Sidenote: Si la fuente no respondió y los resultados provienen de una copia vencida
+ * del índice local, la respuesta incluye stale = true y fetchedAt (instante de la copia);
+ * en una consulta en vivo ambos campos se omiten.
+ *
  * @param <T> Tipo de los resultados que esta respuesta contiene (OffShoreResult`, `WorldBankResult`, `OFACResults`).
  */
 public record SourceResponse<T> (
         int code,
         String message,
         int numHits,
-        List<T> results
-) { }
+        List<T> results,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Boolean stale,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant fetchedAt
+) {
+
+    /**
+     * Respuesta de una consulta en vivo (sin stale ni fetchedAt).
+     */
+    public SourceResponse(int code, String message, int numHits, List<T> results) {
+        this(code, message, numHits, results, null, null);
+    }
+}
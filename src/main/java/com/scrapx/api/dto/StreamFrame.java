@@ -0,0 +1,42 @@
+package com.scrapx.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Representa una línea (frame) de la respuesta en streaming (NDJSON) de scraping.
+ *
+ * Cada fuente emite un frame "result" por cada resultado encontrado y, al terminar,
+ * un frame "summary" con el código de estado, el mensaje y el número de resultados,
+ * equivalentes a los de `SourceResponse`.
+ *
+ * @param source  Fuente que emite el frame (offShore, worldBank, ofac)
+ * @param type    Tipo de frame: "result" o "summary"
+ * @param result  Resultado encontrado (solo en frames "result")
+ * @param code    Código de estado de la fuente (solo en frames "summary")
+ * @param message Mensaje descriptivo (solo en frames "summary")
+ * @param numHits Número de resultados emitidos (solo en frames "summary")
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StreamFrame (
+        String source,
+        String type,
+        Object result,
+        Integer code,
+        String message,
+        Integer numHits
+) {
+
+    /**
+     * Crea un frame con un resultado de la fuente.
+     */
+    public static StreamFrame result(String source, Object result) {
+        return new StreamFrame(source, "result", result, null, null, null);
+    }
+
+    /**
+     * Crea el frame final de la fuente.
+     */
+    public static StreamFrame summary(String source, int code, String message, int numHits) {
+        return new StreamFrame(source, "summary", null, code, message, numHits);
+    }
+}
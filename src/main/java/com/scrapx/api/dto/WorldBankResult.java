@@ -1,15 +1,18 @@
 package com.scrapx.api.dto;
 
+import com.scrapx.api.matching.Matchable;
+
 /**
  * Representa un resultado de búsqueda en la fuente World Bank.
  * Contiene información sobre las firmas inhabilitadas.
  *
- * @param firmName Nombre de la firma inhabilitada
- * @param address Dirección de la firma
- * @param country País donde la firma está registrada
- * @param fromDate Fecha de inicio de la inhabilitación
- * @param toDate   Fecha de fin de la inhabilitación
- * @param grounds  Motivos de la inhabilitación de la firma
+ * @param firmName   Nombre de la firma inhabilitada
+ * @param address    Dirección de la firma
+ * @param country    País donde la firma está registrada
+ * @param fromDate   Fecha de inicio de la inhabilitación
+ * @param toDate     Fecha de fin de la inhabilitación
+ * @param grounds    Motivos de la inhabilitación de la firma
+ * @param matchScore Puntaje de coincidencia local con el nombre buscado (0 a 100)
  */
 public record WorldBankResult(
         String firmName,
@@ -17,5 +20,24 @@ public record WorldBankResult(
         String country,
         String fromDate,
         String toDate,
-        String grounds
-) { }
+        String grounds,
+        Integer matchScore
+) implements Matchable<WorldBankResult> {
+
+    /**
+     * Resultado tal como se obtiene de la fuente, aún sin puntaje de coincidencia.
+     */
+    public WorldBankResult(String firmName, String address, String country, String fromDate, String toDate, String grounds) {
+        this(firmName, address, country, fromDate, toDate, grounds, null);
+    }
+
+    @Override
+    public String matchName() {
+        return firmName;
+    }
+
+    @Override
+    public WorldBankResult withMatchScore(int matchScore) {
+        return new WorldBankResult(firmName, address, country, fromDate, toDate, grounds, matchScore);
+    }
+}
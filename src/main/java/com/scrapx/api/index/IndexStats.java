@@ -0,0 +1,18 @@
+package com.scrapx.api.index;
+
+/**
+ * Estado del índice local de una fuente, expuesto en /api/index/stats.
+ *
+ * @param source    Nombre de la fuente (offshore, worldbank, ofac)
+ * @param entries   Búsquedas almacenadas
+ * @param rows      Filas almacenadas
+ * @param stale     Búsquedas que superaron su antigüedad máxima (se consultan en vivo)
+ * @param refreshed Búsquedas actualizadas en segundo plano desde el arranque
+ */
+public record IndexStats(
+        String source,
+        int entries,
+        long rows,
+        int stale,
+        long refreshed
+) { }
@@ -0,0 +1,460 @@
+package com.scrapx.api.index;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Índice local y persistente de los resultados de cada fuente.
+ *
+ * Sidenote: La caché de resultados vive en memoria y expira en horas; este índice
+ * guarda en disco cada búsqueda exitosa y sobrevive a los reinicios, de modo que
+ * las búsquedas repetidas no dependen del rate-limit ni de la disponibilidad de
+ * las páginas. El flujo de una búsqueda es:
+ * 1) Si la búsqueda está en el índice y no superó su antigüedad máxima, se responde desde el índice
+ * 2) Si no, se consulta la fuente en vivo y el resultado se guarda en el índice
+ * 3) Si la consulta en vivo falla y hay una copia vencida, se responde con esa copia,
+ *    marcada como StaleRows con el instante en que se obtuvo
+ *
+ * Cada fuente tiene un segmento en disco (scrapx.index.dir/<fuente>.jsonl) con una
+ * búsqueda por línea, en el que solo se agregan líneas. Al cargar, la última línea
+ * de cada búsqueda reemplaza a las anteriores; cuando el segmento acumula demasiadas
+ * líneas reemplazadas se reescribe con las búsquedas vigentes.
+ */
+@Component
+public class SourceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceIndex.class);
+
+    /**
+     * Búsqueda almacenada.
+     *
+     * @param rows      Resultados (lista inmutable)
+     * @param fetchedAt Instante (epoch millis) en que se obtuvieron de la fuente
+     */
+    private record Entry(List<?> rows, long fetchedAt) { }
+
+    /**
+     * Última consulta guardada de una búsqueda, vigente o no.
+     *
+     * @param rows      Resultados (lista inmutable)
+     * @param fetchedAt Instante en que se obtuvieron de la fuente
+     */
+    public record Snapshot<T>(List<T> rows, Instant fetchedAt) { }
+
+    /**
+     * Índice de una fuente y su segmento en disco.
+     */
+    private static final class Segment {
+        private final String source;
+        private final Path file;
+        private final long maxAgeMillis;
+        private final ObjectReader rowsReader;
+
+        /** Búsquedas en orden de actualización (la primera es la más antigua) */
+        private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>();
+
+        /** Líneas escritas en el segmento (incluye las reemplazadas) */
+        private int lines;
+        private final AtomicLong refreshed = new AtomicLong();
+
+        private Segment(String source, Path file, Duration maxAge, ObjectReader rowsReader) {
+            this.source = source;
+            this.file = file;
+            this.maxAgeMillis = maxAge.toMillis();
+            this.rowsReader = rowsReader;
+        }
+    }
+
+    /** false deshabilita el índice: todas las búsquedas van en vivo */
+    private final boolean enabled;
+
+    /** Búsquedas máximas por fuente; al superarse se descartan las más antiguas */
+    private final int maxEntries;
+
+    private final ObjectMapper mapper;
+    private final Map<String, Segment> segments = new LinkedHashMap<>();
+
+    /**
+     * Constructor con la configuración del índice; carga los segmentos existentes.
+     *
+     * @param enabled         true para usar el índice
+     * @param dir             Directorio de los segmentos
+     * @param sources         Fuentes registradas, con la antigüedad máxima y el tipo de resultado de cada una
+     * @param maxEntries      Búsquedas máximas por fuente
+     * @param mapper          Mapper JSON de la aplicación
+     */
+    public SourceIndex(@Value("${scrapx.index.enabled:true}") boolean enabled,
+                       @Value("${scrapx.index.dir:data/index}") Path dir,
+                       SourceRegistry sources,
+                       @Value("${scrapx.index.max-entries:20000}") int maxEntries,
+                       ObjectMapper mapper) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.mapper = mapper;
+
+        for (ScrapeSource<?> source : sources.all()) {
+            addSegment(source.name(), dir, source.settings().indexMaxAge(), source.resultType());
+        }
+
+        if (enabled) {
+            try {
+                Files.createDirectories(dir);
+            }
+            catch (IOException e) {
+                log.warn("Error al crear el directorio del índice: {}", e.getMessage());
+            }
+            segments.values().forEach(this::load);
+        }
+    }
+
+    /**
+     * Devuelve los resultados de una búsqueda desde el índice, o los obtiene en vivo.
+     *
+     * @param key  Llave de la búsqueda
+     * @param live Consulta en vivo; un fallo se indica lanzando una excepción
+     * @return Resultados de la búsqueda
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(CacheKey key, Supplier<List<T>> live) {
+        if (!enabled) {
+            return live.get();
+        }
+        Segment segment = segments.get(key.source());
+
+        // 1. Responder desde el índice si la búsqueda está vigente
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        if (entry != null && !isStale(segment, entry)) {
+            return (List<T>) entry.rows();
+        }
+
+        // 2. Consultar en vivo y guardar el resultado
+        try {
+            List<T> rows = live.get();
+            put(key, rows);
+            return rows;
+        }
+        catch (RuntimeException e) {
+            // 3. La fuente no respondió: una copia vencida es mejor que ninguna
+            if (entry != null) {
+                log.warn("Respondiendo {} desde el índice (copia vencida): {}", key.source(), e.getMessage());
+                return new StaleRows<>((List<T>) entry.rows(), Instant.ofEpochMilli(entry.fetchedAt()));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Variante asíncrona de get(): la consulta en vivo devuelve un future.
+     *
+     * @param key  Llave de la búsqueda
+     * @param live Consulta en vivo; un fallo se indica completando el future con una excepción
+     * @return Resultados de la búsqueda
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<List<T>> getAsync(CacheKey key, Supplier<CompletableFuture<List<T>>> live) {
+        if (!enabled) {
+            return live.get();
+        }
+        Segment segment = segments.get(key.source());
+
+        // 1. Responder desde el índice si la búsqueda está vigente
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        if (entry != null && !isStale(segment, entry)) {
+            return CompletableFuture.completedFuture((List<T>) entry.rows());
+        }
+
+        // 2. Consultar en vivo y guardar el resultado
+        CompletableFuture<List<T>> rows;
+        try {
+            rows = live.get();
+        }
+        catch (RuntimeException e) {
+            rows = CompletableFuture.failedFuture(e);
+        }
+        return rows.handle((result, e) -> {
+            if (e == null) {
+                put(key, result);
+                return result;
+            }
+
+            // 3. La fuente no respondió: una copia vencida es mejor que ninguna
+            if (entry != null) {
+                log.warn("Respondiendo {} desde el índice (copia vencida): {}", key.source(), e.getMessage());
+                return new StaleRows<>((List<T>) entry.rows(), Instant.ofEpochMilli(entry.fetchedAt()));
+            }
+            throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+        });
+    }
+
+    /**
+     * Devuelve los resultados de una búsqueda solo si está vigente en el índice.
+     *
+     * @param key Llave de la búsqueda
+     * @return Resultados (lista inmutable) o null si no está o ya venció
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getIfFresh(CacheKey key) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segments.get(key.source());
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        return entry != null && !isStale(segment, entry) ? (List<T>) entry.rows() : null;
+    }
+
+    /**
+     * Devuelve la última consulta guardada de una búsqueda, aunque haya vencido.
+     *
+     * @param key Llave de la búsqueda
+     * @return Resultados e instante de la consulta, o null si no está en el índice
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> last(CacheKey key) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segments.get(key.source());
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        return entry == null ? null : new Snapshot<>((List<T>) entry.rows(), Instant.ofEpochMilli(entry.fetchedAt()));
+    }
+
+    /**
+     * Guarda el resultado de una búsqueda en el índice y en su segmento.
+     *
+     * Sidenote: Los resultados vacíos también se guardan: un fallo de la fuente se
+     * indica con una excepción, por lo que una lista vacía es una búsqueda sin
+     * resultados (el caso más común al revisar una entidad) y sirve de referencia
+     * para la detección de cambios.
+     *
+     * @param key  Llave de la búsqueda
+     * @param rows Resultados obtenidos en vivo
+     */
+    public void put(CacheKey key, List<?> rows) {
+        if (!enabled) {
+            return;
+        }
+        Segment segment = segments.get(key.source());
+        Entry entry = new Entry(List.copyOf(rows), System.currentTimeMillis());
+
+        synchronized (segment) {
+            // 1. Reemplazar la búsqueda y moverla al final (la más reciente)
+            segment.entries.remove(key);
+            segment.entries.put(key, entry);
+            evict(segment);
+
+            // 2. Agregar la línea al segmento, o reescribirlo si ya tiene demasiadas líneas reemplazadas
+            try {
+                if (segment.lines >= 2 * segment.entries.size() + 100) {
+                    compact(segment);
+                }
+                else {
+                    Files.writeString(segment.file, line(key, entry) + "\n", StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    segment.lines++;
+                }
+            }
+            catch (IOException | UncheckedIOException e) {
+                log.warn("Error al escribir el índice de {}: {}", segment.source, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Devuelve las búsquedas que conviene actualizar en segundo plano.
+     *
+     * Sidenote: Una búsqueda se actualiza cuando supera la mitad de su antigüedad
+     * máxima, de modo que normalmente se renueva antes de vencer. Se devuelven las
+     * más antiguas primero y como máximo limit, para repartir el trabajo (y las
+     * peticiones a las fuentes) entre varias ejecuciones.
+     *
+     * @param limit Número máximo de búsquedas
+     * @return Llaves de las búsquedas a actualizar
+     */
+    public List<CacheKey> refreshCandidates(int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        List<Map.Entry<CacheKey, Entry>> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            synchronized (segment) {
+                for (Map.Entry<CacheKey, Entry> e : segment.entries.entrySet()) {
+                    if (now - e.getValue().fetchedAt() > segment.maxAgeMillis / 2) {
+                        candidates.add(Map.entry(e.getKey(), e.getValue()));
+                    }
+                }
+            }
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().fetchedAt()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Registra que una búsqueda se actualizó en segundo plano.
+     *
+     * @param key Llave de la búsqueda actualizada
+     */
+    public void markRefreshed(CacheKey key) {
+        segments.get(key.source()).refreshed.incrementAndGet();
+    }
+
+    /**
+     * @return Estado del índice de cada fuente
+     */
+    public List<IndexStats> stats() {
+        List<IndexStats> stats = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            synchronized (segment) {
+                long rows = 0;
+                int stale = 0;
+                for (Entry entry : segment.entries.values()) {
+                    rows += entry.rows().size();
+                    if (isStale(segment, entry)) {
+                        stale++;
+                    }
+                }
+                stats.add(new IndexStats(segment.source, segment.entries.size(), rows, stale, segment.refreshed.get()));
+            }
+        }
+        return stats;
+    }
+
+    private void addSegment(String source, Path dir, Duration maxAge, Class<?> rowType) {
+        segments.put(source, new Segment(source, dir.resolve(source + ".jsonl"), maxAge, mapper.readerForListOf(rowType)));
+    }
+
+    private boolean isStale(Segment segment, Entry entry) {
+        return System.currentTimeMillis() - entry.fetchedAt() > segment.maxAgeMillis;
+    }
+
+    /**
+     * Carga un segmento desde disco. Las líneas dañadas (p. ej. una escritura
+     * interrumpida al apagar) se descartan.
+     */
+    private void load(Segment segment) {
+        if (!Files.exists(segment.file)) {
+            return;
+        }
+        synchronized (segment) {
+            try (BufferedReader reader = Files.newBufferedReader(segment.file, StandardCharsets.UTF_8)) {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    segment.lines++;
+                    try {
+                        JsonNode node = mapper.readTree(text);
+                        CacheKey key = new CacheKey(segment.source, node.path("entity").asString(), node.path("score").asString());
+                        List<?> rows = segment.rowsReader.readValue(node.path("rows"));
+                        segment.entries.remove(key);
+                        segment.entries.put(key, new Entry(List.copyOf(rows), node.path("fetchedAt").asLong()));
+                    }
+                    catch (JacksonException e) {
+                        log.warn("Línea inválida en el índice de {}: {}", segment.source, e.getMessage());
+                    }
+                }
+                evict(segment);
+                if (segment.lines > segment.entries.size()) {
+                    compact(segment);
+                }
+                log.info("Índice de {}: {} búsquedas cargadas", segment.source, segment.entries.size());
+            }
+            catch (IOException | UncheckedIOException e) {
+                log.warn("Error al cargar el índice de {}: {}", segment.source, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reescribe el segmento solo con las búsquedas vigentes (escritura atómica; se llama
+     * con el segmento bloqueado).
+     *
+     * Sidenote: El archivo temporal se fuerza a disco antes de renombrarlo; si no, una
+     * caída justo después del rename puede dejar el segmento vacío o truncado.
+     */
+    private void compact(Segment segment) throws IOException {
+        Files.createDirectories(segment.file.getParent());
+        Path tmp = segment.file.resolveSibling(segment.file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            for (Map.Entry<CacheKey, Entry> e : segment.entries.entrySet()) {
+                writer.write(line(e.getKey(), e.getValue()));
+                writer.newLine();
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, segment.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segment.lines = segment.entries.size();
+    }
+
+    /**
+     * Descarta las búsquedas más antiguas si se supera maxEntries.
+     */
+    private void evict(Segment segment) {
+        Iterator<CacheKey> oldest = segment.entries.keySet().iterator();
+        while (segment.entries.size() > maxEntries && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * @return Línea JSON de una búsqueda: {"entity", "score", "fetchedAt", "rows"}
+     */
+    private String line(CacheKey key, Entry entry) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("entity", key.entity());
+        line.put("score", key.score());
+        line.put("fetchedAt", entry.fetchedAt());
+        line.put("rows", entry.rows());
+        return mapper.writeValueAsString(line);
+    }
+}
@@ -0,0 +1,54 @@
+package com.scrapx.api.index;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Resultados de una copia vencida del índice, servidos porque la fuente no respondió.
+ *
+ * Sidenote: Viajan como una lista más (inmutable) por la caché y la coincidencia de
+ * nombres, pero ResultCache no los guarda y ScrapingService los responde marcados
+ * (stale, fetchedAt), para que el cliente no los confunda con una consulta en vivo.
+ *
+ * @param <T> Tipo de los resultados
+ */
+public final class StaleRows<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> rows;
+    private final Instant fetchedAt;
+
+    /**
+     * @param rows      Resultados de la copia
+     * @param fetchedAt Instante en que se obtuvo la copia de la fuente
+     */
+    public StaleRows(List<T> rows, Instant fetchedAt) {
+        this.rows = List.copyOf(rows);
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * @return Instante en que se obtuvo la copia de la fuente
+     */
+    public Instant fetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * @return Instante de la copia si los resultados provienen de una copia vencida, o null
+     */
+    public static Instant fetchedAt(List<?> rows) {
+        return rows instanceof StaleRows<?> stale ? stale.fetchedAt : null;
+    }
+
+    @Override
+    public T get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+}
@@ -0,0 +1,155 @@
+package com.scrapx.api.jobs;
+
+import com.scrapx.api.dto.JobStatus;
+import com.scrapx.api.dto.SourceResponse;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Estado de un trabajo de scraping en segundo plano.
+ *
+ * Sidenote: El estado lo modifican el hilo que recibe el trabajo, el worker de la
+ * fuente y las cancelaciones, por lo que los cambios se sincronizan sobre el propio
+ * trabajo. Los clientes que esperan el resultado (long-poll) no bloquean ningún
+ * hilo: se encadenan a done, que se completa al terminar o cancelar el trabajo.
+ */
+final class Job {
+
+    /** Estados de un trabajo */
+    enum State { QUEUED, RUNNING, DONE, CANCELLED }
+
+    final String id;
+    final String source;
+    final String entity;
+    final String score;
+    final Instant createdAt;
+
+    /** Se completa con el estado final del trabajo */
+    final CompletableFuture<JobStatus> done = new CompletableFuture<>();
+
+    private State state;
+    private int attempts;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private SourceResponse<?> result;
+
+    /**
+     * Trabajo nuevo, en la cola.
+     */
+    Job(String id, String source, String entity, String score) {
+        this(id, source, entity, score, Instant.now(), State.QUEUED, 0, null, null, null);
+    }
+
+    /**
+     * Trabajo leído desde el registro en disco.
+     */
+    Job(String id, String source, String entity, String score, Instant createdAt, State state, int attempts,
+        Instant startedAt, Instant finishedAt, SourceResponse<?> result) {
+        this.id = id;
+        this.source = source;
+        this.entity = entity;
+        this.score = score;
+        this.createdAt = createdAt;
+        this.state = state;
+        this.attempts = attempts;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.result = result;
+        if (isFinished()) {
+            done.complete(status(200, "Estado del trabajo"));
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized int attempts() {
+        return attempts;
+    }
+
+    synchronized Instant startedAt() {
+        return startedAt;
+    }
+
+    synchronized Instant finishedAt() {
+        return finishedAt;
+    }
+
+    synchronized SourceResponse<?> result() {
+        return result;
+    }
+
+    /**
+     * @return true si el trabajo terminó o se canceló
+     */
+    synchronized boolean isFinished() {
+        return state == State.DONE || state == State.CANCELLED;
+    }
+
+    /**
+     * Marca el inicio del trabajo en un worker.
+     *
+     * @return false si el trabajo ya no está en la cola (p. ej. se canceló)
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        attempts++;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    /**
+     * Devuelve a la cola un trabajo que se interrumpió sin terminar (p. ej. por un reinicio).
+     */
+    synchronized void requeue() {
+        if (state == State.RUNNING) {
+            state = State.QUEUED;
+        }
+    }
+
+    /**
+     * Registra la respuesta de la fuente y despierta a los clientes que esperan.
+     */
+    void finish(SourceResponse<?> response) {
+        JobStatus status;
+        synchronized (this) {
+            state = State.DONE;
+            result = response;
+            finishedAt = Instant.now();
+            status = status(200, "Estado del trabajo");
+        }
+        done.complete(status);
+    }
+
+    /**
+     * Cancela el trabajo si aún está en la cola; uno en curso termina normalmente.
+     *
+     * @return true si el trabajo se canceló
+     */
+    boolean cancel() {
+        JobStatus status;
+        synchronized (this) {
+            if (state != State.QUEUED) {
+                return false;
+            }
+            state = State.CANCELLED;
+            finishedAt = Instant.now();
+            status = status(200, "Estado del trabajo");
+        }
+        done.complete(status);
+        return true;
+    }
+
+    /**
+     * @return Estado del trabajo, con el código y mensaje dados
+     */
+    synchronized JobStatus status(int code, String message) {
+        return new JobStatus(code, message, id, source, entity, score, state.name(), attempts,
+                createdAt, startedAt, finishedAt, result);
+    }
+}
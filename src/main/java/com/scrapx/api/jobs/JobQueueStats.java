@@ -0,0 +1,18 @@
+package com.scrapx.api.jobs;
+
+/**
+ * Estado de los workers y la cola de trabajos de una fuente, expuesto en /api/jobs/stats.
+ *
+ * @param source   Nombre de la fuente (offshore, worldbank, ofac)
+ * @param workers  Workers de la fuente (scrapx.jobs.workers.<fuente>)
+ * @param queued   Trabajos en la cola
+ * @param running  Trabajos en curso
+ * @param capacity Trabajos en cola máximos; al superarse, los trabajos nuevos se rechazan (503)
+ */
+public record JobQueueStats(
+        String source,
+        int workers,
+        int queued,
+        int running,
+        int capacity
+) { }
@@ -0,0 +1,301 @@
+package com.scrapx.api.jobs;
+
+import com.scrapx.api.dto.JobStatus;
+import com.scrapx.api.dto.SourceResponse;
+import com.scrapx.api.service.ScrapingService;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de trabajos de scraping en segundo plano: una búsqueda se encola, se
+ * responde de inmediato con el id del trabajo y el cliente consulta (o espera) su
+ * resultado después.
+ *
+ * Sidenote: Así los hilos de Tomcat no quedan ocupados mientras una fuente lenta
+ * responde; la capacidad de scraping la fijan los workers de cada fuente:
+ * 1) Cada fuente tiene su propio pool de workers (settings().jobWorkers()) y su cola,
+ *    acotada por scrapx.jobs.queue-capacity; con la cola llena el trabajo se rechaza (503)
+ * 2) Cada worker ejecuta la búsqueda con ScrapingService, por lo que pasa por la caché,
+ *    el índice local y la protección de la fuente; las búsquedas rechazadas por la
+ *    protección (503) se reintentan con espera creciente, igual que en los lotes
+ * 3) Cada cambio de estado se guarda en JobStore: al arrancar, los trabajos en la cola
+ *    o en curso cuando el proceso se detuvo vuelven a la cola, y los terminados
+ *    conservan su resultado hasta cumplir scrapx.jobs.retention
+ * 4) La espera del resultado (long-poll) no ocupa hilos: se responde con un future
+ *    que se completa al terminar el trabajo o al cumplirse la espera
+ */
+@Service
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+    private final ScrapingService service;
+    private final SourceRegistry sources;
+    private final JobStore store;
+
+    /** Workers de cada fuente */
+    private final Map<String, ThreadPoolExecutor> workers = new LinkedHashMap<>();
+
+    /** Trabajos en cola máximos por fuente */
+    private final int queueCapacity;
+
+    /** Reintentos de una búsqueda rechazada por la protección de la fuente */
+    private final int retries;
+
+    /** Espera antes del primer reintento (se duplica en cada intento) */
+    private final Duration backoff;
+
+    /** Tiempo que se conservan los trabajos terminados */
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que crea los workers de cada fuente y retoma los trabajos pendientes del registro.
+     *
+     * @param service       Servicio de scraping usado para cada búsqueda.
+     * @param sources       Fuentes registradas, con sus workers.
+     * @param store         Registro en disco de los trabajos.
+     * @param queueCapacity Trabajos en cola máximos por fuente.
+     * @param retries       Reintentos de una búsqueda rechazada (503).
+     * @param backoff       Espera antes del primer reintento.
+     * @param retention     Tiempo que se conservan los trabajos terminados.
+     */
+    public JobService(ScrapingService service,
+                      SourceRegistry sources,
+                      JobStore store,
+                      @Value("${scrapx.jobs.queue-capacity:1000}") int queueCapacity,
+                      @Value("${scrapx.jobs.retries:3}") int retries,
+                      @Value("${scrapx.jobs.backoff:5s}") Duration backoff,
+                      @Value("${scrapx.jobs.retention:24h}") Duration retention) {
+        this.service = service;
+        this.sources = sources;
+        this.store = store;
+        this.queueCapacity = queueCapacity;
+        this.retries = retries;
+        this.backoff = backoff;
+        this.retention = retention;
+
+        // 1. Un pool de workers por fuente
+        for (ScrapeSource<?> source : sources.all()) {
+            workers.put(source.name(), pool(source.name(), source.settings().jobWorkers()));
+        }
+
+        // 2. Retomar los trabajos del registro: los interrumpidos vuelven a la cola
+        int resumed = 0;
+        for (Job job : store.load()) {
+            if (!workers.containsKey(job.source)) {
+                continue;
+            }
+            jobs.put(job.id, job);
+            if (!job.isFinished()) {
+                job.requeue();
+                workers.get(job.source).execute(() -> run(job));
+                resumed++;
+            }
+        }
+        if (resumed > 0) {
+            log.info("Trabajos retomados del registro: {}", resumed);
+        }
+    }
+
+    /**
+     * Encola una búsqueda en una fuente.
+     *
+     * @param source Nombre de la fuente
+     * @param entity Nombre de la entidad a buscar
+     * @param score  Score mínimo (solo lo usan las fuentes que lo soportan)
+     * @return JobStatus Con código 202 y el id del trabajo, o 400, 404 o 503 si se rechaza.
+     */
+    public JobStatus submit(String source, String entity, String score) {
+        ThreadPoolExecutor pool = workers.get(source);
+        if (pool == null) {
+            return JobStatus.error(404, "La fuente " + source + " no existe");
+        }
+        if (entity == null || entity.isBlank()) {
+            return JobStatus.error(400, "El trabajo debe incluir la entidad");
+        }
+        if (pool.getQueue().size() >= queueCapacity) {
+            return JobStatus.error(503, "La cola de trabajos de " + source + " está llena. Intenta más tarde.");
+        }
+
+        // El trabajo se guarda en disco antes de aceptarlo, para no perderlo si el proceso cae
+        Job job = new Job(UUID.randomUUID().toString(), source, entity.strip(), score);
+        jobs.put(job.id, job);
+        store.append(job);
+        pool.execute(() -> run(job));
+        return job.status(202, "El trabajo fue aceptado");
+    }
+
+    /**
+     * Devuelve el estado de un trabajo, esperando hasta wait a que termine (long-poll).
+     *
+     * @param id   Id del trabajo
+     * @param wait Espera máxima (cero para responder de inmediato)
+     * @return JobStatus Con el estado del trabajo al terminar o al cumplirse la espera (404 si no existe).
+     */
+    public CompletableFuture<JobStatus> status(String id, Duration wait) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return CompletableFuture.completedFuture(notFound());
+        }
+        if (job.isFinished() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(job.status(200, "Estado del trabajo"));
+        }
+        return job.done.thenApply(status -> status)
+                .orTimeout(wait.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> e instanceof TimeoutException
+                        ? job.status(200, "El trabajo sigue pendiente")
+                        : job.status(200, "Estado del trabajo"));
+    }
+
+    /**
+     * Cancela un trabajo que sigue en la cola; uno en curso termina normalmente.
+     *
+     * @return JobStatus Con el estado del trabajo (404 si no existe, 409 si ya está en curso).
+     */
+    public JobStatus cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return notFound();
+        }
+        if (job.cancel()) {
+            store.append(job);
+            log.debug("Trabajo {} cancelado", id);
+            return job.status(200, "El trabajo fue cancelado");
+        }
+        if (job.isFinished()) {
+            return job.status(200, "El trabajo ya había terminado");
+        }
+        return job.status(409, "El trabajo ya está en curso");
+    }
+
+    /**
+     * @return Estado de los workers y la cola de cada fuente
+     */
+    public List<JobQueueStats> stats() {
+        List<JobQueueStats> stats = new ArrayList<>();
+        workers.forEach((source, pool) -> stats.add(new JobQueueStats(source, pool.getMaximumPoolSize(),
+                pool.getQueue().size(), pool.getActiveCount(), queueCapacity)));
+        return stats;
+    }
+
+    /**
+     * Elimina los trabajos terminados hace más de retention y reescribe el registro.
+     */
+    @Scheduled(fixedDelayString = "${scrapx.jobs.eviction:10m}", initialDelayString = "${scrapx.jobs.eviction:10m}")
+    public void evictExpired() {
+        Instant limit = Instant.now().minus(retention);
+        boolean removed = jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(limit));
+        if (removed || store.lines() > jobs.size()) {
+            // La lista se toma dentro de compact, con el registro bloqueado: un trabajo
+            // aceptado mientras tanto no se pierde al reescribirlo
+            store.compact(() -> {
+                List<Job> live = new ArrayList<>(jobs.values());
+                live.sort((a, b) -> a.createdAt.compareTo(b.createdAt));
+                return live;
+            });
+        }
+    }
+
+    /**
+     * Detiene los workers. Los trabajos en curso quedan en el registro como RUNNING
+     * y vuelven a la cola en el próximo arranque.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    /**
+     * Ejecuta un trabajo en un worker de su fuente.
+     */
+    private void run(Job job) {
+        if (!job.start()) {
+            // Cancelado mientras esperaba en la cola
+            return;
+        }
+        store.append(job);
+        SourceResponse<?> result = search(job);
+        if (result == null) {
+            // Worker interrumpido (apagado): el trabajo queda RUNNING en el registro y se retoma al arrancar
+            return;
+        }
+        job.finish(result);
+        store.append(job);
+    }
+
+    /**
+     * Busca la entidad del trabajo, reintentando si la fuente la rechaza (503).
+     *
+     * @return Respuesta de la fuente, o null si el worker se interrumpió (el resultado no es válido)
+     */
+    private SourceResponse<?> search(Job job) {
+        long wait = backoff.toMillis();
+        for (int attempt = 0; ; attempt++) {
+            SourceResponse<?> response;
+            try {
+                response = service.scrapSource(job.source, job.entity, job.score);
+            }
+            catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                log.warn("Error en el trabajo {} ({}): {}", job.id, job.source, e.getMessage());
+                return new SourceResponse<>(404, "No se pudo establecer la conexión", 0, new ArrayList<>());
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            if (response.code() != 503 || attempt >= retries) {
+                return response;
+            }
+
+            try {
+                Thread.sleep(wait);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            wait *= 2;
+        }
+    }
+
+    /**
+     * @return Pool de workers de una fuente, con hilos daemon y cola sin límite
+     *         (el límite se aplica al encolar, para poder retomar siempre los trabajos del registro)
+     */
+    private static ThreadPoolExecutor pool(String source, int size) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "scrapx-job-" + source + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static JobStatus notFound() {
+        return JobStatus.error(404, "No se encontró el trabajo");
+    }
+}
@@ -0,0 +1,255 @@
+package com.scrapx.api.jobs;
+
+import com.scrapx.api.dto.SourceResponse;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registro en disco de los trabajos en segundo plano, para que sobrevivan a un reinicio.
+ *
+ * Sidenote: Igual que los segmentos del índice local, el registro es un archivo
+ * JSON-lines (scrapx.jobs.dir/jobs.jsonl) en el que solo se agregan líneas: cada
+ * cambio de estado de un trabajo agrega una línea con el trabajo completo. Así:
+ * 1) Al cargar, la última línea de cada trabajo reemplaza a las anteriores
+ * 2) Una línea dañada (una escritura interrumpida por una caída) se descarta, y el
+ *    trabajo queda en su estado anterior
+ * 3) Con scrapx.jobs.fsync cada línea se escribe con DSYNC: un trabajo aceptado (202)
+ *    ya está en disco aunque el proceso caiga inmediatamente después
+ *
+ * Los trabajos que estaban en curso al caer el proceso se cargan como RUNNING, y
+ * JobService los devuelve a la cola.
+ */
+@Component
+public class JobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStore.class);
+
+    /** false deshabilita el registro: los trabajos solo viven en memoria */
+    private final boolean enabled;
+
+    /** true para escribir cada línea de forma síncrona en disco */
+    private final boolean fsync;
+
+    private final Path file;
+    private final ObjectMapper mapper;
+
+    /** Lectores de los resultados de cada fuente */
+    private final Map<String, ObjectReader> rowsReaders = new HashMap<>();
+
+    /** Líneas escritas en el registro (incluye las reemplazadas) */
+    private int lines;
+
+    /**
+     * Constructor con la configuración del registro.
+     *
+     * @param enabled true para guardar los trabajos en disco
+     * @param dir     Directorio del registro
+     * @param fsync   true para escribir cada línea de forma síncrona
+     * @param sources Fuentes registradas, con el tipo de resultado de cada una
+     * @param mapper  Mapper JSON de la aplicación
+     */
+    public JobStore(@Value("${scrapx.jobs.persistent:true}") boolean enabled,
+                    @Value("${scrapx.jobs.dir:data/jobs}") Path dir,
+                    @Value("${scrapx.jobs.fsync:true}") boolean fsync,
+                    SourceRegistry sources,
+                    ObjectMapper mapper) {
+        this.enabled = enabled;
+        this.fsync = fsync;
+        this.file = dir.resolve("jobs.jsonl");
+        this.mapper = mapper;
+        for (ScrapeSource<?> source : sources.all()) {
+            rowsReaders.put(source.name(), mapper.readerForListOf(source.resultType()));
+        }
+    }
+
+    /**
+     * Carga los trabajos del registro y lo reescribe solo con ellos.
+     *
+     * @return Trabajos, en el orden en que se recibieron
+     */
+    synchronized List<Job> load() {
+        if (!enabled || !Files.exists(file)) {
+            return List.of();
+        }
+        Map<String, Job> jobs = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lines++;
+                try {
+                    Job job = job(mapper.readTree(text));
+                    if (job != null) {
+                        // Reemplazar conserva la posición de la primera línea (orden de llegada)
+                        jobs.put(job.id, job);
+                    }
+                }
+                catch (JacksonException | IllegalArgumentException e) {
+                    log.warn("Línea inválida en el registro de trabajos: {}", e.getMessage());
+                }
+            }
+        }
+        catch (IOException | UncheckedIOException e) {
+            log.warn("Error al cargar el registro de trabajos: {}", e.getMessage());
+            return List.of();
+        }
+        List<Job> loaded = new ArrayList<>(jobs.values());
+        if (lines > loaded.size()) {
+            compact(() -> loaded);
+        }
+        log.info("Registro de trabajos: {} trabajos cargados", loaded.size());
+        return loaded;
+    }
+
+    /**
+     * Agrega el estado actual de un trabajo al registro.
+     *
+     * @param job Trabajo que cambió de estado
+     */
+    synchronized void append(Job job) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            List<StandardOpenOption> options = new ArrayList<>(List.of(StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            if (fsync) {
+                options.add(StandardOpenOption.DSYNC);
+            }
+            Files.writeString(file, line(job) + "\n", StandardCharsets.UTF_8, options.toArray(StandardOpenOption[]::new));
+            lines++;
+        }
+        catch (IOException | UncheckedIOException e) {
+            log.warn("Error al escribir el registro de trabajos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Líneas escritas en el registro (incluye las reemplazadas)
+     */
+    synchronized int lines() {
+        return lines;
+    }
+
+    /**
+     * Reescribe el registro solo con los trabajos vigentes (escritura atómica).
+     *
+     * Sidenote: La lista de trabajos se toma con el registro bloqueado, igual que append:
+     * un trabajo agregado antes de tomarla está en la lista, y uno agregado después se
+     * escribe cuando termina la reescritura, así que ninguno se pierde. El archivo
+     * temporal se fuerza a disco antes de renombrarlo, para que una caída no deje un
+     * registro vacío o truncado.
+     *
+     * @param live Trabajos que se conservan, evaluado con el registro bloqueado
+     */
+    synchronized void compact(Supplier<? extends Collection<Job>> live) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Collection<Job> jobs = live.get();
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                for (Job job : jobs) {
+                    writer.write(line(job));
+                    writer.newLine();
+                }
+                writer.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lines = jobs.size();
+        }
+        catch (IOException | UncheckedIOException e) {
+            log.warn("Error al reescribir el registro de trabajos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Línea JSON de un trabajo: {"id", "source", "entity", "score", "state", "attempts",
+     *         "createdAt", "startedAt", "finishedAt", "result"} (instantes en epoch millis)
+     */
+    private String line(Job job) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        // Los campos se leen sobre el monitor del trabajo para no mezclar dos estados
+        synchronized (job) {
+            line.put("id", job.id);
+            line.put("source", job.source);
+            line.put("entity", job.entity);
+            line.put("score", job.score);
+            line.put("state", job.state().name());
+            line.put("attempts", job.attempts());
+            line.put("createdAt", job.createdAt.toEpochMilli());
+            line.put("startedAt", millis(job.startedAt()));
+            line.put("finishedAt", millis(job.finishedAt()));
+            line.put("result", job.result());
+        }
+        return mapper.writeValueAsString(line);
+    }
+
+    /**
+     * @return Trabajo de una línea del registro, o null si su fuente ya no está registrada
+     */
+    private Job job(JsonNode node) {
+        String source = node.path("source").asString();
+        ObjectReader rowsReader = rowsReaders.get(source);
+        if (rowsReader == null) {
+            log.warn("Trabajo de una fuente desconocida en el registro: {}", source);
+            return null;
+        }
+        SourceResponse<?> result = null;
+        JsonNode response = node.path("result");
+        if (response.isObject()) {
+            List<?> rows = rowsReader.readValue(response.path("results"));
+            JsonNode fetchedAt = response.path("fetchedAt");
+            result = new SourceResponse<>(response.path("code").asInt(), response.path("message").asString(),
+                    response.path("numHits").asInt(), rows, response.path("stale").isBoolean() ? response.path("stale").asBoolean() : null,
+                    fetchedAt.isMissingNode() || fetchedAt.isNull() ? null : mapper.treeToValue(fetchedAt, Instant.class));
+        }
+        return new Job(node.path("id").asString(), source, node.path("entity").asString(), text(node.path("score")),
+                Instant.ofEpochMilli(node.path("createdAt").asLong()), Job.State.valueOf(node.path("state").asString()),
+                node.path("attempts").asInt(), instant(node.path("startedAt")), instant(node.path("finishedAt")), result);
+    }
+
+    private static Long millis(Instant instant) {
+        return instant == null ? null : instant.toEpochMilli();
+    }
+
+    private static Instant instant(JsonNode node) {
+        return node.isNumber() ? Instant.ofEpochMilli(node.asLong()) : null;
+    }
+
+    private static String text(JsonNode node) {
+        return node.isString() ? node.asString() : null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.scrapx.api.matching;
+
+/**
+ * Similitud de Jaro-Winkler sobre arreglos de caracteres.
+ *
+ * Sidenote: Se calcula sin crear objetos para nombres de hasta 64 caracteres
+ * (la gran mayoría): las marcas de caracteres coincidentes se guardan en un long
+ * por cadena en lugar de en arreglos boolean. Los nombres más largos usan arreglos.
+ */
+final class JaroWinkler {
+
+    /** Peso del prefijo común (valor estándar de Winkler) */
+    private static final double PREFIX_SCALE = 0.1;
+
+    /** Longitud máxima del prefijo común considerada */
+    private static final int MAX_PREFIX = 4;
+
+    private JaroWinkler() { }
+
+    /**
+     * @return Similitud entre 0 (nada en común) y 1 (iguales)
+     */
+    static double similarity(char[] a, char[] b) {
+        int la = a.length;
+        int lb = b.length;
+        if (la == 0 || lb == 0) {
+            return la == lb ? 1.0 : 0.0;
+        }
+
+        double jaro = la <= 64 && lb <= 64 ? jaroMasked(a, b) : jaroArrays(a, b);
+        if (jaro == 0.0) {
+            return 0.0;
+        }
+
+        int prefix = 0;
+        int maxPrefix = Math.min(MAX_PREFIX, Math.min(la, lb));
+        while (prefix < maxPrefix && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        return jaro + prefix * PREFIX_SCALE * (1.0 - jaro);
+    }
+
+    /**
+     * Similitud de Jaro con las marcas de coincidencia en un long por cadena.
+     */
+    private static double jaroMasked(char[] a, char[] b) {
+        int la = a.length;
+        int lb = b.length;
+        int range = Math.max(0, Math.max(la, lb) / 2 - 1);
+
+        // 1. Marcar los caracteres coincidentes dentro de la ventana
+        long matchedA = 0;
+        long matchedB = 0;
+        int matches = 0;
+        for (int i = 0; i < la; i++) {
+            int hi = Math.min(lb - 1, i + range);
+            for (int j = Math.max(0, i - range); j <= hi; j++) {
+                if ((matchedB & (1L << j)) == 0 && a[i] == b[j]) {
+                    matchedA |= 1L << i;
+                    matchedB |= 1L << j;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        // 2. Contar las coincidencias que aparecen en distinto orden
+        int transpositions = 0;
+        int j = 0;
+        for (int i = 0; i < la; i++) {
+            if ((matchedA & (1L << i)) != 0) {
+                while ((matchedB & (1L << j)) == 0) {
+                    j++;
+                }
+                if (a[i] != b[j]) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        return jaro(matches, transpositions, la, lb);
+    }
+
+    /**
+     * Similitud de Jaro con arreglos de marcas, para nombres de más de 64 caracteres.
+     */
+    private static double jaroArrays(char[] a, char[] b) {
+        int la = a.length;
+        int lb = b.length;
+        int range = Math.max(0, Math.max(la, lb) / 2 - 1);
+        boolean[] matchedA = new boolean[la];
+        boolean[] matchedB = new boolean[lb];
+
+        int matches = 0;
+        for (int i = 0; i < la; i++) {
+            int hi = Math.min(lb - 1, i + range);
+            for (int j = Math.max(0, i - range); j <= hi; j++) {
+                if (!matchedB[j] && a[i] == b[j]) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        int j = 0;
+        for (int i = 0; i < la; i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a[i] != b[j]) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        return jaro(matches, transpositions, la, lb);
+    }
+
+    private static double jaro(int matches, int transpositions, int la, int lb) {
+        double m = matches;
+        return (m / la + m / lb + (m - transpositions / 2.0) / m) / 3.0;
+    }
+}
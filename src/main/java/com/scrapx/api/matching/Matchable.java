@@ -0,0 +1,25 @@
+package com.scrapx.api.matching;
+
+/**
+ * Resultado de una fuente que puede recibir un puntaje de coincidencia local.
+ *
+ * @param <T> Tipo del resultado (el propio DTO)
+ */
+public interface Matchable<T> {
+
+    /**
+     * @return Nombre del resultado que se compara con el nombre buscado
+     */
+    String matchName();
+
+    /**
+     * @return Puntaje de coincidencia local, o null si aún no se calculó
+     */
+    Integer matchScore();
+
+    /**
+     * @param matchScore Puntaje de coincidencia local (0 a 100)
+     * @return Copia del resultado con el puntaje asignado
+     */
+    T withMatchScore(int matchScore);
+}
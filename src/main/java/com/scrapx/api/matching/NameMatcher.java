@@ -0,0 +1,84 @@
+package com.scrapx.api.matching;
+
+/**
+ * Puntaje de coincidencia local entre nombres de entidades (0 a 100).
+ *
+ * Sidenote: Los nombres se normalizan con NameNormalizer y se comparan con
+ * Jaro-Winkler de dos formas: con las palabras en su orden original y con las
+ * palabras ordenadas alfabéticamente ("HOLDINGS AERO" vs "AERO HOLDINGS").
+ * El puntaje es la mayor de ambas similitudes, por lo que es comparable entre
+ * las tres fuentes sin importar cómo escribe cada una los nombres.
+ */
+public final class NameMatcher {
+
+    /**
+     * Nombre ya normalizado, listo para comparar muchas veces sin volver a normalizarlo.
+     *
+     * @param full   Palabras normalizadas en su orden original
+     * @param sorted Palabras normalizadas en orden alfabético
+     */
+    public record Name(char[] full, char[] sorted) { }
+
+    private NameMatcher() { }
+
+    /**
+     * @param name Nombre tal como aparece en la fuente o en la petición
+     * @return Nombre normalizado
+     */
+    public static Name name(String name) {
+        String full = NameNormalizer.normalize(name);
+        String sorted = NameNormalizer.normalizeSorted(name);
+        char[] fullChars = full.toCharArray();
+        return new Name(fullChars, sorted.equals(full) ? fullChars : sorted.toCharArray());
+    }
+
+    /**
+     * @return Puntaje de coincidencia entre dos nombres normalizados (0 a 100)
+     */
+    public static int score(Name query, Name candidate) {
+        double similarity = JaroWinkler.similarity(query.full(), candidate.full());
+        if (similarity < 1.0 && (query.sorted() != query.full() || candidate.sorted() != candidate.full())) {
+            similarity = Math.max(similarity, JaroWinkler.similarity(query.sorted(), candidate.sorted()));
+        }
+        return (int) Math.round(similarity * 100);
+    }
+
+    /**
+     * Puntaje de coincidencia, descartando sin compararlos los nombres que no pueden alcanzar minScore.
+     *
+     * Sidenote: Jaro-Winkler no puede superar (2 + corto/largo) / 3 más el bono del
+     * prefijo, por lo que los nombres de longitudes muy distintas se descartan
+     * sin recorrer sus caracteres.
+     *
+     * @return Puntaje (0 a 100), o 0 si no puede alcanzar minScore
+     */
+    public static int score(Name query, Name candidate, int minScore) {
+        int la = query.full().length;
+        int lb = candidate.full().length;
+        if (la > 0 && lb > 0) {
+            double jaroMax = (2.0 + Math.min(la, lb) / (double) Math.max(la, lb)) / 3.0;
+            if ((jaroMax + 0.4 * (1.0 - jaroMax)) * 100 < minScore) {
+                return 0;
+            }
+        }
+        return score(query, candidate);
+    }
+
+    /**
+     * @return Puntaje de coincidencia entre dos nombres sin normalizar (0 a 100)
+     */
+    public static int score(String query, String candidate) {
+        return score(name(query), name(candidate));
+    }
+
+    /**
+     * Asigna el puntaje de coincidencia local a un resultado.
+     *
+     * @param query  Nombre buscado, normalizado
+     * @param result Resultado de una fuente
+     * @return Copia del resultado con su matchScore
+     */
+    public static <T extends Matchable<T>> T scored(Name query, T result) {
+        return result.withMatchScore(score(query, name(result.matchName())));
+    }
+}
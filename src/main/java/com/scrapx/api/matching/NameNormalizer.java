@@ -0,0 +1,97 @@
+package com.scrapx.api.matching;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalización de nombres de entidades, común a las tres fuentes.
+ *
+ * Sidenote: Cada fuente escribe los nombres de forma distinta ("Aero Holdings, Ltd.",
+ * "AERO HOLDINGS LIMITED", "Aéro Holdings S.A."), por lo que antes de comparar:
+ * 1) Se quitan los acentos y se pasa a mayúsculas
+ * 2) Los puntos y apóstrofes se eliminan ("S.A." -> "SA") y el resto de símbolos separan palabras
+ * 3) Se descartan las formas societarias (LTD, LIMITED, SA, INC, ...) si queda alguna otra palabra
+ */
+public final class NameNormalizer {
+
+    /** Formas societarias que no aportan a la identidad del nombre */
+    private static final Set<String> LEGAL_FORMS = Set.of(
+            "LTD", "LIMITED", "INC", "INCORPORATED", "CORP", "CORPORATION", "CO", "COMPANY",
+            "LLC", "LLP", "LP", "PLC", "SA", "SAC", "SAA", "SAS", "SRL", "SL", "SPA",
+            "AG", "GMBH", "BV", "NV", "OY", "AB", "AS", "KG", "PTE", "PTY", "CIA", "LTDA");
+
+    private NameNormalizer() { }
+
+    /**
+     * Normaliza un nombre.
+     *
+     * @param name Nombre tal como aparece en la fuente o en la petición
+     * @return Palabras normalizadas separadas por un espacio ("" si no queda ninguna)
+     */
+    public static String normalize(String name) {
+        return String.join(" ", tokens(name));
+    }
+
+    /**
+     * Normaliza un nombre y ordena sus palabras, para comparar sin importar el orden.
+     *
+     * @param name Nombre tal como aparece en la fuente o en la petición
+     * @return Palabras normalizadas en orden alfabético, separadas por un espacio
+     */
+    public static String normalizeSorted(String name) {
+        String[] words = tokens(name).toArray(new String[0]);
+        Arrays.sort(words);
+        return String.join(" ", words);
+    }
+
+    /**
+     * @return Palabras normalizadas del nombre, sin formas societarias
+     */
+    static List<String> tokens(String name) {
+        if (name == null) {
+            return List.of();
+        }
+
+        // 1. Quitar acentos (solo si hay caracteres fuera de ASCII)
+        String text = name;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                text = Normalizer.normalize(text, Normalizer.Form.NFKD);
+                break;
+            }
+        }
+
+        // 2. Separar en palabras de letras y dígitos en mayúsculas
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toUpperCase(c));
+            }
+            else if (c == '.' || c == '\'' || Character.getType(c) == Character.NON_SPACING_MARK) {
+                // Puntos, apóstrofes y acentos sueltos no separan palabras
+                continue;
+            }
+            else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+
+        // 3. Descartar formas societarias, salvo que sean todo el nombre
+        List<String> significant = new ArrayList<>(words.size());
+        for (String w : words) {
+            if (!LEGAL_FORMS.contains(w)) {
+                significant.add(w);
+            }
+        }
+        return significant.isEmpty() ? words : significant;
+    }
+}
@@ -0,0 +1,271 @@
+package com.scrapx.api.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Índice de trigramas para buscar nombres parecidos en una lista grande.
+ *
+ * Sidenote: Comparar el nombre buscado con cada nombre de la lista es lento cuando
+ * la lista tiene miles de nombres, por lo que la búsqueda se hace en dos pasos:
+ * 1) Candidatos: nombres cuyo coeficiente de Dice de trigramas con el nombre buscado es al menos 0.4
+ * 2) Puntaje: Jaro-Winkler (NameMatcher) solo sobre los candidatos
+ *
+ * Los trigramas se calculan sobre el nombre normalizado con un espacio al inicio y al
+ * final, y se guardan como long (3 caracteres de 16 bits). El índice es inmutable.
+ * Opcionalmente indexa también un texto de cada elemento para buscar por subcadena
+ * (containing): los candidatos son los elementos que tienen todos los trigramas del
+ * texto buscado, y solo sobre ellos se verifica String.contains.
+ *
+ * @param <T> Tipo de los elementos indexados
+ */
+public final class TrigramIndex<T> {
+
+    /**
+     * Elemento encontrado.
+     *
+     * @param id    Posición del elemento en la lista indexada
+     * @param item  Elemento
+     * @param score Puntaje de coincidencia (0 a 100)
+     */
+    public record Match<T>(int id, T item, int score) { }
+
+    private final List<T> items;
+    private final NameMatcher.Name[] names;
+
+    /** Número de trigramas distintos de cada nombre */
+    private final int[] gramCounts;
+
+    /** Trigrama -> posiciones de los elementos que lo contienen, en orden ascendente */
+    private final Map<Long, int[]> postings;
+
+    /** Texto de cada elemento para la búsqueda por subcadena (null si no se indexó) */
+    private final String[] texts;
+
+    /** Trigrama del texto (sin espacios de relleno) -> posiciones de los elementos, en orden ascendente */
+    private final Map<Long, int[]> textPostings;
+
+    /**
+     * Construye el índice.
+     *
+     * @param items Elementos a indexar
+     * @param name  Nombre de cada elemento
+     */
+    public TrigramIndex(List<T> items, Function<T, String> name) {
+        this(items, name, null);
+    }
+
+    /**
+     * Construye el índice, incluyendo la búsqueda por subcadena.
+     *
+     * @param items Elementos a indexar
+     * @param name  Nombre de cada elemento
+     * @param text  Texto de cada elemento para containing() (null para no indexarlo)
+     */
+    public TrigramIndex(List<T> items, Function<T, String> name, Function<T, String> text) {
+        this.items = List.copyOf(items);
+        this.names = new NameMatcher.Name[this.items.size()];
+        this.gramCounts = new int[this.items.size()];
+
+        long[][] grams = new long[this.items.size()][];
+        for (int id = 0; id < this.items.size(); id++) {
+            names[id] = NameMatcher.name(name.apply(this.items.get(id)));
+            grams[id] = trigrams(names[id].full(), true);
+            gramCounts[id] = grams[id].length;
+        }
+        this.postings = postings(grams);
+
+        if (text == null) {
+            this.texts = null;
+            this.textPostings = Map.of();
+        }
+        else {
+            this.texts = new String[this.items.size()];
+            for (int id = 0; id < this.items.size(); id++) {
+                texts[id] = text.apply(this.items.get(id));
+                grams[id] = trigrams(texts[id].toCharArray(), false);
+            }
+            this.textPostings = postings(grams);
+        }
+    }
+
+    /**
+     * Busca los elementos cuyo nombre se parece al nombre buscado.
+     *
+     * @param query    Nombre buscado, normalizado
+     * @param minScore Puntaje mínimo (0 a 100)
+     * @return Elementos encontrados, de mayor a menor puntaje
+     */
+    public List<Match<T>> search(NameMatcher.Name query, int minScore) {
+        long[] grams = trigrams(query.full(), true);
+        if (grams.length == 0) {
+            return List.of();
+        }
+
+        // 1. Contar los trigramas compartidos con cada elemento
+        int[] shared = new int[items.size()];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (long gram : grams) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int id : list) {
+                if (shared[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        // 2. Puntuar solo los candidatos con Dice >= 0.4, es decir 2 * compartidos >= 0.4 * (trigramas de ambos)
+        List<Match<T>> matches = new ArrayList<>();
+        for (int k = 0; k < touchedCount; k++) {
+            int id = touched[k];
+            if (5 * shared[id] >= grams.length + gramCounts[id]) {
+                int score = NameMatcher.score(query, names[id], minScore);
+                if (score >= minScore) {
+                    matches.add(new Match<>(id, items.get(id), score));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt((Match<T> m) -> m.score()).reversed().thenComparingInt(Match::id));
+        return matches;
+    }
+
+    /**
+     * Busca los elementos cuyo texto contiene el texto buscado.
+     *
+     * Sidenote: Un texto que contiene al buscado tiene todos sus trigramas, por lo que
+     * los candidatos son la intersección de las listas de cada trigrama (empezando por
+     * la más corta); como los trigramas pueden aparecer separados, cada candidato se
+     * verifica con String.contains. Un texto buscado de menos de 3 caracteres no tiene
+     * trigramas y se verifica contra todos los elementos.
+     *
+     * @param text Texto buscado, con la misma normalización que los textos indexados
+     * @return Posiciones de los elementos encontrados, en orden ascendente
+     * @throws IllegalStateException Si el índice se construyó sin textos
+     */
+    public int[] containing(String text) {
+        if (texts == null) {
+            throw new IllegalStateException("El índice no tiene textos para buscar por subcadena");
+        }
+
+        // 1. Candidatos: elementos con todos los trigramas del texto buscado
+        long[] grams = trigrams(text.toCharArray(), false);
+        int[] candidates = null;
+        if (grams.length > 0) {
+            int[][] lists = new int[grams.length][];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = textPostings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+            candidates = lists[0];
+            for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+                candidates = intersect(candidates, lists[i]);
+            }
+        }
+
+        // 2. Verificar cada candidato
+        int count = candidates == null ? texts.length : candidates.length;
+        int[] found = new int[count];
+        int size = 0;
+        for (int k = 0; k < count; k++) {
+            int id = candidates == null ? k : candidates[k];
+            if (texts[id].contains(text)) {
+                found[size++] = id;
+            }
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    /**
+     * @return Número de elementos indexados
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return Trigrama -> posiciones de los elementos que lo contienen, en orden ascendente
+     */
+    private static Map<Long, int[]> postings(long[][] grams) {
+        Map<Long, int[]> lists = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int id = 0; id < grams.length; id++) {
+            for (long gram : grams[id]) {
+                int size = sizes.getOrDefault(gram, 0);
+                int[] list = lists.get(gram);
+                if (list == null || list.length == size) {
+                    list = list == null ? new int[4] : Arrays.copyOf(list, size * 2);
+                    lists.put(gram, list);
+                }
+                list[size] = id;
+                sizes.put(gram, size + 1);
+            }
+        }
+        lists.replaceAll((gram, list) -> Arrays.copyOf(list, sizes.get(gram)));
+        return lists;
+    }
+
+    /**
+     * @return Posiciones presentes en ambas listas (ordenadas de forma ascendente)
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            }
+            else if (a[i] > b[j]) {
+                j++;
+            }
+            else {
+                both[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    /**
+     * @param padded true para agregar un espacio al inicio y al final (nombres), false
+     *               para usar solo los trigramas del texto (subcadenas)
+     * @return Trigramas distintos del texto, en orden ascendente
+     */
+    private static long[] trigrams(char[] name, boolean padded) {
+        if (name.length == 0 || (!padded && name.length < 3)) {
+            return new long[0];
+        }
+        int pad = padded ? 1 : 0;
+        long[] grams = new long[name.length + 2 * pad - 2];
+        for (int i = 0; i < grams.length; i++) {
+            int at = i - pad;
+            long c0 = at < 0 ? ' ' : name[at];
+            long c1 = name[at + 1];
+            long c2 = at + 2 < name.length ? name[at + 2] : ' ';
+            grams[i] = c0 << 32 | c1 << 16 | c2;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
@@ -0,0 +1,197 @@
+package com.scrapx.api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de cada etapa del scraping, registradas en Micrometer y expuestas
+ * en /actuator/prometheus.
+ *
+ * Sidenote: Todas las métricas llevan el tag "source" (offshore, worldbank, ofac):
+ * 1) scrapx.stage (timer): duración de cada etapa (tag "stage", p. ej. request, parse,
+ *    extract, browser.wait) y su resultado (tag "outcome")
+ * 2) scrapx.source.requests (timer): cada búsqueda que llega a la fuente, con outcome
+ *    success, error, rejected (rechazada por el circuit breaker o el límite de concurrencia)
+ *    o cancelled (cancelada o interrumpida por el plazo del llamador)
+ * 3) scrapx.source.timeouts (counter): búsquedas que superaron el plazo de la fuente
+ * 4) scrapx.response.bytes, scrapx.pages y scrapx.rows (summaries): bytes recibidos por
+ *    respuesta, páginas descargadas y filas obtenidas por búsqueda
+ * 5) scrapx.revalidations (counter): páginas ya descargadas que se pidieron de nuevo,
+ *    con outcome not_modified (304), unchanged (mismo contenido) o changed
+ *
+ * Los histogramas de percentiles se habilitan por configuración
+ * (management.metrics.distribution.percentiles-histogram.scrapx).
+ */
+@Component
+public class ScrapeMetrics {
+
+    /** Valores del tag "outcome" */
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String REJECTED = "rejected";
+    public static final String CANCELLED = "cancelled";
+
+    /** Valores del tag "outcome" de las revalidaciones de páginas */
+    public static final String NOT_MODIFIED = "not_modified";
+    public static final String UNCHANGED = "unchanged";
+    public static final String CHANGED = "changed";
+
+    private final MeterRegistry registry;
+
+    /**
+     * @param registry Registro de métricas de la aplicación
+     */
+    public ScrapeMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return Medición iniciada, que se cierra con stage() o request()
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Registra la duración de una etapa del scraping.
+     *
+     * @param sample  Medición iniciada al comenzar la etapa
+     * @param source  Fuente (offshore, worldbank, ofac)
+     * @param stage   Etapa (request, parse, extract, ...)
+     * @param outcome Resultado de la etapa (success o error)
+     */
+    public void stage(Timer.Sample sample, String source, String stage, String outcome) {
+        sample.stop(stageTimer(source, stage, outcome));
+    }
+
+    /**
+     * Registra la duración de una etapa medida por partes (p. ej. la extracción de todas las filas).
+     */
+    public void stage(String source, String stage, long nanos) {
+        stageTimer(source, stage, SUCCESS).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra una búsqueda que llegó (o intentó llegar) a la fuente.
+     *
+     * @param sample  Medición iniciada al lanzar la búsqueda
+     * @param source  Fuente (offshore, worldbank, ofac)
+     * @param outcome success, error, rejected o cancelled
+     */
+    public void request(Timer.Sample sample, String source, String outcome) {
+        sample.stop(Timer.builder("scrapx.source.requests")
+                .description("Búsquedas enviadas a cada fuente")
+                .tags("source", source, "outcome", outcome)
+                .register(registry));
+    }
+
+    /**
+     * Registra una búsqueda que superó el plazo de la fuente.
+     */
+    public void timeout(String source) {
+        Counter.builder("scrapx.source.timeouts")
+                .description("Búsquedas que superaron el plazo de la fuente")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Registra la revalidación de una página descargada antes.
+     *
+     * @param outcome NOT_MODIFIED (304), UNCHANGED (mismo hash, sin parsear) o CHANGED (parseada de nuevo)
+     */
+    public void revalidation(String source, String outcome) {
+        Counter.builder("scrapx.revalidations")
+                .description("Páginas descargadas antes y consultadas de nuevo, según si cambiaron")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Registra los bytes recibidos en una respuesta (antes de descomprimir).
+     */
+    public void bytes(String source, long bytes) {
+        summary("scrapx.response.bytes", "Bytes recibidos por respuesta", "bytes", source).record(bytes);
+    }
+
+    /**
+     * Registra las páginas descargadas en una búsqueda.
+     */
+    public void pages(String source, int pages) {
+        summary("scrapx.pages", "Páginas descargadas por búsqueda", "pages", source).record(pages);
+    }
+
+    /**
+     * Registra las filas obtenidas en una búsqueda.
+     */
+    public void rows(String source, int rows) {
+        summary("scrapx.rows", "Filas obtenidas por búsqueda", "rows", source).record(rows);
+    }
+
+    /**
+     * Envuelve el body de una respuesta para registrar los bytes leídos al cerrarlo.
+     *
+     * @param source Fuente (offshore, worldbank, ofac)
+     * @param body   Body de la respuesta, tal como llega de la red
+     * @return Stream que cuenta los bytes leídos
+     */
+    public InputStream countBytes(String source, InputStream body) {
+        return new FilterInputStream(body) {
+            private long count;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    count++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    count += n;
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    bytes(source, count);
+                }
+                super.close();
+            }
+        };
+    }
+
+    private Timer stageTimer(String source, String stage, String outcome) {
+        return Timer.builder("scrapx.stage")
+                .description("Duración de cada etapa del scraping")
+                .tags("source", source, "stage", stage, "outcome", outcome)
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String description, String unit, String source) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("source", source)
+                .register(registry);
+    }
+}
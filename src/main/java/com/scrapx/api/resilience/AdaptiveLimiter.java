@@ -0,0 +1,87 @@
+package com.scrapx.api.resilience;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) para una fuente externa.
+ *
+ * Sidenote: El límite se ajusta según la latencia observada:
+ * 1) Si una búsqueda termina bien y por debajo de la latencia objetivo,
+ *    el límite crece en 1/límite (aprox. +1 por cada "ronda" de búsquedas)
+ * 2) Si falla o supera la latencia objetivo, el límite se reduce multiplicativamente
+ *
+ * Así la concurrencia hacia cada fuente se acerca a lo que esa fuente soporta.
+ */
+public class AdaptiveLimiter {
+
+    /** Factor de reducción ante una búsqueda lenta o fallida */
+    private static final double BACKOFF = 0.7;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param initialLimit       Límite inicial de búsquedas concurrentes
+     * @param minLimit           Límite mínimo
+     * @param maxLimit           Límite máximo
+     * @param targetLatencyNanos Latencia objetivo de la fuente
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Reserva un cupo de concurrencia.
+     *
+     * @return true si hay cupo; en ese caso se debe llamar a onComplete()
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera el cupo y ajusta el límite con la latencia observada.
+     *
+     * @param latencyNanos Duración de la búsqueda
+     * @param success      true si la búsqueda terminó sin errores
+     */
+    public synchronized void onComplete(long latencyNanos, boolean success) {
+        inFlight--;
+        if (success && latencyNanos <= targetLatencyNanos) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        else {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        }
+    }
+
+    /**
+     * Libera el cupo sin ajustar el límite (la búsqueda se canceló antes de terminar).
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    /**
+     * @return Límite actual (parte entera)
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return Búsquedas en curso
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,122 @@
+package com.scrapx.api.resilience;
+
+/**
+ * Circuit breaker para una fuente externa.
+ *
+ * Sidenote: Estados del circuito:
+ * 1) CLOSED: las búsquedas pasan normalmente; se cuentan los fallos consecutivos
+ * 2) OPEN: tras failureThreshold fallos seguidos, las búsquedas se rechazan
+ *    de inmediato durante openNanos, sin esperar a que la fuente caída responda
+ * 3) HALF_OPEN: pasado ese tiempo se deja pasar una búsqueda de prueba;
+ *    si funciona el circuito se cierra, si falla vuelve a abrirse
+ *
+ * Cada búsqueda admitida recibe un ticket con la época del circuito, que avanza
+ * al abrirse y al pasar a HALF_OPEN. El resultado de una búsqueda solo cuenta si
+ * su ticket es de la época actual: una búsqueda lenta admitida antes de que el
+ * circuito se abriera no lo cierra al terminar (ni se salta la espera), y solo el
+ * resultado de la búsqueda de prueba decide si un circuito HALF_OPEN se cierra.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Estado del circuito.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Ticket de una búsqueda rechazada */
+    public static final long REJECTED = -1;
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /** Época actual: avanza cada vez que el circuito se abre o pasa a HALF_OPEN */
+    private long epoch;
+
+    /**
+     * @param failureThreshold Fallos consecutivos que abren el circuito
+     * @param openNanos        Tiempo que el circuito permanece abierto
+     */
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * Admite una búsqueda si el circuito lo permite.
+     *
+     * @return Ticket de la búsqueda, que se pasa a onSuccess, onFailure o cancel;
+     *         REJECTED si la búsqueda no puede llegar a la fuente
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+            epoch++;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return REJECTED;
+            }
+            trialInFlight = true;
+            return epoch;
+        }
+        return state == State.CLOSED ? epoch : REJECTED;
+    }
+
+    /**
+     * Registra una búsqueda exitosa.
+     *
+     * @param ticket Ticket devuelto por tryAcquire
+     */
+    public synchronized void onSuccess(long ticket) {
+        if (ticket != epoch) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            state = State.CLOSED;
+        }
+    }
+
+    /**
+     * Registra una búsqueda fallida.
+     *
+     * @param ticket Ticket devuelto por tryAcquire
+     */
+    public synchronized void onFailure(long ticket) {
+        if (ticket != epoch || state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            trialInFlight = false;
+            openedAt = System.nanoTime();
+            epoch++;
+        }
+    }
+
+    /**
+     * Libera la búsqueda de prueba si finalmente no llegó a ejecutarse.
+     *
+     * @param ticket Ticket devuelto por tryAcquire
+     */
+    public synchronized void cancel(long ticket) {
+        if (ticket == epoch && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * @return Estado actual del circuito
+     */
+    public synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,85 @@
+package com.scrapx.api.resilience;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuotas de peticiones por cliente, con un bucket de Bucket4j por dirección IP.
+ *
+ * Sidenote: Reemplaza al bucket global compartido por todos los clientes. El cliente se
+ * identifica con request.getRemoteAddr(): detrás del ingress de Azure Container Apps,
+ * server.forward-headers-strategy=native hace que Tomcat la resuelva desde
+ * X-Forwarded-For saltando solo los proxies de confianza. Leer la primera IP del
+ * encabezado directamente permitiría a un cliente elegir su propio bucket.
+ */
+@Component
+public class ClientQuotas {
+
+    /**
+     * Bucket de un cliente y el instante de su última petición.
+     */
+    private static final class Quota {
+        private final Bucket bucket;
+        private volatile long lastSeen = System.nanoTime();
+
+        private Quota(Bucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final int requestsPerMinute;
+
+    /**
+     * @param requestsPerMinute Peticiones por minuto permitidas a cada cliente
+     */
+    public ClientQuotas(@Value("${scrapx.quota.requests-per-minute:20}") int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    /**
+     * Intenta consumir 1 token del bucket del cliente que hizo la petición.
+     *
+     * @param request Petición HTTP
+     * @return true si el cliente aún tiene tokens disponibles
+     */
+    public boolean tryConsume(HttpServletRequest request) {
+        Quota quota = quotas.computeIfAbsent(clientId(request), id -> new Quota(newBucket()));
+        quota.lastSeen = System.nanoTime();
+        return quota.bucket.tryConsume(1);
+    }
+
+    /**
+     * Descarta los buckets de clientes inactivos (ya estarían llenos de nuevo).
+     */
+    @Scheduled(fixedDelay = 300_000)
+    public void evictIdle() {
+        long threshold = System.nanoTime() - Duration.ofMinutes(5).toNanos();
+        quotas.values().removeIf(quota -> quota.lastSeen < threshold);
+    }
+
+    /**
+     * Configuración del bucket: requestsPerMinute solicitudes, recarga completa cada minuto.
+     */
+    private Bucket newBucket() {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(requestsPerMinute)
+                .refillIntervally(requestsPerMinute, Duration.ofMinutes(1))
+                .build();
+        return Bucket.builder().addLimit(limit).build();
+    }
+
+    /**
+     * @return Identificador del cliente: su IP remota (ya resuelta desde X-Forwarded-For por Tomcat)
+     */
+    private String clientId(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,229 @@
+package com.scrapx.api.resilience;
+
+import com.scrapx.api.cluster.UpstreamLimiter;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import com.scrapx.api.source.SourceSettings;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Protege cada fuente externa con un límite de concurrencia adaptativo y un circuit breaker.
+ *
+ * Sidenote: Cada fuente tiene su propia configuración (scrapx.<fuente>.limiter.*),
+ * por lo que una fuente lenta (p. ej. WorldBank con Selenium) no consume la capacidad
+ * de otra más rápida (p. ej. OFAC). Una búsqueda rechazada lanza
+ * SourceUnavailableException sin llegar a la fuente.
+ * Además, cada fuente puede tener un límite de peticiones por minuto compartido por
+ * todos los nodos del clúster (UpstreamLimiter).
+ * Una búsqueda que el llamador cancela (o cuyo hilo se interrumpe por su plazo) solo
+ * libera el cupo: no cuenta como fallo para el circuito ni reduce el límite, porque
+ * no dice nada de la salud de la fuente.
+ */
+@Component
+public class SourceGuard {
+
+    /**
+     * Protección de una fuente: limitador + circuito.
+     */
+    private record Guard(AdaptiveLimiter limiter, CircuitBreaker breaker) { }
+
+    private final Map<String, Guard> guards = new LinkedHashMap<>();
+
+    /** Registra cada búsqueda (aceptada o rechazada) en scrapx.source.requests */
+    private final ScrapeMetrics metrics;
+
+    /** Límite de peticiones por minuto a cada fuente, compartido por el clúster */
+    private final UpstreamLimiter upstream;
+
+    /**
+     * Constructor que lee la configuración de cada fuente.
+     *
+     * @param sources  Fuentes registradas, con el límite de concurrencia de cada una
+     * @param env      Entorno de Spring con las propiedades scrapx.breaker.*
+     * @param metrics  Métricas de las búsquedas de cada fuente
+     * @param upstream Límite de peticiones por minuto a cada fuente
+     */
+    public SourceGuard(SourceRegistry sources, Environment env, ScrapeMetrics metrics, UpstreamLimiter upstream) {
+        this.metrics = metrics;
+        this.upstream = upstream;
+        int failureThreshold = env.getProperty("scrapx.breaker.failure-threshold", Integer.class, 5);
+        Duration openDuration = env.getProperty("scrapx.breaker.open-duration", Duration.class, Duration.ofSeconds(60));
+
+        for (ScrapeSource<?> source : sources.all()) {
+            SourceSettings settings = source.settings();
+            AdaptiveLimiter limiter = new AdaptiveLimiter(
+                    settings.limiterInitial(),
+                    settings.limiterMin(),
+                    settings.limiterMax(),
+                    settings.limiterTarget().toNanos());
+            guards.put(source.name(), new Guard(limiter, new CircuitBreaker(failureThreshold, openDuration.toNanos())));
+        }
+    }
+
+    /**
+     * Ejecuta una búsqueda sobre una fuente respetando su circuito y su límite de concurrencia.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac)
+     * @param search Búsqueda a ejecutar; un fallo se indica lanzando una excepción
+     * @return Resultado de la búsqueda
+     * @throws SourceUnavailableException Si el circuito está abierto o no hay cupo
+     */
+    public <T> T call(String source, Supplier<T> search) {
+        Guard guard = guards.get(source);
+        Timer.Sample sample = metrics.start();
+
+        // 1. Rechazar si la fuente está caída o saturada
+        long ticket = admit(source, guard, sample);
+
+        // 2. Ejecutar y registrar el resultado
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return search.get();
+        }
+        catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        }
+        finally {
+            boolean cancelled = failure != null && (Thread.currentThread().isInterrupted() || isCancellation(failure));
+            record(source, guard, sample, ticket, System.nanoTime() - start, failure, cancelled);
+        }
+    }
+
+    /**
+     * Variante asíncrona de call(): la búsqueda ocupa cupo en la fuente hasta que
+     * se completa el future, y su resultado se registra en ese momento.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac)
+     * @param search Búsqueda a lanzar; un fallo se indica completando el future con una excepción
+     * @return Resultado de la búsqueda; se completa con SourceUnavailableException si el circuito está abierto o no hay cupo
+     */
+    public <T> CompletableFuture<T> callAsync(String source, Supplier<CompletableFuture<T>> search) {
+        Guard guard = guards.get(source);
+        Timer.Sample sample = metrics.start();
+
+        // 1. Rechazar si la fuente está caída o saturada
+        long ticket;
+        try {
+            ticket = admit(source, guard, sample);
+        }
+        catch (SourceUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 2. Lanzar la búsqueda y registrar el resultado cuando termine
+        long start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = search.get();
+        }
+        catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, e) ->
+                record(source, guard, sample, ticket, System.nanoTime() - start, e, e != null && isCancellation(e)));
+    }
+
+    /**
+     * Reserva cupo en la fuente.
+     *
+     * Sidenote: El límite de peticiones por minuto se consulta al final, cuando la
+     * búsqueda ya tiene cupo local: un token del clúster solo se gasta en una búsqueda
+     * que efectivamente llega a la fuente.
+     *
+     * @return Ticket del circuito, para registrar el resultado de la búsqueda
+     * @throws SourceUnavailableException Si el circuito está abierto, no hay cupo o se agotó el límite de peticiones
+     */
+    private long admit(String source, Guard guard, Timer.Sample sample) {
+        // 1. Rechazar de inmediato si la fuente está caída
+        long ticket = guard.breaker().tryAcquire();
+        if (ticket == CircuitBreaker.REJECTED) {
+            metrics.request(sample, source, ScrapeMetrics.REJECTED);
+            throw new SourceUnavailableException("La fuente no está disponible temporalmente. Intenta más tarde.");
+        }
+
+        // 2. Rechazar si la fuente ya tiene tantas búsquedas en curso como soporta
+        if (!guard.limiter().tryAcquire()) {
+            guard.breaker().cancel(ticket);
+            metrics.request(sample, source, ScrapeMetrics.REJECTED);
+            throw new SourceUnavailableException("La fuente está saturada. Intenta más tarde.");
+        }
+
+        // 3. Rechazar si el clúster ya agotó las peticiones por minuto de la fuente
+        if (!upstream.tryAcquire(source)) {
+            guard.limiter().release();
+            guard.breaker().cancel(ticket);
+            metrics.request(sample, source, ScrapeMetrics.REJECTED);
+            throw new SourceUnavailableException("Se alcanzó el límite de peticiones a la fuente. Intenta más tarde.");
+        }
+        return ticket;
+    }
+
+    /**
+     * Libera el cupo y registra el resultado de una búsqueda en el limitador y el circuito.
+     *
+     * @param ticket    Ticket del circuito con el que se admitió la búsqueda
+     * @param failure   Excepción de la búsqueda, o null si terminó bien
+     * @param cancelled true si la búsqueda se canceló o se interrumpió: solo se libera el cupo
+     */
+    private void record(String source, Guard guard, Timer.Sample sample, long ticket, long latencyNanos,
+                        Throwable failure, boolean cancelled) {
+        if (cancelled) {
+            metrics.request(sample, source, ScrapeMetrics.CANCELLED);
+            guard.limiter().release();
+            guard.breaker().cancel(ticket);
+            return;
+        }
+        boolean success = failure == null;
+        metrics.request(sample, source, success ? ScrapeMetrics.SUCCESS : ScrapeMetrics.ERROR);
+        guard.limiter().onComplete(latencyNanos, success);
+        if (success) {
+            guard.breaker().onSuccess(ticket);
+        }
+        else {
+            guard.breaker().onFailure(ticket);
+        }
+    }
+
+    /**
+     * @return true si la excepción (o alguna de sus causas) indica que la búsqueda se
+     *         canceló o se interrumpió, y no que la fuente falló
+     */
+    private static boolean isCancellation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // SocketTimeoutException también es InterruptedIOException, pero es un fallo de la fuente
+            if (cause instanceof CancellationException || cause instanceof InterruptedException
+                    || cause instanceof ClosedByInterruptException
+                    || (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Estado actual de cada fuente
+     */
+    public List<SourceStatus> status() {
+        List<SourceStatus> status = new ArrayList<>();
+        guards.forEach((source, guard) -> status.add(new SourceStatus(source,
+                guard.breaker().state().name(), guard.limiter().limit(), guard.limiter().inFlight())));
+        return status;
+    }
+}
@@ -0,0 +1,16 @@
+package com.scrapx.api.resilience;
+
+/**
+ * Estado de protección de una fuente externa.
+ *
+ * @param source   Nombre de la fuente
+ * @param circuit  Estado del circuit breaker (CLOSED, OPEN, HALF_OPEN)
+ * @param limit    Límite de concurrencia actual
+ * @param inFlight Búsquedas en curso
+ */
+public record SourceStatus (
+        String source,
+        String circuit,
+        int limit,
+        int inFlight
+) { }
@@ -0,0 +1,15 @@
+package com.scrapx.api.resilience;
+
+/**
+ * Indica que una búsqueda fue rechazada sin llegar a la fuente externa,
+ * ya sea porque su circuito está abierto o porque alcanzó su límite de concurrencia.
+ */
+public class SourceUnavailableException extends RuntimeException {
+
+    /**
+     * @param message Mensaje descriptivo para el cliente
+     */
+    public SourceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,196 @@
+package com.scrapx.api.scraping;
+
+import org.brotli.dec.BrotliInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpHeaders;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodificación de los bodies de las respuestas HTTP de las fuentes.
+ *
+ * Sidenote: El body se descomprime directamente desde el stream de la red, sin leerlo
+ * antes completo en un arreglo, según las codificaciones de Content-Encoding (gzip,
+ * deflate y br, en el orden inverso al que se aplicaron), y el texto se decodifica con
+ * el charset que declara Content-Type (UTF-8 si no declara ninguno o no es válido).
+ * Cuando se necesita el body completo como texto, se descomprime en un buffer propio
+ * del hilo que se reutiliza entre respuestas, en lugar de en un arreglo nuevo cada vez.
+ */
+final class BodyDecoder {
+
+    private static final Logger log = LoggerFactory.getLogger(BodyDecoder.class);
+
+    /** Codificaciones soportadas, para el encabezado Accept-Encoding de las peticiones */
+    static final String ACCEPT_ENCODING = "gzip, deflate, br";
+
+    /** Tamaño inicial del buffer de cada hilo */
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    /** Tamaño máximo del buffer que se conserva entre respuestas (los mayores se descartan) */
+    private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+
+    /** Buffer reutilizable de cada hilo para descomprimir bodies completos */
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER]);
+
+    private BodyDecoder() { }
+
+    /**
+     * Abre el body como stream descomprimido.
+     *
+     * @param headers Cabeceras de la respuesta
+     * @param body    Body tal como llega de la red; se cierra al cerrar el stream devuelto
+     * @return Stream con el contenido descomprimido
+     * @throws IOException Si la codificación no es soportada o falla la lectura de su cabecera
+     */
+    static InputStream open(HttpHeaders headers, InputStream body) throws IOException {
+        // 1. Obtener las codificaciones aplicadas, en orden (p. ej. "deflate, gzip")
+        String[] codings = headers.allValues("Content-Encoding").stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .filter(value -> !value.isEmpty() && !"identity".equals(value))
+                .toArray(String[]::new);
+
+        // 2. Deshacerlas en el orden inverso
+        InputStream input = body;
+        try {
+            for (int i = codings.length - 1; i >= 0; i--) {
+                input = decoder(codings[i], input);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+        return input;
+    }
+
+    /**
+     * Abre el body como texto, descomprimido y con el charset de la respuesta.
+     *
+     * @param headers Cabeceras de la respuesta
+     * @param body    Body tal como llega de la red; se cierra al cerrar el reader devuelto
+     * @return Reader del contenido
+     * @throws IOException Si la codificación no es soportada o falla la lectura de su cabecera
+     */
+    static Reader reader(HttpHeaders headers, InputStream body) throws IOException {
+        return new InputStreamReader(open(headers, body), charset(headers));
+    }
+
+    /**
+     * Decodifica un body recibido completo como texto.
+     *
+     * @param headers Cabeceras de la respuesta
+     * @param body    Body tal como llega de la red
+     * @return Texto del body
+     * @throws IOException Si la codificación no es soportada o el contenido está corrupto
+     */
+    static String decode(HttpHeaders headers, byte[] body) throws IOException {
+        Charset charset = charset(headers);
+        if (headers.firstValue("Content-Encoding").filter(value -> !value.isBlank()).isEmpty()) {
+            // Sin compresión: una sola copia, de los bytes al texto
+            return new String(body, charset);
+        }
+
+        // Con compresión: descomprimir en el buffer del hilo y decodificar desde ahí
+        byte[] buffer = BUFFER.get();
+        int length = 0;
+        try (InputStream input = open(headers, new ByteArrayInputStream(body))) {
+            int n;
+            while ((n = input.read(buffer, length, buffer.length - length)) >= 0) {
+                length += n;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        }
+        if (buffer.length <= MAX_RETAINED_BUFFER) {
+            BUFFER.set(buffer);
+        }
+        return new String(buffer, 0, length, charset);
+    }
+
+    /**
+     * Charset declarado en Content-Type (p. ej. "text/html; charset=ISO-8859-1").
+     *
+     * @param headers Cabeceras de la respuesta
+     * @return Charset declarado, o UTF-8 si no declara ninguno o no es soportado
+     */
+    static Charset charset(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse("");
+        for (String parameter : contentType.split(";")) {
+            int eq = parameter.indexOf('=');
+            if (eq < 0 || !"charset".equalsIgnoreCase(parameter.substring(0, eq).trim())) {
+                continue;
+            }
+            String name = parameter.substring(eq + 1).trim();
+            if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+                name = name.substring(1, name.length() - 1);
+            }
+            try {
+                return Charset.forName(name);
+            }
+            catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                log.warn("Charset no soportado en la respuesta: {}", name);
+                break;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Stream que deshace una codificación.
+     */
+    private static InputStream decoder(String coding, InputStream input) throws IOException {
+        return switch (coding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(input, 8192);
+            case "deflate" -> inflater(input);
+            case "br" -> new BrotliInputStream(input);
+            default -> throw new IOException("Content-Encoding no soportado: " + coding);
+        };
+    }
+
+    /**
+     * Stream para "deflate".
+     *
+     * Sidenote: Según la especificación, "deflate" es zlib (RFC 1950), pero algunos
+     * servidores envían el flujo deflate sin la cabecera zlib. Se revisan los dos
+     * primeros bytes para elegir el modo del Inflater.
+     */
+    private static InputStream inflater(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 8192);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+
+        boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(buffered, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                }
+                finally {
+                    // InflaterInputStream no libera un Inflater recibido por parámetro
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
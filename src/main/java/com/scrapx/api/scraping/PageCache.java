@@ -0,0 +1,122 @@
+package com.scrapx.api.scraping;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Última versión descargada de cada página: validadores HTTP, hash del contenido y filas extraídas.
+ *
+ * Sidenote: Permite no volver a descargar ni parsear una página que no cambió desde
+ * la búsqueda anterior:
+ * 1) Si la página tiene ETag o Last-Modified, la petición se envía con If-None-Match
+ *    o If-Modified-Since, y un 304 reutiliza las filas guardadas sin descargar el body
+ * 2) Si no los tiene (o el servidor los ignora), se compara el hash SHA-256 del body
+ *    con el de la versión anterior y, si es igual, se reutilizan las filas sin parsear
+ *
+ * Las páginas se guardan por URL con un máximo de entradas; al superarlo se descartan
+ * las usadas hace más tiempo (LRU). Con maxEntries 0 no se guarda ninguna página.
+ *
+ * @param <T> DTO de cada fila
+ */
+final class PageCache<T> {
+
+    /**
+     * Versión guardada de una página.
+     *
+     * @param etag         Valor de ETag de la respuesta (null si no lo tenía)
+     * @param lastModified Valor de Last-Modified de la respuesta (null si no lo tenía)
+     * @param digest       Hash SHA-256 del body descomprimido
+     * @param rows         Filas extraídas (lista inmutable)
+     */
+    record Page<T>(String etag, String lastModified, byte[] digest, List<T> rows) { }
+
+    /** Páginas en orden de acceso (la primera es la usada hace más tiempo) */
+    private final LinkedHashMap<String, Page<T>> pages;
+
+    private final int maxEntries;
+
+    /**
+     * @param maxEntries Número máximo de páginas guardadas (0 = deshabilitado)
+     */
+    PageCache(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page<T>> eldest) {
+                return size() > PageCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return true si se guardan las páginas
+     */
+    boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * @param url URL de la página
+     * @return Versión guardada de la página, o null si no hay ninguna
+     */
+    synchronized Page<T> get(String url) {
+        return pages.get(url);
+    }
+
+    /**
+     * Guarda la versión descargada de una página.
+     *
+     * @param url  URL de la página
+     * @param page Validadores, hash y filas de la página
+     */
+    synchronized void put(String url, Page<T> page) {
+        if (enabled()) {
+            pages.put(url, new Page<>(page.etag(), page.lastModified(), page.digest(), List.copyOf(page.rows())));
+        }
+    }
+
+    /**
+     * Agrega a la petición los encabezados condicionales de la versión guardada.
+     *
+     * @param page   Versión guardada de la página (puede ser null)
+     * @param header Función que agrega un encabezado a la petición
+     */
+    static void conditionalHeaders(Page<?> page, BiConsumer<String, String> header) {
+        if (page == null) {
+            return;
+        }
+        if (page.etag() != null) {
+            header.accept("If-None-Match", page.etag());
+        }
+        if (page.lastModified() != null) {
+            header.accept("If-Modified-Since", page.lastModified());
+        }
+    }
+
+    /**
+     * @param page   Versión guardada de la página (puede ser null)
+     * @param digest Hash del body recién descargado
+     * @return true si el body es idéntico al de la versión guardada
+     */
+    static boolean unchanged(Page<?> page, byte[] digest) {
+        return page != null && MessageDigest.isEqual(page.digest(), digest);
+    }
+
+    /**
+     * @param body Body descomprimido
+     * @return Hash SHA-256 del body
+     */
+    static byte[] digest(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        }
+        catch (NoSuchAlgorithmException e) {
+            // Todas las JVM deben implementar SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
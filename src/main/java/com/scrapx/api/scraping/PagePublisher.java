@@ -0,0 +1,249 @@
+package com.scrapx.api.scraping;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Publisher de los resultados de una fuente paginada, que pide cada página solo
+ * cuando la demanda del suscriptor la necesita.
+ *
+ * Sidenote: Cada suscripción hace su propio recorrido de las páginas:
+ * 1) El suscriptor pide n resultados (request)
+ * 2) Se piden en paralelo las páginas necesarias para cubrir esa demanda, como máximo
+ *    pageWindow a la vez, y se emiten en el orden de las páginas
+ * 3) El recorrido termina con la primera página vacía, al alcanzar limit resultados
+ *    o cuando el suscriptor cancela; las páginas en vuelo se cancelan
+ *
+ * Así, en memoria solo hay la página en curso y las páginas en vuelo, sin importar
+ * cuántos resultados tenga la búsqueda. Las emisiones se serializan con un contador
+ * de trabajo pendiente (wip): el hilo que lo incrementa desde 0 emite por todos.
+ *
+ * @param <T> DTO de cada resultado
+ */
+final class PagePublisher<T> implements Flow.Publisher<T> {
+
+    /**
+     * Descarga de una página.
+     */
+    @FunctionalInterface
+    interface PageFetcher<T> {
+        /**
+         * @param page Número de página (desde 0)
+         * @return Filas de la página; vacía si ya no hay más resultados
+         * @throws Exception Si falla la descarga
+         */
+        List<T> fetch(int page) throws Exception;
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final int pageSize;
+    private final int pageWindow;
+    private final long limit;
+    private final ExecutorService executor;
+
+    /** Recibe el número de páginas descargadas al terminar cada recorrido */
+    private final IntConsumer onPages;
+
+    /**
+     * @param fetcher    Descarga de cada página
+     * @param pageSize   Filas esperadas por página (para calcular las páginas necesarias)
+     * @param pageWindow Páginas pedidas en paralelo como máximo
+     * @param limit      Resultados máximos a emitir (Long.MAX_VALUE = sin límite)
+     * @param executor   Executor donde se descargan las páginas
+     * @param onPages    Recibe el número de páginas descargadas al terminar
+     */
+    PagePublisher(PageFetcher<T> fetcher, int pageSize, int pageWindow, long limit,
+                  ExecutorService executor, IntConsumer onPages) {
+        this.fetcher = fetcher;
+        this.pageSize = Math.max(1, pageSize);
+        this.pageWindow = Math.max(1, pageWindow);
+        this.limit = limit <= 0 ? Long.MAX_VALUE : limit;
+        this.executor = executor;
+        this.onPages = onPages;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        PageSubscription subscription = new PageSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Recorrido de las páginas para un suscriptor.
+     */
+    private final class PageSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+
+        /** Resultados pedidos y aún no emitidos */
+        private final AtomicLong requested = new AtomicLong();
+
+        /** Trabajo pendiente del bucle de emisión */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        // Estado del recorrido: solo se accede desde drain()
+        private final Deque<CompletableFuture<List<T>>> window = new ArrayDeque<>();
+        private List<T> current;
+        private int position;
+        private int nextPage;
+        private int pages;
+        private long emitted;
+        private boolean finished;
+
+        private PageSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("La demanda debe ser positiva: " + n);
+            }
+            else {
+                requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Emite los resultados disponibles y pide las páginas que cubren la demanda.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!finished) {
+                    // 1. Terminar si el suscriptor canceló o pidió una demanda inválida
+                    if (cancelled) {
+                        finish(null, false);
+                        break;
+                    }
+                    if (invalidRequest != null) {
+                        finish(invalidRequest, true);
+                        break;
+                    }
+
+                    // 2. Emitir de la página en curso mientras haya demanda
+                    if (current != null && position < current.size()) {
+                        if (requested.get() == 0) {
+                            break;
+                        }
+                        T row = current.get(position++);
+                        if (requested.get() != Long.MAX_VALUE) {
+                            requested.decrementAndGet();
+                        }
+                        emitted++;
+                        subscriber.onNext(row);
+                        if (emitted >= limit) {
+                            finish(null, true);
+                        }
+                        continue;
+                    }
+                    current = null;
+
+                    // 3. Pedir las páginas necesarias y tomar la siguiente, si ya llegó
+                    fill();
+                    CompletableFuture<List<T>> head = window.peekFirst();
+                    if (head == null) {
+                        if (!canFetch()) {
+                            finish(null, true);
+                        }
+                        break;
+                    }
+                    if (!head.isDone()) {
+                        // Al completarse, la página vuelve a llamar a drain()
+                        break;
+                    }
+                    window.pollFirst();
+                    pages++;
+                    List<T> page;
+                    try {
+                        page = head.join();
+                    }
+                    catch (CompletionException e) {
+                        finish(e.getCause() != null ? e.getCause() : e, true);
+                        break;
+                    }
+                    if (page.isEmpty()) {
+                        // No hay más resultados: las páginas posteriores se descartan
+                        finish(null, true);
+                        break;
+                    }
+                    current = page;
+                    position = 0;
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        /**
+         * Pide páginas hasta cubrir la demanda pendiente, con pageWindow páginas en vuelo como máximo.
+         */
+        private void fill() {
+            long wanted = Math.min(requested.get(), limit - emitted);
+            long covered = (long) window.size() * pageSize + (current == null ? 0 : current.size() - position);
+            while (canFetch() && window.size() < pageWindow && covered < wanted) {
+                int page = nextPage++;
+                CompletableFuture<List<T>> future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return fetcher.fetch(page);
+                    }
+                    catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+                window.addLast(future);
+                future.whenComplete((rows, e) -> drain());
+                covered += pageSize;
+            }
+        }
+
+        /**
+         * @return true si las páginas pedidas aún no cubren limit resultados
+         */
+        private boolean canFetch() {
+            return (long) nextPage * pageSize < limit;
+        }
+
+        /**
+         * Termina el recorrido: cancela las páginas en vuelo y avisa al suscriptor.
+         *
+         * @param error  Error del recorrido (null si terminó bien)
+         * @param signal false si el suscriptor canceló y no debe recibir más señales
+         */
+        private void finish(Throwable error, boolean signal) {
+            finished = true;
+            window.forEach(page -> page.cancel(true));
+            window.clear();
+            current = null;
+            onPages.accept(pages);
+            if (!signal) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            }
+            else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.scrapx.api.scraping;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Esquema declarativo para mapear una fila de tabla HTML (tr) a un DTO.
+ *
+ * Sidenote: Cada campo del DTO se declara como una celda de la fila, identificada
+ * por un selector CSS (p. ej. "td.jurisdiction") o por su posición, y opcionalmente
+ * un selector del elemento dentro de la celda que contiene el dato. Los selectores
+ * se compilan una sola vez al construir el esquema, y la fila se recorre una sola vez:
+ * 1) Se recorren las celdas hijas de la fila en orden
+ * 2) Cada celda se asigna a los campos pendientes que coinciden con ella
+ * 3) Los valores obtenidos se pasan al constructor del DTO
+ *
+ * Los campos de baja cardinalidad (p. ej. jurisdicción o programa) se declaran con
+ * shared(): sus valores pasan por un StringDictionary propio del campo, para que
+ * las filas compartan una sola instancia de cada texto repetido.
+ *
+ * Los selectores no deben tener combinadores (espacio, ">", "+", "~") ni
+ * :has/:not/:is; la relación entre la celda y su contenido la define el esquema.
+ * Así se evalúan con Evaluator.matches() sin la memoización por raíz que Jsoup
+ * usa en los selectores estructurales, y que solo se limpia dentro de select().
+ *
+ * @param <T> DTO de cada fila
+ */
+final class RowSchema<T> {
+
+    /**
+     * Campo del DTO ya compilado.
+     *
+     * @param cell     Evaluador de la celda (null si el campo es posicional)
+     * @param position Posición de la celda entre las celdas de la fila (-1 si no es posicional)
+     * @param inner    Evaluador del elemento dentro de la celda (null para usar la celda)
+     * @param attr     Atributo a leer (null para leer el texto)
+     * @param values   Diccionario de valores del campo (null si no es de baja cardinalidad)
+     */
+    private record Field(Evaluator cell, int position, Evaluator inner, String attr, StringDictionary values) { }
+
+    /** Valores distintos máximos por campo de baja cardinalidad */
+    private static final int MAX_SHARED_VALUES = 4096;
+
+    private final Field[] fields;
+    private final Function<String[], T> mapper;
+
+    /** Número mínimo de celdas que debe tener la fila (según el campo posicional más alto) */
+    private final int requiredCells;
+
+    private RowSchema(List<Field> fields, Function<String[], T> mapper) {
+        this.fields = fields.toArray(new Field[0]);
+        this.mapper = mapper;
+        this.requiredCells = fields.stream().mapToInt(Field::position).max().orElse(-1) + 1;
+    }
+
+    /**
+     * @return Builder de un esquema vacío
+     */
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Extrae el DTO de una fila.
+     *
+     * Sidenote: Un campo por selector que no encuentra su celda queda como ""
+     * (igual que Elements.text() sobre una selección vacía). Si la fila tiene menos
+     * celdas que las que exige un campo posicional, la fila no corresponde al esquema
+     * (p. ej. la fila de encabezados) y se devuelve null.
+     *
+     * @param row Fila de la tabla
+     * @return DTO de la fila, o null si la fila no corresponde al esquema
+     */
+    T extract(Element row) {
+        String[] values = new String[fields.length];
+        int pending = fields.length;
+        int position = 0;
+
+        // 1. Recorrer las celdas de la fila una sola vez
+        for (Element cell = row.firstElementChild(); cell != null && pending > 0; cell = cell.nextElementSibling()) {
+            if (!cell.nameIs("td")) {
+                continue;
+            }
+
+            // 2. Asignar la celda a los campos pendientes que coinciden con ella
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != null) {
+                    continue;
+                }
+                Field field = fields[i];
+                boolean matches = field.position() >= 0
+                        ? field.position() == position
+                        : field.cell().matches(row, cell);
+                if (!matches) {
+                    continue;
+                }
+
+                Element source = field.inner() == null ? cell : cell.selectFirst(field.inner());
+                if (source != null) {
+                    String value = field.attr() == null ? source.text() : source.attr(field.attr());
+                    values[i] = field.values() == null ? value : field.values().intern(value);
+                    pending--;
+                }
+            }
+            position++;
+        }
+
+        // 3. Validar las celdas posicionales y completar los campos no encontrados
+        if (position < requiredCells && pending > 0) {
+            return null;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                values[i] = "";
+            }
+        }
+        return mapper.apply(values);
+    }
+
+    /**
+     * Builder del esquema; los campos se declaran en el orden del constructor del DTO.
+     */
+    static final class Builder<T> {
+        private final List<Field> fields = new ArrayList<>();
+
+        private Builder() { }
+
+        /**
+         * Campo con el texto de la celda que coincide con el selector.
+         */
+        Builder<T> text(String cellQuery) {
+            return add(compile(cellQuery), -1, null, null);
+        }
+
+        /**
+         * Campo con el texto del primer elemento que coincide con innerQuery dentro de la celda.
+         */
+        Builder<T> text(String cellQuery, String innerQuery) {
+            return add(compile(cellQuery), -1, compile(innerQuery), null);
+        }
+
+        /**
+         * Campo con un atributo del primer elemento que coincide con innerQuery dentro de la celda.
+         */
+        Builder<T> attr(String cellQuery, String innerQuery, String attr) {
+            return add(compile(cellQuery), -1, compile(innerQuery), attr);
+        }
+
+        /**
+         * Campo con el texto de la celda en la posición dada (0 = primera celda).
+         */
+        Builder<T> cell(int position) {
+            if (position < 0) {
+                throw new IllegalArgumentException("Posición de celda inválida: " + position);
+            }
+            return add(null, position, null, null);
+        }
+
+        /**
+         * Marca el último campo declarado como de baja cardinalidad: sus valores se
+         * comparten entre filas a través de un diccionario.
+         */
+        Builder<T> shared() {
+            if (fields.isEmpty()) {
+                throw new IllegalStateException("No hay un campo que marcar como compartido");
+            }
+            Field last = fields.remove(fields.size() - 1);
+            fields.add(new Field(last.cell(), last.position(), last.inner(), last.attr(),
+                    new StringDictionary(MAX_SHARED_VALUES)));
+            return this;
+        }
+
+        /**
+         * Compila el esquema.
+         *
+         * @param mapper Constructor del DTO a partir de los valores, en el orden declarado
+         * @return Esquema listo para usar (inmutable y seguro entre hilos)
+         */
+        RowSchema<T> build(Function<String[], T> mapper) {
+            return new RowSchema<>(List.copyOf(fields), mapper);
+        }
+
+        private Builder<T> add(Evaluator cell, int position, Evaluator inner, String attr) {
+            fields.add(new Field(cell, position, inner, attr, null));
+            return this;
+        }
+
+        /**
+         * Compila un selector simple (tag, clases, id, atributos).
+         */
+        private static Evaluator compile(String query) {
+            if (query.trim().matches(".*([\\s>+~]|:(has|not|is)\\().*")) {
+                throw new IllegalArgumentException("El selector no debe tener combinadores: " + query);
+            }
+            return QueryParser.parse(query);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.scrapx.api.scraping;
+
+/**
+ * Indica que una búsqueda no pudo completarse porque la fuente externa
+ * no respondió correctamente (error de conexión, página inesperada, etc.).
+ *
+ * Sidenote: Permite distinguir una fuente caída de una búsqueda sin resultados,
+ * que en ambos casos devuelven una lista vacía en los métodos de WebScraper.
+ */
+public class ScrapingException extends RuntimeException {
+
+    /**
+     * @param source Nombre de la fuente que falló
+     */
+    public ScrapingException(String source) {
+        super("No se pudo completar el scraping de " + source);
+    }
+}
@@ -0,0 +1,52 @@
+package com.scrapx.api.scraping;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de valores para los campos de baja cardinalidad de las filas
+ * (jurisdicción, país, fuente, tipo, programa, lista, score).
+ *
+ * Sidenote: Una búsqueda amplia devuelve miles de filas que repiten los mismos
+ * pocos valores en esos campos. Al extraer cada fila, el valor se reemplaza por
+ * la instancia ya registrada, de modo que los resultados que quedan en la caché
+ * y el índice comparten una sola copia de cada texto. El diccionario tiene un
+ * tamaño máximo: si un campo resulta tener más valores distintos de lo esperado,
+ * los nuevos se devuelven tal cual, sin crecer sin límite (a diferencia de String.intern()).
+ */
+final class StringDictionary {
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    /** Número máximo de valores distintos registrados */
+    private final int maxSize;
+
+    StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param value Valor extraído
+     * @return Instancia compartida del valor (o el mismo valor si el diccionario está lleno)
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (values.size() >= maxSize) {
+            return value;
+        }
+        shared = values.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * @return Número de valores distintos registrados
+     */
+    int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,335 @@
+package com.scrapx.api.scraping;
+
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool acotado de sesiones de Chrome headless para el scraping de WorldBank.
+ *
+ * Sidenote: Arrancar un ChromeDriver tarda más que la búsqueda en sí, por lo que
+ * las sesiones se reutilizan entre peticiones con semántica borrow/release:
+ * 1) borrow() entrega una sesión sana (o crea una si hay cupo)
+ * 2) release() la devuelve al pool, o la cierra si falló o ya alcanzó su máximo de usos
+ *
+ * El número total de sesiones abiertas (prestadas + libres) nunca supera maxSize.
+ * Al detener la aplicación se cierran las sesiones libres, y las prestadas se
+ * cierran al devolverse en lugar de volver al pool.
+ *
+ * Cada navegador arranca con un perfil liviano, ya que de la página solo interesan
+ * los datos de la grilla: sin GPU, extensiones ni servicios en segundo plano, y con
+ * las imágenes, fuentes, hojas de estilo y scripts de analítica bloqueados por CDP
+ * (Network.setBlockedURLs, scrapx.worldbank.browser.blocked-urls). Al devolver una
+ * sesión se borran sus cookies y el almacenamiento del sitio y se navega a about:blank,
+ * de modo que cada préstamo empieza aislado del anterior (se conserva la caché HTTP)
+ * y la sesión libre no retiene el DOM de la última búsqueda.
+ *
+ * Sidenote: Las sesiones no comparten un solo proceso de Chrome con un contexto por
+ * petición: en WebDriver la ventana activa es única por sesión, por lo que dos hilos
+ * no pueden usar a la vez dos contextos del mismo navegador.
+ */
+@Component
+public class WebDriverPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+
+    /** Número de usos tras el cual una sesión se recicla */
+    private final int maxUses;
+
+    /** Tiempo máximo de espera para obtener una sesión */
+    private final Duration borrowTimeout;
+
+    /** Sesiones libres, la más reciente primero (su caché de página está más caliente) */
+    private final LinkedBlockingDeque<Session> idle = new LinkedBlockingDeque<>();
+
+    /** Cupos de sesión disponibles */
+    private final Semaphore permits;
+
+    /** Patrones de URL que el navegador no descarga (comodín "*") */
+    private final List<String> blockedUrls;
+
+    /** true tras shutdown(): las sesiones devueltas se cierran */
+    private volatile boolean closed;
+
+    /**
+     * Sesión de Chrome gestionada por el pool.
+     */
+    public static final class Session {
+        private final WebDriver driver;
+        private int uses;
+
+        private Session(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        /**
+         * @return WebDriver de la sesión
+         */
+        public WebDriver driver() {
+            return driver;
+        }
+    }
+
+    /**
+     * Constructor con la configuración del pool.
+     *
+     * @param maxSize       Número máximo de sesiones abiertas
+     * @param maxUses       Usos tras los cuales una sesión se recicla
+     * @param borrowTimeout Tiempo máximo de espera para obtener una sesión
+     * @param warmup        Sesiones a arrancar al iniciar la aplicación
+     * @param blockedUrls   Patrones de URL que el navegador no descarga (vacío para no bloquear)
+     */
+    public WebDriverPool(@Value("${scrapx.worldbank.pool.max-size:4}") int maxSize,
+                         @Value("${scrapx.worldbank.pool.max-uses:50}") int maxUses,
+                         @Value("${scrapx.worldbank.pool.borrow-timeout:30s}") Duration borrowTimeout,
+                         @Value("${scrapx.worldbank.pool.warmup:0}") int warmup,
+                         @Value("${scrapx.worldbank.browser.blocked-urls:}") String[] blockedUrls) {
+        this.maxUses = maxUses;
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxSize, true);
+        this.blockedUrls = List.of(blockedUrls);
+        warmUp(Math.min(warmup, maxSize));
+    }
+
+    /**
+     * Obtiene una sesión sana del pool, creando una nueva si no hay libres.
+     *
+     * @return Sesión lista para usar; debe devolverse con release()
+     * @throws TimeoutException     Si no hay cupo dentro de borrowTimeout
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera
+     */
+    public Session borrow() throws TimeoutException, InterruptedException {
+        if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No hay sesiones de Chrome disponibles");
+        }
+        try {
+            // 1. Reutilizar una sesión libre, descartando las que no pasen el health check
+            Session session;
+            while ((session = idle.pollFirst()) != null) {
+                if (isHealthy(session)) {
+                    return session;
+                }
+                quit(session);
+            }
+
+            // 2. No hay sesiones libres: arrancar una nueva
+            return new Session(createDriver());
+        }
+        catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una sesión al pool.
+     *
+     * @param session Sesión obtenida con borrow()
+     * @param broken  true si la sesión falló y no debe reutilizarse
+     */
+    public void release(Session session, boolean broken) {
+        try {
+            session.uses++;
+            if (closed || broken || session.uses >= maxUses || !reset(session)) {
+                quit(session);
+            }
+            else {
+                offer(session, true);
+            }
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Cierra todas las sesiones libres al detener la aplicación; las prestadas se
+     * cierran cuando se devuelven.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        Session session;
+        while ((session = idle.pollFirst()) != null) {
+            quit(session);
+        }
+    }
+
+    /**
+     * Crea un nuevo ChromeDriver headless con las flags recomendadas para contenedores
+     * y el perfil liviano (sin GPU, extensiones ni recursos innecesarios).
+     *
+     * @return WebDriver iniciado
+     */
+    private WebDriver createDriver() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless");
+
+        // Flags recomendadas para contenedores
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+
+        // Perfil liviano: sin GPU, extensiones, servicios en segundo plano ni imágenes
+        options.addArguments("--disable-gpu");
+        options.addArguments("--disable-extensions");
+        options.addArguments("--disable-background-networking");
+        options.addArguments("--disable-component-update");
+        options.addArguments("--disable-default-apps");
+        options.addArguments("--disable-sync");
+        options.addArguments("--no-first-run");
+        options.addArguments("--mute-audio");
+        options.addArguments("--blink-settings=imagesEnabled=false");
+
+        // driver.get() vuelve al terminar el DOM; la grilla se espera con un script en WebScraper
+        options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+
+        // Ruta de chromium-browser en el contenedor desplegado
+        // Para correr de forma local, comentar esta línea
+        //options.setBinary("/usr/bin/chromium-browser");
+
+        ChromeDriver driver = new ChromeDriver(options);
+        try {
+            // Bloquear los recursos que no aportan a la grilla (se mantiene en cada navegación)
+            if (!blockedUrls.isEmpty()) {
+                driver.executeCdpCommand("Network.enable", Map.of());
+                driver.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockedUrls));
+            }
+        }
+        catch (RuntimeException e) {
+            driver.quit();
+            throw e;
+        }
+        return driver;
+    }
+
+    /**
+     * Deja una sesión lista para el siguiente préstamo: borra cookies y almacenamiento
+     * del sitio visitado y descarga la página.
+     *
+     * @param session Sesión devuelta sin errores
+     * @return true si la sesión quedó limpia y puede reutilizarse
+     */
+    private boolean reset(Session session) {
+        try {
+            HasCdp cdp = (HasCdp) session.driver;
+
+            // 1. Borrar el almacenamiento del sitio (localStorage, IndexedDB, service workers, ...)
+            URI current = URI.create(session.driver.getCurrentUrl());
+            if ("http".equals(current.getScheme()) || "https".equals(current.getScheme())) {
+                String origin = current.getScheme() + "://" + current.getRawAuthority();
+                cdp.executeCdpCommand("Storage.clearDataForOrigin",
+                        Map.of("origin", origin, "storageTypes", "all"));
+            }
+
+            // 2. Borrar las cookies de todos los sitios
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+
+            // 3. Descargar la página para no retener su DOM mientras la sesión está libre
+            session.driver.get("about:blank");
+            return true;
+        }
+        catch (RuntimeException e) {
+            log.warn("Error al limpiar la sesión de Chrome: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Verifica que el navegador de la sesión siga respondiendo.
+     *
+     * @param session Sesión a verificar
+     * @return true si la sesión puede reutilizarse
+     */
+    private boolean isHealthy(Session session) {
+        try {
+            session.driver.getWindowHandle();
+            return true;
+        }
+        catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deja una sesión libre en el pool, o la cierra si el pool ya se detuvo.
+     *
+     * Sidenote: closed se vuelve a revisar después de agregar la sesión, ya que
+     * shutdown() puede haber vaciado el pool entre la primera revisión y la inserción.
+     *
+     * @param session Sesión sana y limpia
+     * @param first   true para dejarla primera (la más reciente), false para dejarla última
+     */
+    private void offer(Session session, boolean first) {
+        if (first) {
+            idle.offerFirst(session);
+        }
+        else {
+            idle.offerLast(session);
+        }
+        if (closed && idle.remove(session)) {
+            quit(session);
+        }
+    }
+
+    /**
+     * Cierra el navegador de una sesión ignorando errores (p. ej. si ya se cayó).
+     *
+     * @param session Sesión a cerrar
+     */
+    private void quit(Session session) {
+        try {
+            session.driver.quit();
+        }
+        catch (RuntimeException e) {
+            log.warn("Error al cerrar la sesión de Chrome: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Arranca en segundo plano las sesiones iniciales del pool.
+     *
+     * Sidenote: Por defecto no se arranca ninguna, ya que en el contenedor desplegado
+     * no es posible ejecutar Chromium y WorldBank está deshabilitado.
+     *
+     * @param count Número de sesiones a arrancar
+     */
+    private void warmUp(int count) {
+        if (count <= 0) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    permits.acquire();
+                    try {
+                        offer(new Session(createDriver()), false);
+                    }
+                    finally {
+                        permits.release();
+                    }
+                }
+            }
+            catch (Exception e) {
+                log.warn("Error al precalentar el pool de Chrome: {}", e.getMessage());
+            }
+        }, "scrapx-webdriver-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
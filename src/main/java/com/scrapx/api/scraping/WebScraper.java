@@ -3,39 +3,59 @@ package com.scrapx.api.scraping;
 import com.scrapx.api.dto.OFACResults;
 import com.scrapx.api.dto.OffShoreResult;
 import com.scrapx.api.dto.WorldBankResult;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-import org.openqa.selenium.By;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeDriverService;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Sleeper;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPInputStream;
 
 /**
  * Componente central de web scraping con funcionalidad implementada para
@@ -51,30 +71,248 @@ import java.util.zip.GZIPInputStream;
 @Component
 public class WebScraper {
 
+    private static final Logger log = LoggerFactory.getLogger(WebScraper.class);
+
     /** URL base para la página OffShore */
-    private final String baseURLOffShore = "https://offshoreleaks.icij.org/";
+    private final String baseURLOffShore;
     
     /** URL base para la página WorldBank */
     private final String baseURLWorldBank = "https://projects.worldbank.org/en/projects-operations/procurement/debarred-firms";
+
+    /** Tiempo máximo de espera de cada script asíncrono en la página WorldBank */
+    private static final Duration WORLDBANK_SCRIPT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Script asíncrono que termina cuando la grilla de firmas mostró sus datos iniciales.
+     *
+     * Sidenote: No se consulta la página en intervalos: si aún no hay filas, se escucha
+     * el evento dataBound de la grilla Kendo en cuanto existe, y mientras tanto un
+     * MutationObserver vuelve a revisar la página en cada cambio del DOM.
+     */
+    private static final String WORLDBANK_READY_SCRIPT = """
+            var done = arguments[arguments.length - 1];
+            var finished = false;
+            var observer = new MutationObserver(check);
+            function finish() {
+                if (!finished) { finished = true; observer.disconnect(); done(true); }
+            }
+            function check() {
+                if (document.querySelector('#k-debarred-firms .k-grid-content tr')) { finish(); return; }
+                var el = document.getElementById('k-debarred-firms');
+                var grid = el && window.jQuery ? window.jQuery(el).data('kendoGrid') : null;
+                if (grid && !grid.scrapxReady) { grid.scrapxReady = true; grid.one('dataBound', finish); }
+            }
+            observer.observe(document.documentElement, { childList: true, subtree: true });
+            check();
+            """;
+
+    /**
+     * Script asíncrono que escribe el filtro y termina cuando la grilla muestra el resultado.
+     *
+     * Sidenote: El listener del siguiente dataBound se registra antes de escribir, por lo que
+     * no depende de que cambie el número de filas (un filtro con tantas filas como la lista
+     * inicial también termina). El texto se escribe de una sola vez y se notifica con un
+     * único input/keyup/change, así el primer dataBound ya corresponde al texto completo
+     * y no a una parte (como con sendKeys, que dispara un evento por carácter).
+     * Si la página ya no usa Kendo, se espera el siguiente cambio de las filas.
+     */
+    private static final String WORLDBANK_FILTER_SCRIPT = """
+            var text = arguments[0];
+            var done = arguments[arguments.length - 1];
+            var finished = false;
+            var observer = null;
+            function finish() {
+                if (!finished) { finished = true; if (observer) observer.disconnect(); done(true); }
+            }
+            var el = document.getElementById('k-debarred-firms');
+            var grid = el && window.jQuery ? window.jQuery(el).data('kendoGrid') : null;
+            if (grid) {
+                grid.one('dataBound', finish);
+            }
+            else {
+                observer = new MutationObserver(finish);
+                observer.observe(document.querySelector('#k-debarred-firms .k-grid-content'), { childList: true, subtree: true });
+            }
+            var input = document.getElementById('category');
+            input.value = text;
+            ['input', 'keyup', 'change'].forEach(function (type) {
+                input.dispatchEvent(new Event(type, { bubbles: true }));
+            });
+            """;
+
+    /** Script que devuelve el texto de todas las celdas de la grilla (una lista por fila) */
+    private static final String WORLDBANK_ROWS_SCRIPT = """
+            var rows = document.querySelectorAll('#k-debarred-firms .k-grid-content tr');
+            return Array.prototype.map.call(rows, function (tr) {
+                return Array.prototype.map.call(tr.cells, function (td) { return td.innerText.trim(); });
+            });
+            """;
     
     /** URL base para la página OFAC */
-    private final String baseOFACURL = "https://sanctionssearch.ofac.treas.gov/Default.aspx";
+    private final String baseOFACURL;
     
     /** User-Agent para peticiones HTTP (usado en la página OFAC) */
     private final String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/121.0.0.0 Safari/537.36";
 
+    /** Filas de resultados de OffShore (selector compilado una sola vez) */
+    private static final Evaluator OFFSHORE_ROWS = QueryParser.parse("tbody tr");
+
+    /**
+     * Esquema de una fila de OffShore.
+     *
+     * Sidenote: Para seleccionar correctamente cada dato, se inspeccionó el HTML
+     * de la página y se obtuvo el tag y las clases que contienen a cada dato:
+     * 1) Nombre: tag <a> y clase "font-weight-bold" dentro de un <td>
+     * 2) Jurisdicción: tag <td> y clase "jurisdiction"
+     * 3) Vínculo: tag <td> y clase "country"
+     * 4) Fuente de data: tag <td> y clase "source", tag <a> y atributo "title"
+     *
+     * Jurisdicción, vínculo y fuente se repiten en miles de filas, por lo que se comparten.
+     */
+    private static final RowSchema<OffShoreResult> OFFSHORE_ROW = RowSchema.<OffShoreResult>builder()
+            .text("td", "a.font-weight-bold")
+            .text("td.jurisdiction").shared()
+            .text("td.country").shared()
+            .attr("td.source", "a", "title").shared()
+            .build(v -> new OffShoreResult(v[0], v[1], v[2], v[3]));
+
+    /**
+     * Filas de gvSearchResults, la propia tabla (que se selecciona al cerrarse) y el
+     * __VIEWSTATE del form, presente en toda respuesta válida del POST aunque no haya resultados
+     */
+    private static final Evaluator OFAC_ROWS = QueryParser.parse("input#__VIEWSTATE, #gvSearchResults tr, table#gvSearchResults");
+
+    /**
+     * Esquema de una fila de OFAC: name, address, type, program, list y score por posición
+     * (type, program, list y score tienen pocos valores distintos y se comparten)
+     */
+    private static final RowSchema<OFACResults> OFAC_ROW = RowSchema.<OFACResults>builder()
+            .cell(0).cell(1).cell(2).shared().cell(3).shared().cell(4).shared().cell(5).shared()
+            .build(v -> new OFACResults(v[0], v[1], v[2], v[3], v[4], v[5]));
+
+    /** Pool de sesiones de Chrome (usado en la página WorldBank) */
+    private final WebDriverPool driverPool;
+
+    /** Copia en memoria de la lista de firmas (usada en la página WorldBank) */
+    private final WorldBankFeed worldBankFeed;
+
+    /**
+     * Cliente HTTP compartido, mantiene conexiones y cookies de sesión (usado en la página OFAC).
+     * Las respuestas de las peticiones asíncronas se procesan en el executor compartido.
+     */
+    private final HttpClient ofacClient;
+
+    /**
+     * Inputs del form ASP.NET (__VIEWSTATE, __EVENTVALIDATION, etc.) obtenidos en el GET inicial.
+     *
+     * @param inputs    Inputs del form (inmutable)
+     * @param postURL   URL destino del form
+     * @param expiresAt Instante (System.nanoTime) a partir del cual se debe renovar
+     */
+    private record OFACFormState(Map<String, String> inputs, String postURL, long expiresAt) { }
+
+    /** Estado del form cacheado entre búsquedas (usado en la página OFAC) */
+    private volatile OFACFormState ofacForm;
+    private final Object ofacFormLock = new Object();
+
+    /** GET de renovación del form en curso, compartido por las búsquedas que lo esperan (protegido por ofacFormLock) */
+    private CompletableFuture<OFACFormState> ofacFormRenewal;
+
+    /** Nombres de los inputs del form de OFAC que se sobreescriben en cada búsqueda */
+    private static final String OFAC_INPUT_NAME = "ctl00$MainContent$txtLastName";
+    private static final String OFAC_INPUT_TYPE = "ctl00$MainContent$ddlType";
+    private static final String OFAC_INPUT_SCORE = "ctl00$MainContent$Slider1";
+    private static final String OFAC_INPUT_SLIDER_BOUND = "ctl00$MainContent$Slider1_Boundcontrol";
+    private static final String OFAC_INPUT_SEARCH = "ctl00$MainContent$btnSearch";
+
+    /** Tiempo de vida del estado del form cacheado */
+    private final Duration ofacSessionTtl;
+
+    /** Executor para descargar varios bloques de resultados a la vez (usado en la página OffShore) */
+    private final ExecutorService executor;
+
+    /** Número de bloques de OffShore pedidos en paralelo cuando no se indica otro */
+    private static final int OFFSHORE_PAGE_WINDOW = 4;
+
+    /** Última versión de cada bloque de OffShore, para no parsear de nuevo los que no cambiaron */
+    private final PageCache<OffShoreResult> offShorePages;
+
+    /** Métricas de cada etapa del scraping */
+    private final ScrapeMetrics metrics;
+
+    /**
+     * Constructor que inyecta los recursos compartidos entre búsquedas.
+     *
+     * @param driverPool         Pool de sesiones de Chrome para WorldBank
+     * @param worldBankFeed      Copia en memoria de la lista de firmas de WorldBank
+     * @param executor           Executor para las descargas en paralelo
+     * @param ofacSessionTtl     Tiempo de vida del estado del form de OFAC
+     * @param ofacURL            URL de la página de búsqueda de OFAC
+     * @param offShoreURL        URL base de OffShore Leaks (terminada en "/")
+     * @param pageCacheSize      Bloques de OffShore guardados para detectar cambios (0 = sin caché)
+     * @param metrics            Métricas de cada etapa del scraping
+     */
+    public WebScraper(WebDriverPool driverPool,
+                      WorldBankFeed worldBankFeed,
+                      ExecutorService executor,
+                      @Value("${scrapx.ofac.session-ttl:15m}") Duration ofacSessionTtl,
+                      @Value("${scrapx.ofac.url:https://sanctionssearch.ofac.treas.gov/Default.aspx}") String ofacURL,
+                      @Value("${scrapx.offshore.url:https://offshoreleaks.icij.org/}") String offShoreURL,
+                      @Value("${scrapx.changes.page-cache:2000}") int pageCacheSize,
+                      ScrapeMetrics metrics) {
+        this.driverPool = driverPool;
+        this.worldBankFeed = worldBankFeed;
+        this.executor = executor;
+        this.ofacSessionTtl = ofacSessionTtl;
+        this.baseOFACURL = ofacURL;
+        this.baseURLOffShore = offShoreURL;
+        this.offShorePages = new PageCache<>(pageCacheSize);
+        this.metrics = metrics;
+        this.ofacClient = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
     /**
      * Scrapea resultados de OffShore Leaks para una entidad dada.
      * 
      * Sidenote: La página renderiza resultados en una tabla con paginación
      * indicada en el parámetro "from". Cada bloque suele retornar 100 filas.
+     * Los bloques se piden en una ventana deslizante de OFFSHORE_PAGE_WINDOW
+     * peticiones en vuelo, y los resultados se unen en el orden de las páginas.
      * @param entity Nombre de la entidad a buscar
      * @return Lista de resultados con atributos: entityName, jurisdiction, linkedTo, dataFrom
      */
     public List<OffShoreResult> searchOffShore(final String entity) {
-        System.out.println("======= Scraping: OffShore Leaks =======");
-
         List<OffShoreResult> results = new ArrayList<>();
+        return searchOffShore(entity, results::add) ? results : new ArrayList<>();
+    }
+
+    /**
+     * Scrapea resultados de OffShore Leaks y los emite bloque a bloque, en el orden
+     * de las páginas, sin acumularlos.
+     *
+     * @param entity Nombre de la entidad a buscar
+     * @param sink   Consumidor de los resultados
+     * @return true si el scraping terminó sin errores
+     */
+    public boolean searchOffShore(final String entity, final Consumer<OffShoreResult> sink) {
+        return searchOffShore(entity, OFFSHORE_PAGE_WINDOW, sink);
+    }
+
+    /**
+     * Scrapea resultados de OffShore Leaks con una ventana de bloques dada.
+     *
+     * @param entity     Nombre de la entidad a buscar
+     * @param pageWindow Número de bloques pedidos en paralelo (1 = uno a la vez)
+     * @param sink       Consumidor de los resultados
+     * @return true si el scraping terminó sin errores
+     */
+    public boolean searchOffShore(final String entity, final int pageWindow, final Consumer<OffShoreResult> sink) {
+        log.debug("Scraping de OffShore Leaks: {}", entity);
 
         // 0. Setear los parámetros de búsqueda
         int from = 0;
@@ -83,182 +321,373 @@ public class WebScraper {
 
         // Normalizar el parámetro de entrada
         String searchEntity = entity.trim().replace(" ", "+");
+        String searchURL = baseURLOffShore + "search?q=" + searchEntity + trailParams + "&from=";
+
+        // Páginas pedidas y aún no procesadas, en orden
+        Deque<Future<List<OffShoreResult>>> window = new ArrayDeque<>();
+        int pages = 0;
 
         try {
             /*
             Sidenote: La página de Off Shore muestra los resultados en una
             tabla que va cargando bloques de 100 filas. Por ello,
-            se modifica la URL para obtener el HTML de cada bloque de 100 en iteraciones
+            se modifica la URL para obtener el HTML de cada bloque de 100.
+            En lugar de esperar cada bloque antes de pedir el siguiente, se mantienen
+            varios bloques en vuelo y se procesan en orden a medida que llegan
              */
-            while (true) {
-                // 1. Construir la URL con parámetros de búsqueda
-                String searchURL = baseURLOffShore + "search?q=" + searchEntity + trailParams + "&from=" + from;
-
-                System.out.println("URL: " + searchURL);
-
-                // 2. Conectar a la URL y obtener el HTML de la página
-                Document doc = Jsoup.connect(searchURL).get();
+            // 1. Llenar la ventana con los primeros bloques
+            while (window.size() < Math.max(1, pageWindow)) {
+                String pageURL = searchURL + from;
+                window.addLast(executor.submit(() -> fetchOffShorePage(pageURL)));
+                from += resultsPerPage;
+            }
 
-                // 3. Seleccionar las filas de la tabla de resultados
-                /*
-                Sidenote: El DOM de la página tiene solo 1 tabla;
-                por lo tanto, las filas se pueden seleccionar directamente
-                */
-                Elements tableBody = doc.getElementsByTag("tbody");
-                if (tableBody.isEmpty()) {
-                    // No hay más resultados
+            while (!window.isEmpty()) {
+                // 2. Esperar el bloque más antiguo (mantiene el orden de las páginas)
+                List<OffShoreResult> page = window.pollFirst().get();
+                pages++;
+                if (page.isEmpty()) {
+                    // No hay más resultados: los bloques posteriores se descartan
                     break;
                 }
+                page.forEach(sink);
 
-                Elements rows = tableBody.get(0).getElementsByTag("tr");
+                // 3. Pedir el siguiente bloque para mantener la ventana llena
+                String pageURL = searchURL + from;
+                window.addLast(executor.submit(() -> fetchOffShorePage(pageURL)));
+                from += resultsPerPage;
+            }
 
-                System.out.println("Results count: " + rows.size());
+        }
+        catch (ExecutionException e) {
+            log.warn("Error durante el scraping de OffShore", e.getCause());
+            return false;
 
-                // 4. Iterar sobre las filas de la tabla y extraer los datos de la entidad
-                for (Element row: rows) {
-                    /*
-                    Sidenote: Para seleccionar correctamente cada dato,
-                    se inspeccionó el HTML de la página y se obtuvo el tag y las clases
-                    que contienen a cada dato recuperado
-                     */
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+            // 4. Cancelar los bloques pedidos después del último con resultados
+            window.forEach(page -> page.cancel(true));
+        }
+        metrics.pages("offshore", pages);
+        return true;
+    }
 
-                    // Extraer el nombre (tag <a> y clase "font-weight-bold text-dark")
-                    String entityName = row.select("td a.font-weight-bold").text();
+    /**
+     * Publica los resultados de OffShore Leaks según la demanda del suscriptor.
+     *
+     * Sidenote: A diferencia de searchOffShore, los bloques no se piden hasta que el
+     * suscriptor pide los resultados que contienen (Flow.Subscription.request), con
+     * pageWindow bloques en vuelo como máximo. Con limit, el recorrido termina al
+     * emitir limit resultados y nunca se piden los bloques posteriores. Así, un
+     * cliente lento o que solo quiere los primeros N resultados no obliga a
+     * descargar (ni a guardar en memoria) la búsqueda completa.
+     *
+     * @param entity     Nombre de la entidad a buscar
+     * @param pageWindow Número de bloques pedidos en paralelo como máximo
+     * @param limit      Resultados máximos a emitir (0 = sin límite)
+     * @return Publisher en frío: cada suscripción hace su propio recorrido
+     */
+    public Flow.Publisher<OffShoreResult> publishOffShore(final String entity, final int pageWindow, final long limit) {
+        int resultsPerPage = 100;
+        String searchEntity = entity.trim().replace(" ", "+");
+        String searchURL = baseURLOffShore + "search?q=" + searchEntity + "&c=&j=&d=&cat=Entity&from=";
 
-                    // Extraer la jurisdicción (tag <td> y clase "jurisdiction")
-                    String jurisdiction = row.select("td.jurisdiction").text();
+        return new PagePublisher<>(page -> fetchOffShorePage(searchURL + (page * resultsPerPage)),
+                resultsPerPage, pageWindow, limit, executor, pages -> metrics.pages("offshore", pages));
+    }
 
-                    // Extraer el vínculo (tag <td> y clase "country")
-                    String linkedTo = row.select("td.country").text();
+    /**
+     * Descarga un bloque de resultados de OffShore Leaks y extrae sus filas.
+     *
+     * Sidenote: Si el bloque ya se descargó antes (offShorePages), la petición es
+     * condicional (If-None-Match / If-Modified-Since) y un 304 reutiliza sus filas.
+     * Si el servidor responde el body completo, se compara su hash con el de la
+     * versión anterior y solo se parsea si cambió; en ese caso el body se lee
+     * completo antes de parsear. Sin caché de páginas, se parsea a medida que llega.
+     *
+     * @param searchURL URL de búsqueda con el parámetro "from" del bloque
+     * @return Resultados del bloque; vacío si ya no hay más resultados
+     * @throws IOException Si falla la conexión
+     */
+    private List<OffShoreResult> fetchOffShorePage(String searchURL) throws IOException {
+        log.debug("URL: {}", searchURL);
+        PageCache.Page<OffShoreResult> previous = offShorePages.get(searchURL);
 
-                    // Extraer la fuente de data (tag <td> y clase "source", tag <a> y atributo "title")
-                    String dataFrom = row.select("td.source a").attr("title");
+        // 1. Conectar a la URL (hasta recibir las cabeceras de la respuesta)
+        Timer.Sample request = metrics.start();
+        Connection.Response response;
+        try {
+            // (un 304 no tiene Content-Type, por lo que Jsoup no debe validarlo en las peticiones condicionales)
+            Connection connection = Jsoup.connect(searchURL).ignoreHttpErrors(true).ignoreContentType(previous != null);
+            PageCache.conditionalHeaders(previous, connection::header);
+            response = connection.execute();
+            if (response.statusCode() == 304 && previous != null) {
+                // La página no cambió: no hay body que descargar ni parsear
+                metrics.stage(request, "offshore", "request", ScrapeMetrics.SUCCESS);
+                metrics.revalidation("offshore", ScrapeMetrics.NOT_MODIFIED);
+                log.debug("Results count: {} (sin cambios)", previous.rows().size());
+                return previous.rows();
+            }
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), searchURL);
+            }
+            metrics.stage(request, "offshore", "request", ScrapeMetrics.SUCCESS);
+        }
+        catch (IOException e) {
+            metrics.stage(request, "offshore", "request", ScrapeMetrics.ERROR);
+            throw e;
+        }
 
-                    results.add(new OffShoreResult(entityName, jurisdiction, linkedTo, dataFrom));
-                }
+        String charset = response.charset() != null ? response.charset() : StandardCharsets.UTF_8.name();
+        if (!offShorePages.enabled()) {
+            return parseOffShorePage(new InputStreamReader(metrics.countBytes("offshore", response.bodyStream()), charset), searchURL);
+        }
 
-                // 5. Siguiente bloque
-                from += resultsPerPage;
+        // 2. Leer el body y compararlo con la versión anterior
+        byte[] body;
+        try (InputStream input = metrics.countBytes("offshore", response.bodyStream())) {
+            body = input.readAllBytes();
+        }
+        byte[] digest = PageCache.digest(body);
+        if (PageCache.unchanged(previous, digest)) {
+            metrics.revalidation("offshore", ScrapeMetrics.UNCHANGED);
+            log.debug("Results count: {} (sin cambios)", previous.rows().size());
+            return previous.rows();
+        }
+        if (previous != null) {
+            metrics.revalidation("offshore", ScrapeMetrics.CHANGED);
+        }
 
-            }
+        // 3. Parsear la versión nueva y guardarla con sus validadores
+        List<OffShoreResult> results = parseOffShorePage(
+                new InputStreamReader(new ByteArrayInputStream(body), charset), searchURL);
+        offShorePages.put(searchURL, new PageCache.Page<>(
+                response.header("ETag"), response.header("Last-Modified"), digest, results));
+        return results;
+    }
 
-        }
-        catch (IOException e) {
-            System.err.println("Error durante el scraping de OffShore: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+    /**
+     * Parsea un bloque de resultados de OffShore Leaks.
+     *
+     * @param body      Body de la página, descomprimido
+     * @param searchURL URL del bloque (base de los links relativos)
+     * @return Resultados del bloque; vacío si ya no hay más resultados
+     * @throws IOException Si falla la lectura de la página
+     */
+    private List<OffShoreResult> parseOffShorePage(Reader body, String searchURL) throws IOException {
+        List<OffShoreResult> results = new ArrayList<>();
 
+        /*
+        Sidenote: No se construye el DOM completo de la página; cada fila se procesa
+        en cuanto el parser la termina de leer y luego se elimina del árbol. Por eso
+        la etapa "parse" incluye la descarga del body (si no se leyó antes), y "extract"
+        solo el mapeo de las filas
+        */
+        Timer.Sample parse = metrics.start();
+        LongAdder extractNanos = new LongAdder();
+        String outcome = ScrapeMetrics.ERROR;
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(body, searchURL)) {
+            parseOffShoreRows(parser, results::add, extractNanos);
+            outcome = ScrapeMetrics.SUCCESS;
         }
+        finally {
+            metrics.stage(parse, "offshore", "parse", outcome);
+            metrics.stage("offshore", "extract", extractNanos.sum());
+        }
+
+        log.debug("Results count: {}", results.size());
+
         return results;
     }
 
     /**
-     * Scrapea resultados de WorldBank para una entidad dada.
-     * 
-     * Sidenote: Esta página depende de JS (tabla tipo Kendo/Grid). Por ello
-     * se usa Selenium para (1) cargar la página, (2) escribir en el filtro,
-     * y (3) esperar a que cambie el número de filas.
-     * 
+     * Extrae las filas de la tabla de resultados de OffShore Leaks y las emite una a una.
+     *
+     * Sidenote: El DOM de la página tiene solo 1 tabla; por lo tanto, las filas
+     * se pueden seleccionar directamente. Si la página no tiene tbody (o está vacío)
+     * no se emite nada, lo que indica que ya no hay más resultados. Cada fila
+     * se mapea con el esquema OFFSHORE_ROW, compilado una sola vez.
+     *
+     * @param parser Parser en streaming de la página
+     * @param sink   Consumidor de los resultados, en el orden de la tabla
+     * @throws IOException Si falla la lectura de la página
+     */
+    static void parseOffShoreRows(StreamParser parser, Consumer<OffShoreResult> sink) throws IOException {
+        parseOffShoreRows(parser, sink, new LongAdder());
+    }
+
+    /**
+     * Igual que parseOffShoreRows(parser, sink), acumulando el tiempo de mapeo de las filas.
+     *
+     * @param extractNanos Acumulador del tiempo (ns) dedicado a OFFSHORE_ROW.extract
+     */
+    static void parseOffShoreRows(StreamParser parser, Consumer<OffShoreResult> sink, LongAdder extractNanos) throws IOException {
+        Element row;
+        while ((row = parser.selectNext(OFFSHORE_ROWS)) != null) {
+            long start = System.nanoTime();
+            OffShoreResult result = OFFSHORE_ROW.extract(row);
+            extractNanos.add(System.nanoTime() - start);
+
+            // La fila ya procesada no se mantiene en memoria
+            row.remove();
+
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * Busca resultados de WorldBank para una entidad dada.
+     *
+     * Sidenote: En modo "feed" (por defecto) la búsqueda se resuelve contra la copia
+     * en memoria de la lista de firmas, sin abrir un navegador. Si el feed está
+     * deshabilitado o aún no se pudo descargar, se recurre al scraping con Selenium.
+     *
      * @param entity Nombre de la entidad a buscar
      * @return Lista de resultados con atributos: firmName, address, country, fromDate, toDate, grounds
      */
     public List<WorldBankResult> searchWorldBank(final String entity) {
-        System.out.println("======= Scraping: WorldBanks =======");
-
         List<WorldBankResult> results = new ArrayList<>();
+        return searchWorldBank(entity, results::add) ? results : new ArrayList<>();
+    }
 
-        // 0. Configurar el web driver (en este caso, ChromeDriver) y los parámetros de búsqueda
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless");
+    /**
+     * Busca resultados de WorldBank y los emite al consumidor.
+     *
+     * @param entity Nombre de la entidad a buscar
+     * @param sink   Consumidor de los resultados
+     * @return true si la búsqueda terminó sin errores
+     */
+    public boolean searchWorldBank(final String entity, final Consumer<WorldBankResult> sink) {
+        Optional<List<WorldBankResult>> fromFeed = worldBankFeed.search(entity);
+        if (fromFeed.isPresent()) {
+            fromFeed.get().forEach(sink);
+            return true;
+        }
+        return searchWorldBankBrowser(entity, sink);
+    }
 
-        // Flags recomendadas para contenedores
-        options.addArguments("--no-sandbox"); 
-        options.addArguments("--disable-dev-shm-usage");
-        
-        // Ruta de chromium-browser en el contenedor desplegado
-        // Para correr de forma local, comentar esta línea
-        //options.setBinary("/usr/bin/chromium-browser");
+    /**
+     * Scrapea resultados de WorldBank para una entidad dada.
+     * 
+     * Sidenote: Esta página depende de JS (tabla tipo Kendo/Grid). Por ello
+     * se usa Selenium para (1) cargar la página, (2) escribir en el filtro,
+     * y (3) esperar el evento dataBound de la grilla con el resultado filtrado.
+     * Las esperas y la lectura de la tabla se hacen con scripts en la página
+     * (un viaje al navegador cada una) en lugar de consultar el DOM desde Java.
+     * El navegador se toma prestado de un WebDriverPool en lugar de arrancarse
+     * en cada llamada.
+     * 
+     * @param entity Nombre de la entidad a buscar
+     * @param sink   Consumidor de los resultados (firmName, address, country, fromDate, toDate, grounds)
+     * @return true si el scraping terminó sin errores
+     */
+    private boolean searchWorldBankBrowser(final String entity, final Consumer<WorldBankResult> sink) {
+        log.debug("Scraping de WorldBank: {}", entity);
 
         // Normalizar el parámetro de entrada
         String searchEntity = entity.trim();
 
-        // 1. Iniciar el WebDriver con ChromeDriver
-        WebDriver driver = new ChromeDriver(options);
+        // 1. Obtener una sesión de Chrome del pool (evita arrancar un navegador por petición)
+        WebDriverPool.Session session;
+        Timer.Sample sample = metrics.start();
+        try {
+            session = driverPool.borrow();
+            metrics.stage(sample, "worldbank", "borrow", ScrapeMetrics.SUCCESS);
+        }
+        catch (TimeoutException e) {
+            metrics.stage(sample, "worldbank", "borrow", ScrapeMetrics.ERROR);
+            log.warn("Error durante el scraping de WorldBank: {}", e.getMessage());
+            return false;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        WebDriver driver = session.driver();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        boolean broken = false;
+
+        // Etapa en curso, para registrarla como fallida si ocurre un error
+        String stage = "page.load";
+        sample = metrics.start();
 
         try {
             // 2. Conectar a la URL de WorldBank
             driver.get(baseURLWorldBank);
+            metrics.stage(sample, "worldbank", stage, ScrapeMetrics.SUCCESS);
+
+            // 3. Esperar a que la grilla muestre la lista inicial
+            stage = "browser.wait";
+            sample = metrics.start();
+            driver.manage().timeouts().scriptTimeout(WORLDBANK_SCRIPT_TIMEOUT);
+            js.executeAsyncScript(WORLDBANK_READY_SCRIPT);
 
-            // 3. Localizar el textbox de búsqueda
+            // 4. Ingresar el texto a buscar (nombre de la entidad) y esperar el dataBound del filtro
             /*
             Sidenote: El nombre de la entidad se ingresa en un elemento de forma:
             tag: <input>
             id: "category"
              */
-            WebElement textBox = driver.findElement(By.id("category"));
-
-            // Esperar a que la tabla esté renderizada y lista para actualizarse
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.className("k-grid-content")));  // Esperamos que la tabla esté presente
-
-            // Obtener el conteo inicial de filas (antes del filtrado)
-            List<WebElement> initialRows = driver.findElements(By.cssSelector(".k-grid-content tr"));
-            int initialRowCount = initialRows.size();
+            js.executeAsyncScript(WORLDBANK_FILTER_SCRIPT, searchEntity);
+            metrics.stage(sample, "worldbank", stage, ScrapeMetrics.SUCCESS);
+            stage = "extract";
+            sample = metrics.start();
 
-            // 3. Ingresar el texto a buscar (nombre de la entidad)
-            textBox.sendKeys(searchEntity);
-
-            // Esperar a que el número de filas cambie progresivamente (más específico)
-            WebDriverWait wait2 = new WebDriverWait(driver, Duration.ofSeconds(10));
-            wait2.until(ExpectedConditions.not(
-                    ExpectedConditions.numberOfElementsToBe(By.cssSelector(".k-grid-content tr"), initialRowCount)
-            ));
-
-            // 4. Obtener el HTML actualizado y seleccionar las filas de la tabla
-            WebElement tableParent = driver.findElement(By.id("k-debarred-firms")).findElement(By.className("k-grid-content"));
-            List<WebElement> rows = tableParent.findElements(By.tagName("tr"));
+            // 5. Obtener el texto de todas las celdas de la tabla en una sola llamada
+            List<?> rows = (List<?>) js.executeScript(WORLDBANK_ROWS_SCRIPT);
 
             // Testing: Número de filas encontradas
-            System.out.println("Results count: " + rows.size());
+            log.debug("Results count: {}", rows.size());
 
-            // 5. Iterar por cada fila de resultado para obtener los datos
-            for(WebElement row : rows) {
+            // 6. Mapear cada fila con el DTO
+            for (Object row : rows) {
+                List<?> data = (List<?>) row;
 
-                // 6. Obtener el arreglo de datos
-                List<WebElement> data = row.findElements(By.tagName("td"));
+                // La fila de "sin resultados" de la grilla no tiene las columnas de datos
+                if (data.size() < 7) {
+                    continue;
+                }
 
                 /*
                 Sidenote: El elemento en la posición 1 es ignorado, ya que no es mostrado
                 en la tabla de la página y tampoco forma parte de los atributos
                 solicitados
                  */
-                String firmName = data.get(0).getText();
-                String address = data.get(2).getText();
-                String country = data.get(3).getText();
-                String fromDate = data.get(4).getText();
-                String toDate = data.get(5).getText();
-                String grounds = data.get(6).getText();
+                String firmName = String.valueOf(data.get(0));
+                String address = String.valueOf(data.get(2));
+                String country = String.valueOf(data.get(3));
+                String fromDate = String.valueOf(data.get(4));
+                String toDate = String.valueOf(data.get(5));
+                String grounds = String.valueOf(data.get(6));
 
-                results.add(new WorldBankResult(firmName, address, country, fromDate, toDate, grounds));
+                sink.accept(new WorldBankResult(firmName, address, country, fromDate, toDate, grounds));
 
             }
+            metrics.stage(sample, "worldbank", stage, ScrapeMetrics.SUCCESS);
 
         }
         catch (RuntimeException e) {
-            System.err.println("Error durante el scraping de OffShore: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+            metrics.stage(sample, "worldbank", stage, ScrapeMetrics.ERROR);
+            log.warn("Error durante el scraping de WorldBank", e);
+            // Sesión en estado desconocido (p. ej. navegador caído): no se reutiliza
+            broken = true;
+            return false;
         }
         finally {
-            // 7. Cerrar el driver de Chrome después de procesar
-            driver.quit();
+            // 7. Devolver la sesión al pool después de procesar
+            driverPool.release(session, broken);
         }
 
-        return results;
+        return true;
     }
 
     /**
-     * Scrapea resultados de WorldBank para una entidad dada.
+     * Scrapea resultados de OFAC para una entidad dada.
      * 
      * Sidenote: Esta página usa formularios de ASP.NET, por lo que se 
      * usa un flujo con 2 peticiones HTTP:
@@ -266,156 +695,347 @@ public class WebScraper {
      * 2) Sobreescribir inputs relevantes (entity, type, score, submit)
      * 3) POST con application/x-www-form-urlencoded
      * 4) Parsear la tabla de resultados gvSearchResults
+     *
+     * El resultado del GET inicial (cookies + hidden fields) se reutiliza entre
+     * búsquedas hasta que expira o el servidor rechaza el POST, por lo que la
+     * mayoría de búsquedas solo hacen el POST.
      * 
      * @param entity Nombre de la entidad a buscar
      * @param score Nivel mínimo de coincidencia de nombre
      * @return Lista de resultados con atributos: name, address, type, program, list, score
      */
     public List<OFACResults> searchOFAC(final String entity, final String score) {
-        System.out.println("======= Scraping: WorldBanks =======");
-
         List<OFACResults> results = new ArrayList<>();
+        return searchOFAC(entity, score, results::add) ? results : new ArrayList<>();
+    }
 
-        // 0. Setear los inputs y valores por defecto para las peticiones
-        final String inputName = "ctl00$MainContent$txtLastName";
-        final String inputType = "ctl00$MainContent$ddlType";
-        final String inputScore = "ctl00$MainContent$Slider1";
-        final String inputSliderBound = "ctl00$MainContent$Slider1_Boundcontrol";
-        final String inputSearch = "ctl00$MainContent$btnSearch";
-        final String valueType = "Entity";
-        final String valueSearch = "Search";
+    /**
+     * Scrapea resultados de OFAC y los emite a medida que se parsea la tabla, sin acumularlos.
+     *
+     * @param entity Nombre de la entidad a buscar
+     * @param score  Nivel mínimo de coincidencia de nombre
+     * @param sink   Consumidor de los resultados
+     * @return true si se obtuvo la tabla de resultados sin errores
+     */
+    public boolean searchOFAC(final String entity, final String score, final Consumer<OFACResults> sink) {
+        log.debug("Scraping de OFAC: {}", entity);
 
         // Normalizar el parámetro de entrada
         String searchEntity = entity.trim();
 
         try {
-            // 1. Configurar las cookies para las request
-            CookieManager cm = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
-            HttpClient client = HttpClient.newBuilder()
-                    .cookieHandler(cm)
-                    .followRedirects(HttpClient.Redirect.NORMAL)
-                    .build();
-
-            // 2. Hacer una petición GET inicial para obtener la sesión y hidden fields
-            String initialHTML = getHtml(client, baseOFACURL);
-            if (initialHTML == null || initialHTML.isEmpty()) {
-                return new ArrayList<>();
-            }
+            boolean accepted = false;
+            OFACFormState rejected = null;
+
+            // Sidenote: Si el POST con el estado cacheado es rechazado, se repite una vez con un estado nuevo
+            for (int attempt = 0; attempt < 2 && !accepted; attempt++) {
+                // 1. Obtener la sesión y los hidden fields (cacheados o con un GET nuevo)
+                OFACFormState state = ofacFormState(rejected);
+                if (state == null) {
+                    return false;
+                }
 
-            Document initialDoc = Jsoup.parse(initialHTML, baseOFACURL);
+                // 2. Copiar los inputs del form y sobreescribir los necesarios (nombre de la entidad, tipo, score y submit del botón)
+                Map<String, String> form = ofacSearchForm(state, searchEntity, score);
 
-            // 3. Extraer todos los inputs del forms
-            Map<String, String> form = extractAllInputs(initialDoc);
-            if (form.isEmpty()) {
-                return new ArrayList<>();
+                // 3. Hacer una petición POST para enviar el formulario
+                Reader resultBody = postForm(ofacClient, state.postURL(), form);
+                if (resultBody != null) {
+                    // 4. Parsear la respuesta a medida que llega y mapear las filas de la tabla con el DTO
+                    // (una respuesta sin tabla pero con __VIEWSTATE es una búsqueda sin resultados)
+                    accepted = parseOFACRowsTimed(resultBody, state.postURL(), sink);
+                }
+                rejected = state;
             }
 
-            // 4. Sobreescribir los inputs necesarios (nombre de la entidad, tipo, score y submit del botón)
-            form.put(inputName, searchEntity);
-            form.put(inputType, valueType);
-            form.put(inputScore, score);
-            form.put(inputSliderBound, score);
-            form.put(inputSearch, valueSearch);
-
-            // 5. Obtener la URL destino del form
-            Element formElement = initialDoc.selectFirst("form#aspnetForm");
-            String postURL = (formElement != null) ? formElement.absUrl("action") : baseOFACURL;
-
-            // 6. Hacer una petición POST para enviar el formulario
-            String resultHtml = postForm(client, postURL, form);
-            Document resultDoc = Jsoup.parse(resultHtml, postURL);
-
-            // 7. Obtener la tabla de resultados
-            Element table = resultDoc.getElementById("gvSearchResults");
-            if (table == null) {
-                System.out.println("No se encontró la tabla de resultados");
-                return new ArrayList<>();
+            if (!accepted) {
+                log.warn("OFAC rechazó la búsqueda");
+                return false;
             }
 
-            // 8. Iterar filas y mapear las columnas con el DTO
-            Elements rows = table.select("tr");
-            for (Element row : rows) {
-                Elements data = row.select("td");
+        }
+        catch (Exception e) {
+            log.warn("Error durante el scraping de OFAC", e);
+            return false;
+        }
 
-                // Validación mínima: se esperan al menos 6 columnas visibles
-                if (data.size() < 6) {
-                    continue;
-                }
+        return true;
+    }
 
-                String nameResult = data.get(0).text();
-                String addressResult = data.get(1).text();
-                String typeResult = data.get(2).text();
-                String programResult = data.get(3).text();
-                String listResult = data.get(4).text();
-                String scoreResult = data.get(5).text();
+    /**
+     * Scrapea resultados de OFAC sin bloquear el hilo que la llama.
+     *
+     * Sidenote: Es el mismo flujo que searchOFAC, encadenado sobre HttpClient.sendAsync:
+     * 1) Estado del form (cacheado, o un GET asíncrono compartido por las búsquedas que lo esperan)
+     * 2) POST asíncrono del form con la entidad y el score
+     * 3) Parseo de la tabla de resultados, una vez recibido el body completo
+     * 4) Si el POST es rechazado, se repite una vez con un estado nuevo
+     *
+     * Ningún hilo queda esperando la red: cada paso se ejecuta en el executor compartido
+     * cuando llega la respuesta del anterior.
+     *
+     * @param entity Nombre de la entidad a buscar
+     * @param score  Nivel mínimo de coincidencia de nombre
+     * @return Resultados de la búsqueda; se completa con ScrapingException si la fuente no respondió correctamente
+     */
+    public CompletableFuture<List<OFACResults>> searchOFACAsync(final String entity, final String score) {
+        log.debug("Scraping de OFAC: {}", entity);
+        return searchOFACAsync(entity.trim(), score, null);
+    }
 
-                results.add(new OFACResults(nameResult, addressResult, typeResult, programResult, listResult, scoreResult));
+    /**
+     * Un intento de la búsqueda asíncrona en OFAC.
+     *
+     * @param rejected Estado con el que el servidor rechazó el intento anterior (null en el primero)
+     */
+    private CompletableFuture<List<OFACResults>> searchOFACAsync(String entity, String score, OFACFormState rejected) {
+        // 1. Obtener la sesión y los hidden fields (cacheados o con un GET nuevo)
+        return ofacFormStateAsync(rejected).thenCompose(state -> {
+            if (state == null) {
+                return CompletableFuture.failedFuture(new ScrapingException("OFAC"));
             }
 
+            // 2. Enviar el form con la entidad y el score
+            return postFormAsync(ofacClient, state.postURL(), ofacSearchForm(state, entity, score))
+                    .thenCompose(body -> {
+                        // 3. Parsear la tabla de resultados (sin tabla pero con __VIEWSTATE: sin resultados)
+                        List<OFACResults> results = new ArrayList<>();
+                        try {
+                            if (body != null && parseOFACRowsTimed(body, state.postURL(), results::add)) {
+                                return CompletableFuture.completedFuture(results);
+                            }
+                        }
+                        catch (IOException e) {
+                            log.warn("Error durante el scraping de OFAC: {}", e.getMessage());
+                        }
+
+                        // 4. Repetir una vez con un estado nuevo si el POST fue rechazado
+                        if (rejected == null) {
+                            return searchOFACAsync(entity, score, state);
+                        }
+                        log.warn("OFAC rechazó la búsqueda");
+                        return CompletableFuture.failedFuture(new ScrapingException("OFAC"));
+                    });
+        });
+    }
+
+    /**
+     * Copia los inputs del form y sobreescribe los de la búsqueda (nombre de la entidad, tipo, score y submit del botón).
+     */
+    private static Map<String, String> ofacSearchForm(OFACFormState state, String entity, String score) {
+        Map<String, String> form = new LinkedHashMap<>(state.inputs());
+        form.put(OFAC_INPUT_NAME, entity);
+        form.put(OFAC_INPUT_TYPE, "Entity");
+        form.put(OFAC_INPUT_SCORE, score);
+        form.put(OFAC_INPUT_SLIDER_BOUND, score);
+        form.put(OFAC_INPUT_SEARCH, "Search");
+        return form;
+    }
+
+    /**
+     * Parsea la respuesta del POST de OFAC en streaming y emite cada fila de gvSearchResults.
+     *
+     * Sidenote: No se construye el DOM completo de la página. Cada fila se mapea al DTO
+     * en cuanto el parser la termina de leer y luego se elimina del árbol; la tabla
+     * en sí se selecciona al cerrarse, lo que indica que la respuesta sí la contenía.
+     * Una búsqueda sin resultados puede no incluir la tabla: la respuesta se acepta
+     * igual si trae el __VIEWSTATE del form (una página de error o de login no lo trae).
+     *
+     * @param body    Body de la respuesta (ya descomprimido); se cierra al terminar
+     * @param baseUri URL de la respuesta
+     * @param sink    Consumidor de los resultados, en el orden de la tabla
+     * @return true si la respuesta es una respuesta válida del POST (con la tabla gvSearchResults o el __VIEWSTATE)
+     * @throws IOException Si falla la lectura de la respuesta
+     */
+    static boolean parseOFACRows(InputStream body, String baseUri, Consumer<OFACResults> sink) throws IOException {
+        return parseOFACRows(new InputStreamReader(body, StandardCharsets.UTF_8), baseUri, sink, new LongAdder());
+    }
+
+    /**
+     * Parsea la respuesta del POST de OFAC y registra las etapas "parse" y "extract".
+     */
+    private boolean parseOFACRowsTimed(Reader body, String baseUri, Consumer<OFACResults> sink) throws IOException {
+        Timer.Sample sample = metrics.start();
+        LongAdder extractNanos = new LongAdder();
+        boolean tableFound = false;
+        try {
+            tableFound = parseOFACRows(body, baseUri, sink, extractNanos);
+            return tableFound;
         }
-        catch (Exception e) {
-            System.err.println("Error durante el scraping de OffShore: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+        finally {
+            metrics.stage(sample, "ofac", "parse", tableFound ? ScrapeMetrics.SUCCESS : ScrapeMetrics.ERROR);
+            metrics.stage("ofac", "extract", extractNanos.sum());
         }
+    }
 
-        return results;
+    /**
+     * Igual que parseOFACRows(body, baseUri, sink), sobre el texto ya decodificado
+     * con el charset de la respuesta y acumulando el tiempo de mapeo de las filas.
+     *
+     * @param extractNanos Acumulador del tiempo (ns) dedicado a OFAC_ROW.extract
+     */
+    static boolean parseOFACRows(Reader body, String baseUri, Consumer<OFACResults> sink, LongAdder extractNanos) throws IOException {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(body, baseUri)) {
+
+            boolean viewState = false;
+            Element el;
+            while ((el = parser.selectNext(OFAC_ROWS)) != null) {
+                if ("gvSearchResults".equals(el.id())) {
+                    // Fin de la tabla: el resto de la página no interesa
+                    return true;
+                }
+                if ("__VIEWSTATE".equals(el.id())) {
+                    viewState = true;
+                    continue;
+                }
+
+                // Validación mínima: las filas con menos de 6 columnas (encabezados) se descartan
+                long start = System.nanoTime();
+                OFACResults result = OFAC_ROW.extract(el);
+                extractNanos.add(System.nanoTime() - start);
+                el.remove();
+
+                if (result != null) {
+                    sink.accept(result);
+                }
+            }
+            return viewState;
+        }
     }
 
     /**
-     * Ejecuta una petición GET y retorna el HTML de la respuesta
-     * 
-     * @param client Cliente HTTP configurado
-     * @param url URl destino
-     * @return HTML en texto plano (UTF-8) o null si ocurre un error
+     * Devuelve el estado del formulario de OFAC, reutilizando el cacheado si sigue vigente.
+     *
+     * @param rejected Estado con el que el servidor rechazó el último POST (o null)
+     * @return Estado vigente del formulario, o null si no se pudo obtener
      */
-    private String getHtml(HttpClient client, String url) {
+    private OFACFormState ofacFormState(OFACFormState rejected) {
         try {
-            // 1. Construir la petición HTTP
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .GET()
-                    .header("User-Agent", userAgent)
-                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
-                    .header("Accept-Encoding", "gzip")
-                    .build();
+            return ofacFormStateAsync(rejected).join();
+        }
+        catch (CompletionException | CancellationException e) {
+            log.warn("Error al obtener el formulario de OFAC: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            // 2. Enviar la petición y capturar la respuesta
-            HttpResponse<byte[]> resp = client.send(req, HttpResponse.BodyHandlers.ofByteArray());
+    /**
+     * Devuelve el estado del formulario de OFAC sin bloquear, reutilizando el cacheado si sigue vigente.
+     *
+     * Sidenote: Solo se lanza un GET de renovación a la vez; las búsquedas que llegan
+     * mientras está en curso reciben el mismo future y reutilizan el estado nuevo.
+     *
+     * @param rejected Estado con el que el servidor rechazó el último POST (o null)
+     * @return Estado vigente del formulario (null si no se pudo obtener)
+     */
+    private CompletableFuture<OFACFormState> ofacFormStateAsync(OFACFormState rejected) {
+        OFACFormState current = ofacForm;
+        if (current != null && current != rejected && current.expiresAt() > System.nanoTime()) {
+            return CompletableFuture.completedFuture(current);
+        }
+
+        synchronized (ofacFormLock) {
+            current = ofacForm;
+            if (current != null && current != rejected && current.expiresAt() > System.nanoTime()) {
+                return CompletableFuture.completedFuture(current);
+            }
+            if (ofacFormRenewal != null) {
+                return ofacFormRenewal;
+            }
 
-            // 3. Decodificar la respuesta HTTP
-            return decodeBody(resp);
+            // 1. Hacer una petición GET inicial para obtener la sesión y hidden fields
+            CompletableFuture<OFACFormState> renewal = getHtmlAsync(ofacClient, baseOFACURL)
+                    .thenApply(this::parseFormState);
+            ofacFormRenewal = renewal;
+            renewal.whenComplete((state, e) -> {
+                synchronized (ofacFormLock) {
+                    if (state != null) {
+                        ofacForm = state;
+                    }
+                    if (ofacFormRenewal == renewal) {
+                        ofacFormRenewal = null;
+                    }
+                }
+            });
+            return renewal;
         }
-        catch (IOException | InterruptedException e) {
-            e.printStackTrace();
+    }
+
+    /**
+     * Extrae el estado del formulario del HTML de la página inicial de OFAC.
+     *
+     * @param initialHTML HTML de la página inicial
+     * @return Estado del formulario, o null si la página no lo contiene
+     */
+    private OFACFormState parseFormState(String initialHTML) {
+        if (initialHTML == null || initialHTML.isEmpty()) {
             return null;
         }
+
+        Timer.Sample sample = metrics.start();
+        Document initialDoc = Jsoup.parse(initialHTML, baseOFACURL);
+
+        // 2. Extraer todos los inputs del forms
+        Map<String, String> inputs = extractAllInputs(initialDoc);
+        metrics.stage(sample, "ofac", "form.parse", inputs.isEmpty() ? ScrapeMetrics.ERROR : ScrapeMetrics.SUCCESS);
+        if (inputs.isEmpty()) {
+            return null;
+        }
+
+        // 3. Obtener la URL destino del form
+        Element formElement = initialDoc.selectFirst("form#aspnetForm");
+        String postURL = (formElement != null) ? formElement.absUrl("action") : baseOFACURL;
+
+        return new OFACFormState(Collections.unmodifiableMap(inputs), postURL,
+                System.nanoTime() + ofacSessionTtl.toNanos());
     }
 
     /**
-     * Decodifica el body de una respuesta HTTP, soporta gzip si aplica
+     * Ejecuta una petición GET asíncrona y retorna el HTML de la respuesta
+     *
+     * @param client Cliente HTTP configurado
+     * @param url URl destino
+     * @return HTML en texto plano (UTF-8), o null si ocurre un error
+     */
+    private CompletableFuture<String> getHtmlAsync(HttpClient client, String url) {
+        // 1. Construir la petición HTTP
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url))
+                .GET()
+                .header("User-Agent", userAgent)
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Encoding", BodyDecoder.ACCEPT_ENCODING)
+                .build();
+
+        // 2. Enviar la petición y decodificar la respuesta cuando llegue
+        Timer.Sample request = metrics.start();
+        return client.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(resp -> {
+                    metrics.stage(request, "ofac", "form.request", ScrapeMetrics.SUCCESS);
+                    metrics.bytes("ofac", resp.body().length);
+                    Timer.Sample decode = metrics.start();
+                    String html = decodeBody(resp);
+                    metrics.stage(decode, "ofac", "form.decode", html != null ? ScrapeMetrics.SUCCESS : ScrapeMetrics.ERROR);
+                    return html;
+                })
+                .exceptionally(e -> {
+                    metrics.stage(request, "ofac", "form.request", ScrapeMetrics.ERROR);
+                    log.warn("Error en el GET de {}: {}", url, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Decodifica el body de una respuesta HTTP (gzip, deflate o br si aplica)
      *
      * @param resp Respuesta HTTP en bytes
-     * @return Texto decodificado en UTF-8 o null si falla la lectura
+     * @return Texto decodificado con el charset de Content-Type (UTF-8 por defecto) o null si falla la lectura
      */
-    private  String decodeBody(HttpResponse<byte[]> resp) {
+    static String decodeBody(HttpResponse<byte[]> resp) {
         try {
-            // 1. Obtener el valor del encabezado Content-Encoding
-            String encoding = resp.headers().firstValue("Content-Encoding").orElse("").toLowerCase();
-
-            // 2. Obtener la respuesta HTTP en bytes
-            byte[] bytes = resp.body();
-            InputStream input = new ByteArrayInputStream(bytes);
-
-            // 3. Descomprimir el contenido si ha sido codificado como gzip
-            if (encoding.contains("gzip")) {
-                input = new GZIPInputStream(input);
-            }
-
-            // 4. Retornar el contenido en texto plano
-            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            return BodyDecoder.decode(resp.headers(), resp.body());
         }
         catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Error al decodificar la respuesta de {}", resp.uri(), e);
             return null;
         }
     }
@@ -426,7 +1046,7 @@ public class WebScraper {
      * @param htmlDoc Documento HTML parseado con Jsoup
      * @return Mapa de inputs
      */
-    private Map<String, String> extractAllInputs (Document htmlDoc) {
+    static Map<String, String> extractAllInputs (Document htmlDoc) {
         Map<String, String> inputsMap = new LinkedHashMap<>();
 
         // 1. Iterar sobre todos los objetos del form (input y select, para cubrir textbox y dropdown respectivamente)
@@ -456,63 +1076,136 @@ public class WebScraper {
         return inputsMap;
     }
 
+    /**
+     * @return true si el servidor rechazó el POST: código de error, o redirección
+     *         (p. ej. de vuelta al form cuando la sesión venció)
+     */
+    private static boolean isRejected(HttpResponse<?> resp) {
+        return resp.statusCode() >= 400 || resp.previousResponse().isPresent();
+    }
+
     /**
      * Envía un POST usando el mapa de inputs como payload
      *
      * @param client Cliente HTTP configurado
      * @param url Endpoint destino (action del form)
      * @param form Campos del formulario
-     * @return HTML resultante o null si falla
+     * @return Body resultante (ya descomprimido y decodificado, debe cerrarse) o null si falla
      */
-    private String postForm(HttpClient client, String url, Map<String, String> form) {
+    private Reader postForm(HttpClient client, String url, Map<String, String> form) {
         try {
-            // 1. Serializar el mapa como querystring form-urlencoded
-            String body = form.entrySet().stream()
-                    .map(e -> encode(e.getKey()) + "=" + encode(e.getValue()))
-                    .collect(Collectors.joining("&"));
-
-            // 2. Construir el POST request
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .header("User-Agent", userAgent)
-                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
-                    .header("Accept-Encoding", "gzip")
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .header("Origin", "https://sanctionssearch.ofac.treas.gov")
-                    .header("Referer", url)
-                    .build();
-
-            // 3. Enviar el request
-            HttpResponse<byte[]> resp = client.send(req, HttpResponse.BodyHandlers.ofByteArray());
-
-            // 4. Decodificar body
-            return decodeBody(resp);
+            // 1. Enviar el request (el body se lee después, a medida que llega)
+            Timer.Sample sample = metrics.start();
+            HttpResponse<InputStream> resp;
+            try {
+                resp = client.send(formRequest(url, form), HttpResponse.BodyHandlers.ofInputStream());
+            }
+            catch (IOException | InterruptedException e) {
+                metrics.stage(sample, "ofac", "post", ScrapeMetrics.ERROR);
+                throw e;
+            }
+            if (isRejected(resp)) {
+                // El servidor rechazó el form (p. ej. sesión o __EVENTVALIDATION vencidos)
+                metrics.stage(sample, "ofac", "post", ScrapeMetrics.ERROR);
+                log.warn("POST rechazado con código {}", resp.statusCode());
+                resp.body().close();
+                return null;
+            }
+            metrics.stage(sample, "ofac", "post", ScrapeMetrics.SUCCESS);
+
+            // 2. Descomprimir y decodificar el body a medida que se lee
+            return BodyDecoder.reader(resp.headers(), metrics.countBytes("ofac", resp.body()));
         }
         catch (IOException | InterruptedException e) {
-            e.printStackTrace();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Error en el POST de {}", url, e);
             return null;
         }
     }
 
     /**
-     * Encode helper
-     * @param s Texto a codificar
-     * @return Texto codificado
+     * Envía un POST asíncrono usando el mapa de inputs como payload
+     *
+     * Sidenote: A diferencia de postForm, el body se recibe completo antes de parsearlo,
+     * para que el parseo no bloquee el hilo esperando a la red.
+     *
+     * @param client Cliente HTTP configurado
+     * @param url Endpoint destino (action del form)
+     * @param form Campos del formulario
+     * @return Body resultante (ya descomprimido y decodificado), o null si el servidor lo rechazó o falla
      */
-    private String encode(String s) {
-        return URLEncoder.encode(s == null ? "" : s, StandardCharsets.UTF_8);
+    private CompletableFuture<Reader> postFormAsync(HttpClient client, String url, Map<String, String> form) {
+        Timer.Sample sample = metrics.start();
+        return client.sendAsync(formRequest(url, form), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(resp -> {
+                    if (isRejected(resp)) {
+                        metrics.stage(sample, "ofac", "post", ScrapeMetrics.ERROR);
+                        log.warn("POST rechazado con código {}", resp.statusCode());
+                        return null;
+                    }
+                    metrics.stage(sample, "ofac", "post", ScrapeMetrics.SUCCESS);
+                    metrics.bytes("ofac", resp.body().length);
+                    try {
+                        return BodyDecoder.reader(resp.headers(), new ByteArrayInputStream(resp.body()));
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .exceptionally(e -> {
+                    if (!(e.getCause() instanceof UncheckedIOException)) {
+                        metrics.stage(sample, "ofac", "post", ScrapeMetrics.ERROR);
+                    }
+                    log.warn("Error en el POST de {}: {}", url, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Construye el POST del form con application/x-www-form-urlencoded
+     *
+     * @param url Endpoint destino (action del form)
+     * @param form Campos del formulario
+     * @return Petición HTTP lista para enviar
+     */
+    private HttpRequest formRequest(String url, Map<String, String> form) {
+        // 1. Serializar el mapa como querystring form-urlencoded
+        String body = encodeForm(form);
+
+        // 2. Construir el POST request (Origin es el esquema y host del form)
+        URI uri = URI.create(url);
+        return HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("User-Agent", userAgent)
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Encoding", BodyDecoder.ACCEPT_ENCODING)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Origin", uri.getScheme() + "://" + uri.getRawAuthority())
+                .header("Referer", url)
+                .build();
     }
 
     /**
-     * Método de prueba local
+     * Serializa los campos de un formulario como application/x-www-form-urlencoded
      *
-     * @param args
+     * @param form Campos del formulario
+     * @return Body del POST
      */
-    public static void main (String[] args) {
-        WebScraper ws = new WebScraper();
-        ws.searchOffShore("aero");
-        ws.searchWorldBank("aero");
-        ws.searchOFAC("aero", "100");
+    static String encodeForm(Map<String, String> form) {
+        return form.entrySet().stream()
+                .map(e -> encode(e.getKey()) + "=" + encode(e.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Encode helper
+     * @param s Texto a codificar
+     * @return Texto codificado
+     */
+    private static String encode(String s) {
+        return URLEncoder.encode(s == null ? "" : s, StandardCharsets.UTF_8);
     }
 
 }
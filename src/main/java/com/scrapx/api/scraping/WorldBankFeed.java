@@ -0,0 +1,370 @@
+package com.scrapx.api.scraping;
+
+import com.scrapx.api.dto.WorldBankResult;
+import com.scrapx.api.matching.NameMatcher;
+import com.scrapx.api.matching.TrigramIndex;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Copia en memoria de la lista de firmas inhabilitadas de WorldBank.
+ *
+ * Sidenote: La tabla Kendo de la página de WorldBank se llena desde un servicio
+ * JSON que devuelve la lista completa (unos pocos miles de firmas, que cambian poco).
+ * En lugar de abrir un navegador por búsqueda, se descarga la lista completa
+ * periódicamente con una petición HTTP y las búsquedas se resuelven contra un
+ * índice local de nombres. Si la descarga falla se conserva la última copia válida;
+ * si nunca se pudo descargar, WebScraper recurre a Selenium.
+ *
+ * Cada copia descargada se guarda además en el directorio del índice local
+ * (scrapx.index.dir/worldbank-feed.jsonl, una firma por línea). Al arrancar se carga
+ * esa copia antes de la primera descarga, de modo que las búsquedas se resuelven
+ * sin navegador aunque el servicio JSON no esté disponible en ese momento.
+ */
+@Component
+public class WorldBankFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(WorldBankFeed.class);
+
+    /**
+     * Firma indexada por su nombre normalizado (minúsculas).
+     */
+    private record Entry(String key, WorldBankResult result) { }
+
+    /**
+     * Copia inmutable de la lista, reemplazada completa en cada recarga.
+     *
+     * @param entries  Firmas en el orden del servicio
+     * @param names    Índice de trigramas de los nombres, también por subcadena de key (misma posición que en entries)
+     * @param loadedAt Instante de la descarga
+     */
+    private record Snapshot(List<Entry> entries, TrigramIndex<Entry> names, Instant loadedAt) {
+        private Snapshot(List<Entry> entries, Instant loadedAt) {
+            this(entries, new TrigramIndex<>(entries, entry -> entry.result().firmName(), Entry::key), loadedAt);
+        }
+    }
+
+    /** Valores distintos máximos de país, fechas y motivo que se comparten en una descarga */
+    private static final int MAX_SHARED_VALUES = 8192;
+
+    /** true si WorldBank se resuelve desde la copia en memoria (modo "feed") */
+    private final boolean enabled;
+
+    /** URL del servicio JSON que alimenta la tabla de la página */
+    private final String feedURL;
+
+    /** API key pública que la página envía al servicio */
+    private final String apiKey;
+
+    private final ObjectMapper mapper;
+
+    /** Métricas de la descarga del feed y de las búsquedas en memoria */
+    private final ScrapeMetrics metrics;
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    /** Puntaje mínimo de coincidencia para incluir firmas con nombres parecidos */
+    private final int fuzzyMinScore;
+
+    /** Copia de la lista en disco (null si el índice local está deshabilitado) */
+    private final Path exportFile;
+
+    /** Última copia descargada correctamente (null hasta la primera descarga) */
+    private volatile Snapshot snapshot;
+
+    /** Validadores y hash de la última descarga, para no parsear de nuevo una lista sin cambios */
+    private final PageCache<Entry> lastDownload = new PageCache<>(1);
+
+    /**
+     * Constructor con la configuración del feed.
+     *
+     * @param mode          Modo de la fuente WorldBank: "feed" o "browser"
+     * @param feedURL       URL del servicio JSON de firmas inhabilitadas
+     * @param apiKey        API key enviada en el encabezado "apikey" (variable SCRAPX_WORLDBANK_FEED_API_KEY;
+     *                      sin ella el feed se deshabilita y se usa Selenium)
+     * @param fuzzyMinScore Puntaje mínimo para incluir firmas con nombres parecidos (101 = solo "contiene")
+     * @param persist       true para guardar y cargar la copia en el directorio del índice local
+     * @param indexDir      Directorio del índice local
+     * @param mapper        Mapper JSON de la aplicación
+     * @param metrics       Métricas de cada etapa del scraping
+     */
+    public WorldBankFeed(@Value("${scrapx.worldbank.mode:feed}") String mode,
+                         @Value("${scrapx.worldbank.feed.url:https://apigwext.worldbank.org/dvsvc/v1.0/json/APPLICATION/ADOBE_EXPRNCE_MGR/FIRM/SANCTIONED_FIRM}") String feedURL,
+                         @Value("${scrapx.worldbank.feed.api-key:}") String apiKey,
+                         @Value("${scrapx.matching.worldbank-min-score:88}") int fuzzyMinScore,
+                         @Value("${scrapx.index.enabled:true}") boolean persist,
+                         @Value("${scrapx.index.dir:data/index}") Path indexDir,
+                         ObjectMapper mapper,
+                         ScrapeMetrics metrics) {
+        this.enabled = "feed".equalsIgnoreCase(mode) && !apiKey.isBlank();
+        if ("feed".equalsIgnoreCase(mode) && apiKey.isBlank()) {
+            log.warn("Feed de WorldBank deshabilitado: falta scrapx.worldbank.feed.api-key (SCRAPX_WORLDBANK_FEED_API_KEY)");
+        }
+        this.feedURL = feedURL;
+        this.apiKey = apiKey;
+        this.fuzzyMinScore = fuzzyMinScore;
+        this.exportFile = persist ? indexDir.resolve("worldbank-feed.jsonl") : null;
+        this.mapper = mapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Busca firmas cuyo nombre contenga el texto dado (igual que el filtro de la página)
+     * o se parezca a él con al menos fuzzyMinScore de puntaje.
+     *
+     * Sidenote: La coincidencia aproximada cubre errores de tipeo y variantes de
+     * escritura ("Aero Holding Ltd" vs "AERO HOLDINGS LIMITED") que el filtro de la
+     * página no encuentra. Los resultados se devuelven en el orden del servicio.
+     *
+     * @param entity Nombre de la entidad a buscar
+     * @return Resultados, o vacío si el feed está deshabilitado o aún no hay copia cargada
+     */
+    public Optional<List<WorldBankResult>> search(final String entity) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+
+        Timer.Sample sample = metrics.start();
+
+        // 1. Firmas con nombres parecidos, según el índice de trigramas
+        BitSet found = new BitSet(current.entries().size());
+        if (fuzzyMinScore <= 100) {
+            for (TrigramIndex.Match<Entry> match : current.names().search(NameMatcher.name(entity), fuzzyMinScore)) {
+                found.set(match.id());
+            }
+        }
+
+        // 2. Firmas cuyo nombre contiene el texto buscado, según los trigramas del nombre en minúsculas
+        for (int id : current.names().containing(entity.trim().toLowerCase(Locale.ROOT))) {
+            found.set(id);
+        }
+
+        // 3. Devolver las firmas encontradas en el orden del servicio
+        List<WorldBankResult> results = new ArrayList<>(found.cardinality());
+        for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+            results.add(current.entries().get(id).result());
+        }
+        metrics.stage(sample, "worldbank", "feed.search", ScrapeMetrics.SUCCESS);
+        return Optional.of(results);
+    }
+
+    /**
+     * Descarga la lista completa y reemplaza la copia en memoria.
+     *
+     * Sidenote: Se ejecuta al iniciar y luego cada scrapx.worldbank.feed.refresh.
+     * Un error deja intacta la copia anterior. En la primera ejecución se carga
+     * antes la copia guardada en disco, si existe.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${scrapx.worldbank.feed.refresh:6h}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (snapshot == null && exportFile != null && Files.exists(exportFile)) {
+            loadExport();
+        }
+        try {
+            List<Entry> entries = download();
+            if (entries == null) {
+                log.debug("WorldBank feed: sin cambios desde la descarga anterior");
+                return;
+            }
+            snapshot = new Snapshot(entries, Instant.now());
+            log.info("WorldBank feed: {} firmas cargadas", entries.size());
+            if (exportFile != null) {
+                saveExport(entries);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Error al descargar el feed de WorldBank: {}", e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Descarga y parsea la lista de firmas del servicio JSON.
+     *
+     * Sidenote: La petición es condicional (ETag / Last-Modified de la descarga anterior)
+     * y, si el servicio responde la lista completa, solo se parsea y se vuelve a indexar
+     * cuando su hash es distinto al de la descarga anterior.
+     *
+     * @return Firmas indexadas por nombre, o null si la lista no cambió desde la descarga anterior
+     */
+    private List<Entry> download() throws IOException, InterruptedException {
+        // 1. Construir la petición con la API key que usa la página
+        PageCache.Page<Entry> previous = lastDownload.get(feedURL);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(feedURL))
+                .GET()
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", BodyDecoder.ACCEPT_ENCODING)
+                .header("apikey", apiKey);
+        PageCache.conditionalHeaders(previous, builder::header);
+        HttpRequest req = builder.build();
+
+        // 2. Enviar la petición y validar la respuesta
+        Timer.Sample sample = metrics.start();
+        HttpResponse<InputStream> resp;
+        try {
+            resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        }
+        catch (IOException e) {
+            metrics.stage(sample, "worldbank", "feed.request", ScrapeMetrics.ERROR);
+            throw e;
+        }
+        if (resp.statusCode() == 304 && previous != null) {
+            metrics.stage(sample, "worldbank", "feed.request", ScrapeMetrics.SUCCESS);
+            metrics.revalidation("worldbank", ScrapeMetrics.NOT_MODIFIED);
+            resp.body().close();
+            return null;
+        }
+        if (resp.statusCode() != 200) {
+            metrics.stage(sample, "worldbank", "feed.request", ScrapeMetrics.ERROR);
+            resp.body().close();
+            throw new IOException("HTTP " + resp.statusCode());
+        }
+        metrics.stage(sample, "worldbank", "feed.request", ScrapeMetrics.SUCCESS);
+
+        // 3. Descomprimir el body y compararlo con la descarga anterior
+        byte[] bytes;
+        try (InputStream body = BodyDecoder.open(resp.headers(), metrics.countBytes("worldbank", resp.body()))) {
+            bytes = body.readAllBytes();
+        }
+        byte[] digest = PageCache.digest(bytes);
+        if (PageCache.unchanged(previous, digest)) {
+            metrics.revalidation("worldbank", ScrapeMetrics.UNCHANGED);
+            return null;
+        }
+        if (previous != null) {
+            metrics.revalidation("worldbank", ScrapeMetrics.CHANGED);
+        }
+
+        // 4. Parsear el JSON: {"response": {"ZPROCSUPP": [ {...}, ... ]}}
+        JsonNode firms;
+        sample = metrics.start();
+        try {
+            firms = mapper.readTree(bytes).path("response").path("ZPROCSUPP");
+        }
+        catch (RuntimeException e) {
+            metrics.stage(sample, "worldbank", "feed.parse", ScrapeMetrics.ERROR);
+            throw e;
+        }
+        metrics.stage(sample, "worldbank", "feed.parse", ScrapeMetrics.SUCCESS);
+        if (!firms.isArray() || firms.isEmpty()) {
+            throw new IOException("El feed no contiene firmas");
+        }
+
+        // 5. Mapear cada firma con las mismas columnas que muestra la tabla
+        //    (país, fechas y motivo se repiten entre firmas y comparten una sola instancia)
+        List<Entry> entries = new ArrayList<>(firms.size());
+        StringDictionary shared = new StringDictionary(MAX_SHARED_VALUES);
+        for (JsonNode firm : firms) {
+            String firmName = text(firm, "SUPP_NAME");
+            String address = Stream.of(text(firm, "SUPP_ADDR"), text(firm, "SUPP_CITY"),
+                            text(firm, "SUPP_STATE_CODE"), text(firm, "SUPP_ZIP_CODE"))
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.joining(", "));
+            String country = shared.intern(text(firm, "COUNTRY_NAME"));
+            String fromDate = shared.intern(date(text(firm, "DEBAR_FROM_DATE")));
+            String toDate = shared.intern(date(text(firm, "DEBAR_TO_DATE")));
+            String grounds = shared.intern(text(firm, "DEBAR_REASON"));
+
+            WorldBankResult result = new WorldBankResult(firmName, address, country, fromDate, toDate, grounds);
+            entries.add(new Entry(firmName.toLowerCase(Locale.ROOT), result));
+        }
+        List<Entry> loaded = List.copyOf(entries);
+        lastDownload.put(feedURL, new PageCache.Page<>(resp.headers().firstValue("ETag").orElse(null),
+                resp.headers().firstValue("Last-Modified").orElse(null), digest, loaded));
+        return loaded;
+    }
+
+    /**
+     * Carga la copia de la lista guardada en disco por una ejecución anterior.
+     */
+    private void loadExport() {
+        try (BufferedReader reader = Files.newBufferedReader(exportFile, StandardCharsets.UTF_8)) {
+            List<Entry> entries = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                WorldBankResult result = mapper.readValue(line, WorldBankResult.class);
+                entries.add(new Entry(result.firmName().toLowerCase(Locale.ROOT), result));
+            }
+            Instant savedAt = Files.getLastModifiedTime(exportFile).toInstant();
+            snapshot = new Snapshot(List.copyOf(entries), savedAt);
+            log.info("WorldBank feed: {} firmas cargadas desde disco ({})", entries.size(), savedAt);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Error al cargar la copia en disco del feed de WorldBank: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda la lista en disco, reemplazando la copia anterior de forma atómica.
+     */
+    private void saveExport(List<Entry> entries) {
+        Path tmp = exportFile.resolveSibling(exportFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(exportFile.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Entry entry : entries) {
+                    writer.write(mapper.writeValueAsString(entry.result()));
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, exportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Error al guardar la copia en disco del feed de WorldBank: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Texto del campo sin espacios extremos, o "" si no existe
+     */
+    private String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? "" : value.asString().trim();
+    }
+
+    /**
+     * @return Fecha sin la parte horaria (el servicio devuelve "yyyy-MM-ddT00:00:00")
+     */
+    private String date(String value) {
+        int time = value.indexOf('T');
+        return time > 0 ? value.substring(0, time) : value;
+    }
+}
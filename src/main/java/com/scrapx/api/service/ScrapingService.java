@@ -1,66 +1,267 @@
 package com.scrapx.api.service;
 
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.cache.CacheStats;
+import com.scrapx.api.cache.ResultCache;
+import com.scrapx.api.cluster.Cluster;
 import com.scrapx.api.dto.*;
-import com.scrapx.api.scraping.WebScraper;
+import com.scrapx.api.index.IndexStats;
+import com.scrapx.api.index.SourceIndex;
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.matching.Matchable;
+import com.scrapx.api.matching.NameMatcher;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import com.scrapx.api.resilience.SourceGuard;
+import com.scrapx.api.resilience.SourceStatus;
+import com.scrapx.api.resilience.SourceUnavailableException;
+import com.scrapx.api.scraping.ScrapingException;
+import com.scrapx.api.source.AsyncSource;
+import com.scrapx.api.source.PageableSource;
+import com.scrapx.api.source.ScrapeSource;
+import com.scrapx.api.source.SourceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Servicio para realizar scraping de múltiples fuentes externas y devolver resultados
  * de manera estructurada a través de DTOs.
  *
- * Esta clase contiene los métodos que interactúan con el scraper para obtener
- * los resultados de tres fuentes:
+ * Esta clase contiene los métodos que interactúan con las fuentes registradas
+ * (SourceRegistry) para obtener sus resultados:
  * 1) OffShore Leaks
  * 2) World Bank
  * 3) OFAC (Office of Foreign Assets Control)
+ *
+ * Sidenote: Todas las fuentes pasan por el mismo flujo (caché, índice local,
+ * protección de la fuente, búsqueda, métricas y puntaje de coincidencia), con
+ * la configuración que declara cada una en ScrapeSource.settings().
+ * En modo clúster, cada búsqueda se resuelve en el nodo dueño de su llave (Cluster).
  */
 @Service
 public class ScrapingService {
-    private final WebScraper scraper;
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapingService.class);
+    /** Resultados pedidos por adelantado a una fuente paginada en streaming */
+    private static final int STREAM_PREFETCH = 200;
+
+    private final SourceRegistry sources;
+    private final ExecutorService executor;
+    private final ResultCache cache;
+    private final SourceGuard guard;
+    private final SourceIndex index;
+    private final ScrapeMetrics metrics;
+    private final Cluster cluster;
+
+    /** Búsquedas del índice actualizadas en cada ejecución de refreshIndex() */
+    private final int refreshBatch;
+
+    /** Puntaje de coincidencia local mínimo para devolver un resultado */
+    private final int minMatchScore;
 
     /**
-     * Constructor que inyecta el scraper para realizar las búsquedas.
+     * Constructor que inyecta las fuentes para realizar las búsquedas.
      *
-     * @param scraper Instancia de WebScraper para interactuar con las fuentes externas.
+     * @param sources       Fuentes registradas, con su configuración.
+     * @param executor      Executor usado para consultar las fuentes en paralelo.
+     * @param cache         Caché de resultados por fuente, entidad y score.
+     * @param guard         Límite de concurrencia y circuit breaker de cada fuente.
+     * @param index         Índice local y persistente de los resultados de cada fuente.
+     * @param metrics       Métricas de las búsquedas de cada fuente.
+     * @param cluster       Nodos del clúster y dueño de cada búsqueda.
+     * @param refreshBatch  Búsquedas del índice actualizadas por ejecución.
+     * @param minMatchScore Puntaje de coincidencia local mínimo de los resultados.
      */
-    public ScrapingService(WebScraper scraper) {
-        this.scraper = scraper;
+    public ScrapingService(SourceRegistry sources,
+                           ExecutorService executor,
+                           ResultCache cache,
+                           SourceGuard guard,
+                           SourceIndex index,
+                           ScrapeMetrics metrics,
+                           Cluster cluster,
+                           @Value("${scrapx.index.refresh-batch:20}") int refreshBatch,
+                           @Value("${scrapx.matching.min-score:0}") int minMatchScore) {
+        this.sources = sources;
+        this.executor = executor;
+        this.cache = cache;
+        this.guard = guard;
+        this.index = index;
+        this.metrics = metrics;
+        this.cluster = cluster;
+        this.refreshBatch = refreshBatch;
+        this.minMatchScore = minMatchScore;
     }
 
     /**
      * Realiza scraping de las tres fuentes (OffShore, WorldBank, OFAC) y devuelve
      * una respuesta agregada con los resultados obtenidos de cada fuente.
      *
+     * Sidenote: Las búsquedas se lanzan en paralelo y cada una tiene su propio
+     * plazo (settings().timeout()), medido desde el inicio de la petición. Si una fuente
+     * no responde a tiempo, su tarea se cancela y se marca con código 504, sin afectar
+     * a las demás fuentes. Así, la latencia total depende de la fuente más lenta y no
+     * de la suma de todas.
+     *
      * @param entity El nombre de la entidad a buscar en las fuentes.
      * @param score  Un parámetro adicional para la búsqueda en OFAC, como el score mínimo.
      * @return ScrapingResponse Con los resultados de las tres fuentes (OffShore, WorldBank, OFAC).
      */
     public ScrapingResponse scrap(String entity, String score) {
-        // Obtener resultados de OffShore, WorldBank y OFAC
-        List<OffShoreResult> offShore = scraper.searchOffShore(entity);
-        List<WorldBankResult> worldBank = scraper.searchWorldBank(entity);
-        List<OFACResults> ofac = scraper.searchOFAC(entity, score);
+        long start = System.nanoTime();
+
+        // 1. Lanzar las búsquedas de todas las fuentes en paralelo
+        // (las fuentes asíncronas no ocupan un hilo del executor)
+        Map<ScrapeSource<?>, Future<? extends List<?>>> tasks = new LinkedHashMap<>();
+        for (ScrapeSource<?> source : sources.all()) {
+            tasks.put(source, source instanceof AsyncSource<?> async
+                    ? searchAsync(async, entity, score)
+                    : executor.submit(() -> search(source, entity, score)));
+        }
+
+        try {
+            // 2. Esperar a cada fuente hasta su plazo y retornar los resultados estructurados
+            Map<String, SourceResponse<?>> responses = new LinkedHashMap<>();
+            tasks.forEach((source, task) -> responses.put(source.name(),
+                    await(source.name(), task, start, source.settings().timeout())));
+            return new ScrapingResponse(
+                    response(responses, "offshore"),
+                    response(responses, "worldbank"),
+                    response(responses, "ofac")
+            );
+        }
+        finally {
+            // 3. Ninguna tarea sobrevive a la petición que la lanzó (un scraping compartido
+            // en la caché sigue en el executor para las demás peticiones que lo esperan)
+            tasks.values().forEach(task -> task.cancel(true));
+        }
+    }
+
+    /**
+     * Realiza scraping de todas las fuentes en paralelo y emite cada resultado en cuanto
+     * la fuente lo produce, seguido de un frame "summary" por fuente.
+     *
+     * Sidenote: Los plazos por fuente son los mismos que en scrap(). Los frames de
+     * las fuentes se escriben de forma serializada, y una fuente que agotó su plazo
+     * ya no puede emitir resultados después de su frame "summary".
+     *
+     * @param entity El nombre de la entidad a buscar en las fuentes.
+     * @param score  El score mínimo para la búsqueda en OFAC.
+     * @param limit  Resultados máximos por fuente (0 = sin límite).
+     * @param out    Consumidor de los frames (p. ej. el writer de la respuesta NDJSON).
+     */
+    public void scrapStream(String entity, String score, long limit, Consumer<StreamFrame> out) {
+        long start = System.nanoTime();
 
-        // Asignar código de respuesta y mensaje para OffShore
-        int offShoreCode = offShore.isEmpty() ? 404 : 200;
-        String offShoreMessage = offShore.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
+        // 1. Lanzar las búsquedas en paralelo, cada una con su propio canal de salida
+        NameMatcher.Name query = NameMatcher.name(entity);
+        Map<ScrapeSource<?>, FrameSink> sinks = new LinkedHashMap<>();
+        Map<ScrapeSource<?>, Future<Boolean>> tasks = new LinkedHashMap<>();
+        for (ScrapeSource<?> source : sources.all()) {
+            FrameSink sink = new FrameSink(source.field(), out, limit);
+            sinks.put(source, sink);
+            tasks.put(source, executor.submit(() -> streamSource(source, entity, score, query, sink)));
+        }
 
-        // Asignar código de respuesta y mensaje para WorldBank
-        int worldBankCode = worldBank.isEmpty() ? 404 : 200;
-        String worldBankMessage = worldBank.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
+        try {
+            // 2. Esperar a cada fuente hasta su plazo y cerrar su canal con el frame "summary"
+            tasks.forEach((source, task) ->
+                    awaitStream(source.name(), task, sinks.get(source), start, source.settings().timeout()));
+        }
+        finally {
+            tasks.values().forEach(task -> task.cancel(true));
+        }
+    }
 
-        // Asignar código de respuesta y mensaje para OFAC
-        int ofacCode = ofac.isEmpty() ? 404 : 200;
-        String ofacMessage = ofac.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
+    /**
+     * Realiza scraping de una sola fuente en streaming, hasta limit resultados.
+     *
+     * Sidenote: En las fuentes paginadas (PageableSource) cada página se pide
+     * solo cuando el writer de la respuesta necesita sus resultados, por lo que un
+     * cliente lento frena el recorrido en lugar de acumular resultados en memoria, y
+     * al llegar a limit no se descargan más páginas. En las demás fuentes la búsqueda
+     * termina de todos modos y los resultados que superan limit se descartan.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity El nombre de la entidad a buscar.
+     * @param score  El score mínimo de la búsqueda (solo lo usan las fuentes que lo soportan).
+     * @param limit  Resultados máximos (0 = sin límite).
+     * @param out    Consumidor de los frames (p. ej. el writer de la respuesta NDJSON).
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre.
+     */
+    public void scrapSourceStream(String source, String entity, String score, long limit, Consumer<StreamFrame> out) {
+        ScrapeSource<?> scrapeSource = sources.get(source);
+        long start = System.nanoTime();
+        FrameSink sink = new FrameSink(scrapeSource.field(), out, limit);
+        Future<Boolean> task = executor.submit(() ->
+                streamSource(scrapeSource, entity, score, NameMatcher.name(entity), sink));
+        try {
+            awaitStream(scrapeSource.name(), task, sink, start, scrapeSource.settings().timeout());
+        }
+        finally {
+            task.cancel(true);
+        }
+    }
 
-        // Retornar los resultados estructurados con código, mensaje y resultados de cada fuente
-        return new ScrapingResponse(
-                new SourceResponse<>(offShoreCode, offShoreMessage, offShore.size(), offShore),
-                new SourceResponse<>(worldBankCode, worldBankMessage, worldBank.size(), worldBank),
-                new SourceResponse<>(ofacCode, ofacMessage, ofac.size(), ofac)
-        );
+    /**
+     * @param source Nombre de la fuente.
+     * @return true si hay una fuente registrada con ese nombre.
+     */
+    public boolean hasSource(String source) {
+        return sources.contains(source);
+    }
+
+    /**
+     * Realiza scraping de una sola fuente y devuelve los resultados obtenidos.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity El nombre de la entidad a buscar.
+     * @param score  El score mínimo de la búsqueda (solo lo usan las fuentes que lo soportan).
+     * @return SourceResponse Con los resultados de la fuente.
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre.
+     */
+    public SourceResponse<?> scrapSource(String source, String entity, String score) {
+        return scrapSource(sources.get(source), entity, score);
+    }
+
+    /**
+     * Variante asíncrona de scrapSource: las fuentes asíncronas no ocupan ningún hilo
+     * mientras esperan a la red; las demás se ejecutan en el executor compartido.
+     *
+     * Sidenote: Pasa por la caché, el índice local y la protección de la fuente igual que
+     * scrapSource. Si la búsqueda supera el plazo de la fuente, responde con código 504.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity El nombre de la entidad a buscar.
+     * @param score  El score mínimo de la búsqueda (solo lo usan las fuentes que lo soportan).
+     * @return SourceResponse Con los resultados de la fuente.
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre.
+     */
+    public CompletableFuture<? extends SourceResponse<?>> scrapSourceAsync(String source, String entity, String score) {
+        return scrapSourceAsync(sources.get(source), entity, score);
     }
 
     /**
@@ -70,15 +271,7 @@ public class ScrapingService {
      * @return SourceResponse Con los resultados de OffShore.
      */
     public SourceResponse<OffShoreResult> scrapOffShore(String entity) {
-        // Obtener resultados de OffShore
-        List<OffShoreResult> offShore = scraper.searchOffShore(entity);
-
-        // Asignar código de respuesta y mensaje para OffShore
-        int offShoreCode = offShore.isEmpty() ? 404 : 200;
-        String offShoreMessage = offShore.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
-
-        // Retornar los resultados de OffShore con el código de respuesta y mensaje
-        return new SourceResponse<>(offShoreCode, offShoreMessage, offShore.size(), offShore);
+        return scrapSource(sources.get("offshore", OffShoreResult.class), entity, null);
     }
 
     /**
@@ -88,15 +281,7 @@ public class ScrapingService {
      * @return SourceResponse Con los resultados de WorldBank.
      */
     public SourceResponse<WorldBankResult> scrapWorldBank(String entity) {
-        // Obtener resultados de WorldBank
-        List<WorldBankResult> worldBank = scraper.searchWorldBank(entity);
-
-        // Asignar código de respuesta y mensaje para WorldBank
-        int worldBankCode = worldBank.isEmpty() ? 404 : 200;
-        String worldBankMessage = worldBank.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
-
-        // Retornar los resultados de WorldBank con el código de respuesta y mensaje
-        return new SourceResponse<>(worldBankCode, worldBankMessage, worldBank.size(), worldBank);
+        return scrapSource(sources.get("worldbank", WorldBankResult.class), entity, null);
     }
 
     /**
@@ -107,14 +292,637 @@ public class ScrapingService {
      * @return SourceResponse Con los resultados de OFAC.
      */
     public SourceResponse<OFACResults> scrapOFAC(String entity, String score) {
-        // Obtener resultados de OFAC
-        List<OFACResults> ofac = scraper.searchOFAC(entity, score);
+        return scrapSource(sources.get("ofac", OFACResults.class), entity, score);
+    }
+
+    /**
+     * Variante asíncrona de scrapOFAC: devuelve un future que se completa cuando llega la
+     * respuesta de OFAC, sin que ningún hilo quede esperando a la red.
+     *
+     * @param entity El nombre de la entidad a buscar en OFAC.
+     * @param score  El score mínimo para la búsqueda en OFAC.
+     * @return SourceResponse Con los resultados de OFAC.
+     */
+    public CompletableFuture<SourceResponse<OFACResults>> scrapOFACAsync(String entity, String score) {
+        return scrapSourceAsync(sources.get("ofac", OFACResults.class), entity, score);
+    }
+
+    /**
+     * Consulta una fuente en vivo y devuelve solo los resultados nuevos o que ya no aparecen
+     * respecto de la consulta anterior de la misma búsqueda.
+     *
+     * Sidenote: La consulta anterior es la guardada en el índice local (sobrevive a los
+     * reinicios), por lo que un trabajo diario que repite las mismas búsquedas recibe
+     * solo los cambios del día. La consulta siempre va a la fuente (sin caché ni índice),
+     * pero las páginas que no cambiaron no se vuelven a descargar ni a parsear. Su
+     * resultado reemplaza al anterior en el índice y en la caché, también si no tiene
+     * resultados: una entidad que salió de la lista aparece con todos sus resultados
+     * anteriores en removed. Un fallo de la fuente se responde con 404 o 503 y no
+     * reemplaza la consulta anterior.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity El nombre de la entidad a buscar.
+     * @param score  El score mínimo de la búsqueda (solo lo usan las fuentes que lo soportan).
+     * @return ChangeResponse Con los resultados agregados y quitados.
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre.
+     */
+    public ChangeResponse<?> scrapChanges(String source, String entity, String score) {
+        return scrapChanges(sources.get(source), entity, score);
+    }
+
+    /**
+     * Variante tipada de scrapChanges.
+     */
+    private <T extends Matchable<T>> ChangeResponse<T> scrapChanges(ScrapeSource<T> source, String entity, String score) {
+        CacheKey key = source.key(entity, score);
+
+        // 1. Consulta anterior (null si es la primera o el índice está deshabilitado)
+        SourceIndex.Snapshot<T> previous = index.last(key);
+
+        // 2. Consulta en vivo
+        List<T> current;
+        try {
+            current = scrape(source, key);
+        }
+        catch (SourceUnavailableException e) {
+            return ChangeResponse.error(503, e.getMessage());
+        }
+        catch (ScrapingException e) {
+            return ChangeResponse.error(404, "No se pudo establecer la conexión");
+        }
+        Instant fetchedAt = Instant.now();
+        index.put(key, current);
+        cache.put(key, current);
+
+        // 3. Comparar las filas tal como las devuelve la fuente (sin matchScore)
+        Set<T> before = previous == null ? Set.of() : new HashSet<>(previous.rows());
+        Set<T> after = new HashSet<>(current);
+        List<T> added = current.stream().filter(row -> !before.contains(row)).distinct().toList();
+        List<T> removed = previous == null ? List.of()
+                : previous.rows().stream().filter(row -> !after.contains(row)).distinct().toList();
+        List<T> kept = current.stream().filter(before::contains).distinct().toList();
+
+        // 4. Aplicar el filtro de la fuente y el puntaje de coincidencia local
+        Predicate<T> filter = row -> source.accepts(row, score);
+        List<T> addedHits = matched(entity, added, filter);
+        List<T> removedHits = matched(entity, removed, filter);
+        int unchanged = matched(entity, kept, filter).size();
+        String message = addedHits.isEmpty() && removedHits.isEmpty()
+                ? "No hay cambios desde la consulta anterior" : "Se encontraron cambios desde la consulta anterior";
+        return new ChangeResponse<>(200, message, previous == null ? null : previous.fetchedAt(), fetchedAt,
+                addedHits.size(), removedHits.size(), unchanged, addedHits, removedHits);
+    }
+
+    /**
+     * Canal de salida de una fuente en el endpoint en streaming.
+     *
+     * Sidenote: Todas las fuentes escriben sobre el mismo consumidor, por lo que
+     * la escritura se sincroniza sobre él. Una vez emitido el "summary" el canal
+     * queda cerrado y descarta los resultados que lleguen tarde.
+     */
+    private static final class FrameSink implements Consumer<Object> {
+        private final String source;
+        private final Consumer<StreamFrame> out;
+        private final long limit;
+        private boolean closed;
+        private int numHits;
+
+        private FrameSink(String source, Consumer<StreamFrame> out, long limit) {
+            this.source = source;
+            this.out = out;
+            this.limit = limit <= 0 ? Long.MAX_VALUE : limit;
+        }
+
+        /**
+         * @return Resultados que aún se pueden emitir (Long.MAX_VALUE si no hay límite)
+         */
+        private long remaining() {
+            synchronized (out) {
+                return limit == Long.MAX_VALUE ? limit : limit - numHits;
+            }
+        }
+
+        /**
+         * @return true si el canal ya no acepta resultados (cerrado o en el límite)
+         */
+        private boolean full() {
+            synchronized (out) {
+                return closed || numHits >= limit;
+            }
+        }
+
+        @Override
+        public void accept(Object result) {
+            synchronized (out) {
+                if (!closed && numHits < limit) {
+                    numHits++;
+                    out.accept(StreamFrame.result(source, result));
+                }
+            }
+        }
+
+        private void close(Integer code, String message) {
+            synchronized (out) {
+                if (!closed) {
+                    closed = true;
+                    int finalCode = code != null ? code : (numHits == 0 ? 404 : 200);
+                    String finalMessage = message != null ? message
+                            : (numHits == 0 ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente");
+                    out.accept(StreamFrame.summary(source, finalCode, finalMessage, numHits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Emite los resultados de una fuente: desde la caché o el índice si hay una entrada
+     * vigente, o a medida que la fuente los produce.
+     *
+     * Sidenote: Los resultados emitidos en vivo no se guardan en el índice, ya que
+     * no se acumulan; el índice se alimenta de las búsquedas de los demás endpoints.
+     * Las fuentes paginadas se leen con publish(), pidiendo los resultados a medida
+     * que se escriben, hasta que el canal llega a su límite.
+     *
+     * @param source Fuente a consultar
+     * @param entity Nombre buscado
+     * @param score  Score solicitado
+     * @param query  Nombre buscado, normalizado (para el puntaje de coincidencia)
+     * @param out    Canal de salida de la fuente
+     * @return true si la búsqueda terminó sin errores
+     * @throws SourceUnavailableException Si la fuente rechazó la búsqueda
+     * @throws ScrapingException          Si la búsqueda falló
+     */
+    private <T extends Matchable<T>> boolean streamSource(ScrapeSource<T> source, String entity, String score,
+                                                          NameMatcher.Name query, FrameSink out) {
+        CacheKey key = source.key(entity, score);
+        Consumer<T> sink = row -> {
+            T scored = match(query, row, r -> source.accepts(r, score));
+            if (scored != null) {
+                out.accept(scored);
+            }
+        };
+
+        List<T> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            cached = index.getIfFresh(key);
+        }
+        if (cached != null) {
+            for (T row : cached) {
+                if (out.full()) {
+                    break;
+                }
+                sink.accept(row);
+            }
+            return true;
+        }
+        if (source instanceof PageableSource<T> pageable) {
+            return guard.call(source.name(), () -> pull(pageable, key, out, sink));
+        }
+        return guard.call(source.name(), () -> {
+            int[] rows = new int[1];
+            if (!source.search(key, row -> {
+                rows[0]++;
+                sink.accept(row);
+            })) {
+                throw new ScrapingException(source.name());
+            }
+            metrics.rows(source.name(), rows[0]);
+            return true;
+        });
+    }
+
+    /**
+     * Lee los resultados de una fuente paginada a medida que el canal los escribe.
+     *
+     * Sidenote: El límite se pasa a la fuente solo si no hay un puntaje mínimo, ya que
+     * con él algunas filas no llegan al canal; en ese caso el recorrido se cancela
+     * cuando el canal llega a su límite. Si el hilo se interrumpe (la búsqueda agotó
+     * su plazo), la suscripción se cancela y las páginas en vuelo se descartan.
+     *
+     * @return true si la búsqueda terminó sin errores
+     * @throws ScrapingException Si la fuente falló o el hilo se interrumpió
+     */
+    private <T extends Matchable<T>> boolean pull(PageableSource<T> source, CacheKey key, FrameSink out, Consumer<T> sink) {
+        PullSubscriber<T> subscriber = new PullSubscriber<>(STREAM_PREFETCH);
+        long limit = minMatchScore > 0 || out.remaining() == Long.MAX_VALUE ? 0 : out.remaining();
+        source.publish(key, limit).subscribe(subscriber);
+        int rows = 0;
+        try {
+            T row;
+            while (!out.full() && (row = subscriber.take()) != null) {
+                rows++;
+                sink.accept(row);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingException(source.name());
+        }
+        catch (CompletionException e) {
+            log.warn("Error durante el scraping de {}", source.name(), e.getCause());
+            throw new ScrapingException(source.name());
+        }
+        finally {
+            subscriber.cancel();
+        }
+        metrics.rows(source.name(), rows);
+        return true;
+    }
+
+    /**
+     * Suscriptor que entrega los resultados de un Flow.Publisher al hilo que los lee.
+     *
+     * Sidenote: Pide prefetch resultados al suscribirse y repone la mitad cada vez que
+     * se leen prefetch / 2, por lo que nunca guarda más de prefetch resultados: el
+     * ritmo lo marca el hilo lector (p. ej. el writer de la respuesta).
+     */
+    private static final class PullSubscriber<T> implements Flow.Subscriber<T> {
+        /** Señal de fin de los resultados en la cola */
+        private static final Object COMPLETE = new Object();
+
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private final int prefetch;
+        private volatile Flow.Subscription subscription;
+        private int consumed;
+        private boolean done;
+
+        private PullSubscriber(int prefetch) {
+            this.prefetch = Math.max(2, prefetch);
+        }
+
+        /** Error del publisher, guardado en la cola después de los resultados */
+        private record Failure(Throwable error) {
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
 
-        // Asignar código de respuesta y mensaje para OFAC
-        int ofacCode = ofac.isEmpty() ? 404 : 200;
-        String ofacMessage = ofac.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
+        @Override
+        public void onNext(T item) {
+            queue.add(item);
+        }
 
-        // Retornar los resultados de OFAC con el código de respuesta y mensaje
-        return new SourceResponse<>(ofacCode, ofacMessage, ofac.size(), ofac);
+        @Override
+        public void onError(Throwable error) {
+            queue.add(new Failure(error));
+        }
+
+        @Override
+        public void onComplete() {
+            queue.add(COMPLETE);
+        }
+
+        /**
+         * @return Siguiente resultado, o null si el publisher terminó
+         * @throws InterruptedException Si el hilo se interrumpe mientras espera
+         * @throws CompletionException  Si el publisher terminó con un error
+         */
+        @SuppressWarnings("unchecked")
+        private T take() throws InterruptedException {
+            if (done) {
+                return null;
+            }
+            Object item = queue.take();
+            if (item == COMPLETE) {
+                done = true;
+                return null;
+            }
+            if (item instanceof Failure failure) {
+                done = true;
+                throw new CompletionException(failure.error());
+            }
+            if (++consumed == prefetch / 2) {
+                consumed = 0;
+                subscription.request(prefetch / 2);
+            }
+            return (T) item;
+        }
+
+        private void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /**
+     * Espera a que termine una búsqueda en streaming y emite su frame "summary".
+     *
+     * @param source  Nombre de la fuente.
+     * @param task    Tarea de búsqueda en ejecución.
+     * @param sink    Canal de salida de la fuente.
+     * @param start   Instante (System.nanoTime) en que se lanzaron las búsquedas.
+     * @param timeout Plazo máximo de la fuente.
+     */
+    private void awaitStream(String source, Future<Boolean> task, FrameSink sink, long start, Duration timeout) {
+        long remaining = timeout.toNanos() - (System.nanoTime() - start);
+        try {
+            task.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            sink.close(null, null);
+        }
+        catch (TimeoutException e) {
+            metrics.timeout(source);
+            sink.close(504, "Se agotó el tiempo de espera de la fuente");
+            task.cancel(true);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sink.close(404, "No se pudo establecer la conexión");
+            task.cancel(true);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof SourceUnavailableException rejected) {
+                sink.close(503, rejected.getMessage());
+                return;
+            }
+            log.warn("Error durante el scraping: {}", e.getCause().getMessage());
+            sink.close(404, "No se pudo establecer la conexión");
+        }
+    }
+
+    /**
+     * Resuelve en este nodo una búsqueda reenviada por otro nodo del clúster, pasando
+     * por la caché, el índice local y la protección de la fuente, sin volver a reenviarla.
+     *
+     * @param source Nombre de la fuente (offshore, worldbank, ofac).
+     * @param entity El nombre de la entidad a buscar (normalizado por el nodo que la reenvía).
+     * @param score  El score de la llave de la búsqueda.
+     * @return Resultados de la fuente, sin el puntaje de coincidencia.
+     * @throws IllegalArgumentException   Si no hay una fuente con ese nombre.
+     * @throws SourceUnavailableException Si la fuente rechazó la búsqueda.
+     * @throws ScrapingException          Si la búsqueda falló.
+     */
+    public List<?> clusterRows(String source, String entity, String score) {
+        return localRows(sources.get(source), entity, score);
+    }
+
+    private <T extends Matchable<T>> List<T> localRows(ScrapeSource<T> source, String entity, String score) {
+        CacheKey key = CacheKey.of(source.name(), entity, score);
+        return cache.get(key, () -> index.get(key, () -> scrape(source, key)));
+    }
+
+    /**
+     * Devuelve las métricas de la caché de resultados.
+     *
+     * @return CacheStats Con hits, misses, esperas compartidas y descartes.
+     */
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Devuelve el estado del índice local de cada fuente.
+     *
+     * @return Lista con búsquedas, filas y búsquedas vencidas de cada fuente.
+     */
+    public List<IndexStats> indexStats() {
+        return index.stats();
+    }
+
+    /**
+     * Actualiza en segundo plano las búsquedas más antiguas del índice.
+     *
+     * Sidenote: Cada ejecución actualiza como máximo refreshBatch búsquedas, una a la
+     * vez y pasando por la protección de cada fuente, de modo que el índice se renueva
+     * de forma incremental sin competir con las peticiones de los clientes.
+     */
+    @Scheduled(initialDelayString = "${scrapx.index.refresh:10m}", fixedDelayString = "${scrapx.index.refresh:10m}")
+    public void refreshIndex() {
+        for (CacheKey key : index.refreshCandidates(refreshBatch)) {
+            try {
+                index.put(key, scrape(sources.get(key.source()), key));
+                index.markRefreshed(key);
+            }
+            catch (SourceUnavailableException | ScrapingException | IllegalArgumentException e) {
+                log.warn("No se pudo actualizar el índice de {}: {}", key.source(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Devuelve el estado de protección (circuito y límite de concurrencia) de cada fuente.
+     *
+     * @return Lista con el estado de cada fuente registrada.
+     */
+    public List<SourceStatus> sourceStatus() {
+        return guard.status();
+    }
+
+    /**
+     * Busca en una fuente y asigna su código de respuesta (503 si la fuente está caída o saturada).
+     */
+    private <T extends Matchable<T>> SourceResponse<T> scrapSource(ScrapeSource<T> source, String entity, String score) {
+        return respond(() -> search(source, entity, score));
+    }
+
+    /**
+     * Variante asíncrona de scrapSource, con el plazo de la fuente.
+     */
+    private <T extends Matchable<T>> CompletableFuture<SourceResponse<T>> scrapSourceAsync(ScrapeSource<T> source,
+                                                                                          String entity, String score) {
+        CompletableFuture<List<T>> search = source instanceof AsyncSource<T> async
+                ? searchAsync(async, entity, score)
+                : CompletableFuture.supplyAsync(() -> search(source, entity, score), executor);
+        return search
+                .orTimeout(source.settings().timeout().toNanos(), TimeUnit.NANOSECONDS)
+                .handle((results, e) -> {
+                    if (e == null) {
+                        return toResponse(results);
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        metrics.timeout(source.name());
+                        return new SourceResponse<>(504, "Se agotó el tiempo de espera de la fuente", 0, new ArrayList<>());
+                    }
+                    if (cause instanceof SourceUnavailableException rejected) {
+                        return new SourceResponse<>(503, rejected.getMessage(), 0, new ArrayList<>());
+                    }
+                    if (!(cause instanceof ScrapingException)) {
+                        log.warn("Error durante el scraping: {}", cause.getMessage());
+                    }
+                    return toResponse(new ArrayList<>());
+                });
+    }
+
+    /**
+     * Busca en una fuente pasando por la caché de resultados, el índice local y la protección de la fuente.
+     */
+    private <T extends Matchable<T>> List<T> search(ScrapeSource<T> source, String entity, String score) {
+        CacheKey key = source.key(entity, score);
+        return matched(entity, rows(source, key), r -> source.accepts(r, score));
+    }
+
+    /**
+     * Devuelve los resultados de una búsqueda (sin el puntaje de coincidencia): los pide
+     * al nodo dueño de la llave o, si es este nodo o el dueño no responde, los resuelve localmente.
+     */
+    private <T extends Matchable<T>> List<T> rows(ScrapeSource<T> source, CacheKey key) {
+        String owner = cluster.owner(key);
+        if (owner != null) {
+            List<T> rows = cluster.rows(owner, key, source.settings().timeout());
+            if (rows != null) {
+                return rows;
+            }
+        }
+        return cache.get(key, () -> index.get(key, () -> scrape(source, key)));
+    }
+
+    /**
+     * Variante asíncrona de search: la caché, el índice y la protección de la fuente
+     * se encadenan sobre la búsqueda asíncrona de la fuente (o sobre la respuesta del dueño).
+     */
+    private <T extends Matchable<T>> CompletableFuture<List<T>> searchAsync(AsyncSource<T> source, String entity, String score) {
+        CacheKey key = source.key(entity, score);
+        String owner = cluster.owner(key);
+        CompletableFuture<List<T>> rows = owner == null ? localRowsAsync(source, key)
+                : cluster.<T>rowsAsync(owner, key, source.settings().timeout())
+                        .thenCompose(remote -> remote != null ? CompletableFuture.completedFuture(remote) : localRowsAsync(source, key));
+        return rows.thenApply(found -> matched(entity, found, r -> source.accepts(r, score)));
+    }
+
+    /**
+     * Variante asíncrona de la búsqueda local: caché, índice y protección de la fuente.
+     */
+    private <T extends Matchable<T>> CompletableFuture<List<T>> localRowsAsync(AsyncSource<T> source, CacheKey key) {
+        return cache.getAsync(key, () -> index.getAsync(key,
+                () -> guard.callAsync(source.name(), () -> source.searchAsync(key)
+                        .thenApply(rows -> {
+                            metrics.rows(source.name(), rows.size());
+                            return rows;
+                        }))));
+    }
+
+    /**
+     * Asigna el puntaje de coincidencia local a cada resultado y descarta los que no alcanzan el mínimo.
+     *
+     * @param entity Nombre buscado
+     * @param rows   Resultados de la fuente, en su orden original
+     * @param filter Filtro adicional de la fuente
+     * @return Resultados con matchScore, en el mismo orden
+     */
+    private <T extends Matchable<T>> List<T> matched(String entity, List<T> rows, Predicate<T> filter) {
+        NameMatcher.Name query = NameMatcher.name(entity);
+        List<T> results = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            T scored = match(query, row, filter);
+            if (scored != null) {
+                results.add(scored);
+            }
+        }
+        // Una copia vencida del índice conserva su marca hasta la respuesta
+        Instant fetchedAt = StaleRows.fetchedAt(rows);
+        return fetchedAt == null ? results : new StaleRows<>(results, fetchedAt);
+    }
+
+    /**
+     * @return Resultado con su matchScore, o null si no pasa el filtro o no alcanza minMatchScore
+     */
+    private <T extends Matchable<T>> T match(NameMatcher.Name query, T row, Predicate<T> filter) {
+        if (!filter.test(row)) {
+            return null;
+        }
+        T scored = NameMatcher.scored(query, row);
+        return scored.matchScore() >= minMatchScore ? scored : null;
+    }
+
+    /**
+     * Ejecuta una búsqueda de la fuente dentro de su protección (sin caché ni índice).
+     *
+     * @param source Fuente a consultar
+     * @param key    Llave de la búsqueda
+     * @return Resultados de la búsqueda
+     * @throws SourceUnavailableException Si la fuente rechazó la búsqueda
+     * @throws ScrapingException          Si la búsqueda falló (no se guarda en la caché)
+     */
+    private <T extends Matchable<T>> List<T> scrape(ScrapeSource<T> source, CacheKey key) {
+        return guard.call(source.name(), () -> {
+            List<T> results = new ArrayList<>();
+            if (!source.search(key, results::add)) {
+                throw new ScrapingException(source.name());
+            }
+            metrics.rows(source.name(), results.size());
+            return results;
+        });
+    }
+
+    /**
+     * Ejecuta una búsqueda de una sola fuente y asigna su código de respuesta.
+     *
+     * @param search Búsqueda a ejecutar
+     * @return SourceResponse Con los resultados, o con código 503 si la fuente rechazó la búsqueda.
+     */
+    private <T> SourceResponse<T> respond(Supplier<List<T>> search) {
+        try {
+            return toResponse(search.get());
+        }
+        catch (SourceUnavailableException e) {
+            return new SourceResponse<>(503, e.getMessage(), 0, new ArrayList<>());
+        }
+        catch (ScrapingException e) {
+            return toResponse(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Espera el resultado de una búsqueda lanzada en paralelo hasta que se cumpla su plazo.
+     *
+     * @param source  Nombre de la fuente.
+     * @param task    Tarea de búsqueda en ejecución.
+     * @param start   Instante (System.nanoTime) en que se lanzaron las búsquedas.
+     * @param timeout Plazo máximo de la fuente.
+     * @return SourceResponse Con los resultados, o con código 504 si se agotó el plazo.
+     */
+    private SourceResponse<?> await(String source, Future<? extends List<?>> task, long start, Duration timeout) {
+        long remaining = timeout.toNanos() - (System.nanoTime() - start);
+        try {
+            return toResponse(task.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+        }
+        catch (TimeoutException e) {
+            metrics.timeout(source);
+            task.cancel(true);
+            return new SourceResponse<>(504, "Se agotó el tiempo de espera de la fuente", 0, new ArrayList<>());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(true);
+            return toResponse(new ArrayList<>());
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof SourceUnavailableException rejected) {
+                return new SourceResponse<>(503, rejected.getMessage(), 0, new ArrayList<>());
+            }
+            log.warn("Error durante el scraping: {}", e.getCause().getMessage());
+            return toResponse(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @return Respuesta de una fuente en scrap(), o null si la fuente no está registrada
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> SourceResponse<T> response(Map<String, SourceResponse<?>> responses, String source) {
+        return (SourceResponse<T>) responses.get(source);
+    }
+
+    /**
+     * Asigna el código de respuesta y el mensaje a partir de los resultados de una fuente.
+     *
+     * @param results Resultados obtenidos de la fuente (StaleRows si provienen de una copia vencida del índice).
+     * @return SourceResponse Con código 200 si hay resultados o 404 en caso contrario; marcada con stale
+     *         y fetchedAt si los resultados provienen de una copia vencida.
+     */
+    private <T> SourceResponse<T> toResponse(List<T> results) {
+        int code = results.isEmpty() ? 404 : 200;
+        Instant fetchedAt = StaleRows.fetchedAt(results);
+        if (fetchedAt != null) {
+            return new SourceResponse<>(code, "La fuente no respondió: resultados de la copia del índice local del " + fetchedAt,
+                    results.size(), results, true, fetchedAt);
+        }
+        String message = results.isEmpty() ? "No se pudo establecer la conexión" : "Los resultados se encontraron éxitosamente";
+        return new SourceResponse<>(code, message, results.size(), results);
     }
 }
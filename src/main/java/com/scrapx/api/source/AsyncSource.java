@@ -0,0 +1,26 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.matching.Matchable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fuente que busca sin ocupar un hilo mientras espera a la red.
+ *
+ * Sidenote: ScrapingService usa searchAsync en lugar de search en /api/scrap y
+ * en las búsquedas por fuente; el streaming sigue usando search.
+ *
+ * @param <T> DTO de cada resultado
+ */
+public interface AsyncSource<T extends Matchable<T>> extends ScrapeSource<T> {
+
+    /**
+     * Busca en la página externa sin bloquear el hilo que la llama.
+     *
+     * @param key Llave de la búsqueda
+     * @return Resultados; se completa con ScrapingException si la fuente no respondió correctamente
+     */
+    CompletableFuture<List<T>> searchAsync(CacheKey key);
+}
@@ -0,0 +1,114 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.scraping.WebScraper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Fuente OFAC (Office of Foreign Assets Control): form ASP.NET con score mínimo.
+ *
+ * Sidenote: Los scores iguales o mayores a remoteScore comparten una misma
+ * búsqueda en OFAC (con ese score) y el score solicitado se aplica localmente
+ * sobre el score de cada fila (accepts), en lugar de repetir la búsqueda por
+ * cada valor. La búsqueda es asíncrona y no ocupa un hilo mientras espera a OFAC.
+ */
+@Component
+@Order(3)
+public class OFACSource implements AsyncSource<OFACResults> {
+
+    private final WebScraper scraper;
+    private final SourceSettings settings;
+
+    /** Score enviado a OFAC para los scores solicitados iguales o mayores (una sola búsqueda para todos) */
+    private final int remoteScore;
+
+    /**
+     * Constructor que inyecta el scraper y lee la configuración de la fuente.
+     *
+     * @param scraper     Scraper de las páginas externas
+     * @param env         Entorno de Spring con las propiedades scrapx.ofac.*
+     * @param remoteScore Score compartido de las búsquedas en OFAC
+     */
+    public OFACSource(WebScraper scraper,
+                      Environment env,
+                      @Value("${scrapx.ofac.remote-score:80}") int remoteScore) {
+        this.scraper = scraper;
+        this.remoteScore = remoteScore;
+        this.settings = SourceSettings.builder()
+                .timeout(Duration.ofSeconds(30))
+                .cacheTtl(Duration.ofHours(1))
+                .indexMaxAge(Duration.ofDays(1))
+                .batchConcurrency(4)
+                .jobWorkers(4)
+                .build(env, name());
+    }
+
+    @Override
+    public String name() {
+        return "ofac";
+    }
+
+    @Override
+    public String field() {
+        return "ofac";
+    }
+
+    @Override
+    public Class<OFACResults> resultType() {
+        return OFACResults.class;
+    }
+
+    @Override
+    public SourceSettings settings() {
+        return settings;
+    }
+
+    /**
+     * @return Llave con el score a enviar a OFAC: el compartido si el solicitado es igual o mayor, o el solicitado
+     */
+    @Override
+    public CacheKey key(String entity, String score) {
+        String remote = score;
+        try {
+            if (Integer.parseInt(score.trim()) >= remoteScore) {
+                remote = String.valueOf(remoteScore);
+            }
+        }
+        catch (NumberFormatException | NullPointerException e) {
+            // Score no numérico: se envía tal cual
+        }
+        return CacheKey.of(name(), entity, remote);
+    }
+
+    @Override
+    public boolean search(CacheKey key, Consumer<OFACResults> sink) {
+        return scraper.searchOFAC(key.entity(), key.score(), sink);
+    }
+
+    @Override
+    public CompletableFuture<List<OFACResults>> searchAsync(CacheKey key) {
+        return scraper.searchOFACAsync(key.entity(), key.score());
+    }
+
+    /**
+     * @return true si el score calculado por OFAC para la fila alcanza el score solicitado
+     */
+    @Override
+    public boolean accepts(OFACResults row, String score) {
+        try {
+            return Integer.parseInt(row.score().trim()) >= Integer.parseInt(score.trim());
+        }
+        catch (NumberFormatException | NullPointerException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.OffShoreResult;
+import com.scrapx.api.scraping.WebScraper;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Fuente OffShore Leaks: resultados paginados en bloques de 100 filas.
+ *
+ * Sidenote: La paginación usa una ventana de settings().pageWindow() bloques en
+ * vuelo (scrapx.offshore.page-window). Con publish, los bloques se piden solo
+ * a medida que el suscriptor pide sus resultados.
+ */
+@Component
+@Order(1)
+public class OffShoreSource implements PageableSource<OffShoreResult> {
+
+    private final WebScraper scraper;
+    private final SourceSettings settings;
+
+    /**
+     * Constructor que inyecta el scraper y lee la configuración de la fuente.
+     *
+     * @param scraper Scraper de las páginas externas
+     * @param env     Entorno de Spring con las propiedades scrapx.offshore.*
+     */
+    public OffShoreSource(WebScraper scraper, Environment env) {
+        this.scraper = scraper;
+        this.settings = SourceSettings.builder()
+                .timeout(Duration.ofSeconds(60))
+                .cacheTtl(Duration.ofHours(12))
+                .indexMaxAge(Duration.ofDays(7))
+                .batchConcurrency(2)
+                .jobWorkers(2)
+                .pageWindow(4)
+                .build(env, name());
+    }
+
+    @Override
+    public String name() {
+        return "offshore";
+    }
+
+    @Override
+    public String field() {
+        return "offShore";
+    }
+
+    @Override
+    public Class<OffShoreResult> resultType() {
+        return OffShoreResult.class;
+    }
+
+    @Override
+    public SourceSettings settings() {
+        return settings;
+    }
+
+    @Override
+    public boolean search(CacheKey key, Consumer<OffShoreResult> sink) {
+        return scraper.searchOffShore(key.entity(), settings.pageWindow(), sink);
+    }
+
+    @Override
+    public Flow.Publisher<OffShoreResult> publish(CacheKey key, long limit) {
+        return scraper.publishOffShore(key.entity(), settings.pageWindow(), limit);
+    }
+}
@@ -0,0 +1,28 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.matching.Matchable;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Fuente paginada que pide cada página solo cuando hace falta.
+ *
+ * Sidenote: ScrapingService usa publish en lugar de search en el streaming de una
+ * sola fuente, para que un cliente lento frene el recorrido y al llegar al límite
+ * no se descarguen más páginas.
+ *
+ * @param <T> DTO de cada resultado
+ */
+public interface PageableSource<T extends Matchable<T>> extends ScrapeSource<T> {
+
+    /**
+     * Publica los resultados según la demanda del suscriptor, sin descargar más
+     * páginas de las que necesita.
+     *
+     * @param key   Llave de la búsqueda
+     * @param limit Resultados máximos a emitir (0 = sin límite)
+     * @return Publisher en frío: cada suscripción hace su propia búsqueda
+     */
+    Flow.Publisher<T> publish(CacheKey key, long limit);
+}
@@ -0,0 +1,78 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.matching.Matchable;
+
+import java.util.function.Consumer;
+
+/**
+ * Fuente externa de resultados, registrada en SourceRegistry.
+ *
+ * Sidenote: Una fuente solo sabe buscar una entidad en la página externa (descarga,
+ * parseo y mapeo de las filas a su DTO). El resto del flujo es común a todas las
+ * fuentes y lo aplica ScrapingService:
+ * 1) Llave de la búsqueda (key)
+ * 2) Caché en memoria e índice local, con el TTL y la antigüedad de settings()
+ * 3) Protección de la fuente (límite de concurrencia y circuit breaker)
+ * 4) Búsqueda en la página (search, o searchAsync si la fuente es AsyncSource,
+ *    o publish si es PageableSource)
+ * 5) Filtro de la fuente (accepts) y puntaje de coincidencia local
+ *
+ * Para agregar una fuente basta con un bean que implemente esta interfaz: queda
+ * disponible en /api/sources/{nombre}, en /api/scrap/stream y en el índice local.
+ *
+ * @param <T> DTO de cada resultado
+ */
+public interface ScrapeSource<T extends Matchable<T>> {
+
+    /**
+     * @return Nombre de la fuente: llave de su configuración, caché, índice y métricas (p. ej. "offshore")
+     */
+    String name();
+
+    /**
+     * @return Nombre de la fuente en las respuestas (p. ej. "offShore")
+     */
+    String field();
+
+    /**
+     * @return Clase del DTO de cada resultado (para leer el índice local)
+     */
+    Class<T> resultType();
+
+    /**
+     * @return Configuración de la fuente
+     */
+    SourceSettings settings();
+
+    /**
+     * Llave de una búsqueda en la caché y el índice.
+     *
+     * @param entity Nombre de la entidad tal como llegó en la petición
+     * @param score  Score solicitado (null si la petición no lo incluye)
+     * @return Llave de la búsqueda; por defecto la fuente no usa el score
+     */
+    default CacheKey key(String entity, String score) {
+        return CacheKey.of(name(), entity, null);
+    }
+
+    /**
+     * Busca en la página externa y emite los resultados a medida que se extraen.
+     *
+     * @param key  Llave de la búsqueda (entidad normalizada y score)
+     * @param sink Consumidor de los resultados
+     * @return true si la búsqueda terminó sin errores
+     */
+    boolean search(CacheKey key, Consumer<T> sink);
+
+    /**
+     * Filtro propio de la fuente, aplicado a cada resultado antes de devolverlo.
+     *
+     * @param row   Resultado de la fuente
+     * @param score Score solicitado (null si la petición no lo incluye)
+     * @return true si el resultado se devuelve
+     */
+    default boolean accepts(T row, String score) {
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.matching.Matchable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de las fuentes disponibles, en el orden de sus beans (@Order).
+ */
+@Component
+public class SourceRegistry {
+
+    private final Map<String, ScrapeSource<?>> sources = new LinkedHashMap<>();
+
+    /**
+     * Constructor que registra todos los beans ScrapeSource.
+     *
+     * @param sources Fuentes declaradas en el contexto de Spring
+     */
+    public SourceRegistry(List<ScrapeSource<?>> sources) {
+        for (ScrapeSource<?> source : sources) {
+            if (this.sources.putIfAbsent(source.name(), source) != null) {
+                throw new IllegalStateException("Fuente registrada dos veces: " + source.name());
+            }
+        }
+    }
+
+    /**
+     * @return Todas las fuentes, en orden
+     */
+    public Collection<ScrapeSource<?>> all() {
+        return Collections.unmodifiableCollection(sources.values());
+    }
+
+    /**
+     * @param name Nombre de la fuente
+     * @return true si hay una fuente con ese nombre
+     */
+    public boolean contains(String name) {
+        return sources.containsKey(name);
+    }
+
+    /**
+     * @param name Nombre de la fuente
+     * @return Fuente con ese nombre
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre
+     */
+    public ScrapeSource<?> get(String name) {
+        ScrapeSource<?> source = sources.get(name);
+        if (source == null) {
+            throw new IllegalArgumentException("Fuente desconocida: " + name);
+        }
+        return source;
+    }
+
+    /**
+     * @param name Nombre de la fuente
+     * @param type Clase del DTO de sus resultados
+     * @return Fuente con ese nombre
+     * @throws IllegalArgumentException Si no hay una fuente con ese nombre y tipo de resultado
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Matchable<T>> ScrapeSource<T> get(String name, Class<T> type) {
+        ScrapeSource<?> source = get(name);
+        if (source.resultType() != type) {
+            throw new IllegalArgumentException("La fuente " + name + " no devuelve " + type.getSimpleName());
+        }
+        return (ScrapeSource<T>) source;
+    }
+}
@@ -0,0 +1,130 @@
+package com.scrapx.api.source;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuración de una fuente: plazos, caché, índice, concurrencia y paginación.
+ *
+ * Sidenote: Cada fuente declara sus valores por defecto con el builder, y cada valor
+ * se puede sobreescribir con la propiedad correspondiente al nombre de la fuente:
+ * 1) timeout: scrapx.<fuente>.timeout
+ * 2) cacheTtl: scrapx.cache.ttl.<fuente>
+ * 3) indexMaxAge: scrapx.index.max-age.<fuente>
+ * 4) limiter*: scrapx.<fuente>.limiter.initial-limit, min-limit, max-limit y target-latency
+ * 5) batchConcurrency: scrapx.batch.concurrency.<fuente>
+ * 6) pageWindow: scrapx.<fuente>.page-window
+ * 7) jobWorkers: scrapx.jobs.workers.<fuente>
+ *
+ * Así una fuente nueva queda configurable sin agregar código en la caché, el índice,
+ * la protección de las fuentes, los lotes ni los trabajos.
+ *
+ * @param timeout             Plazo máximo de una búsqueda cuando se consultan varias fuentes en paralelo
+ * @param cacheTtl            TTL de los resultados en la caché en memoria
+ * @param indexMaxAge         Antigüedad máxima de los resultados en el índice local
+ * @param limiterInitial      Límite de concurrencia inicial (AIMD)
+ * @param limiterMin          Límite de concurrencia mínimo
+ * @param limiterMax          Límite de concurrencia máximo
+ * @param limiterTarget       Latencia a partir de la cual se reduce el límite
+ * @param batchConcurrency    Búsquedas por lotes simultáneas (comunes a todos los lotes)
+ * @param pageWindow          Páginas de resultados pedidas en paralelo (1 = una a la vez o sin paginación)
+ * @param jobWorkers          Hilos que ejecutan los trabajos en segundo plano de la fuente
+ */
+public record SourceSettings(
+        Duration timeout,
+        Duration cacheTtl,
+        Duration indexMaxAge,
+        int limiterInitial,
+        int limiterMin,
+        int limiterMax,
+        Duration limiterTarget,
+        int batchConcurrency,
+        int pageWindow,
+        int jobWorkers
+) {
+
+    /**
+     * @return Builder con los valores por defecto comunes a todas las fuentes
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder de la configuración; los valores no declarados usan los comunes.
+     */
+    public static final class Builder {
+        private Duration timeout = Duration.ofSeconds(30);
+        private Duration cacheTtl = Duration.ofHours(1);
+        private Duration indexMaxAge = Duration.ofDays(1);
+        private int limiterInitial = 4;
+        private int limiterMin = 1;
+        private int limiterMax = 16;
+        private Duration limiterTarget = Duration.ofSeconds(10);
+        private int batchConcurrency = 1;
+        private int pageWindow = 1;
+        private int jobWorkers = 1;
+
+        private Builder() { }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder cacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+            return this;
+        }
+
+        public Builder indexMaxAge(Duration indexMaxAge) {
+            this.indexMaxAge = indexMaxAge;
+            return this;
+        }
+
+        public Builder limiter(int initial, int max, Duration target) {
+            this.limiterInitial = initial;
+            this.limiterMax = max;
+            this.limiterTarget = target;
+            return this;
+        }
+
+        public Builder batchConcurrency(int batchConcurrency) {
+            this.batchConcurrency = batchConcurrency;
+            return this;
+        }
+
+        public Builder pageWindow(int pageWindow) {
+            this.pageWindow = pageWindow;
+            return this;
+        }
+
+        public Builder jobWorkers(int jobWorkers) {
+            this.jobWorkers = jobWorkers;
+            return this;
+        }
+
+        /**
+         * Construye la configuración aplicando las propiedades de la fuente.
+         *
+         * @param env    Entorno de Spring con las propiedades scrapx.*
+         * @param source Nombre de la fuente (p. ej. "offshore")
+         * @return Configuración final de la fuente
+         */
+        public SourceSettings build(Environment env, String source) {
+            String limiter = "scrapx." + source + ".limiter.";
+            return new SourceSettings(
+                    env.getProperty("scrapx." + source + ".timeout", Duration.class, timeout),
+                    env.getProperty("scrapx.cache.ttl." + source, Duration.class, cacheTtl),
+                    env.getProperty("scrapx.index.max-age." + source, Duration.class, indexMaxAge),
+                    env.getProperty(limiter + "initial-limit", Integer.class, limiterInitial),
+                    env.getProperty(limiter + "min-limit", Integer.class, limiterMin),
+                    env.getProperty(limiter + "max-limit", Integer.class, limiterMax),
+                    env.getProperty(limiter + "target-latency", Duration.class, limiterTarget),
+                    Math.max(1, env.getProperty("scrapx.batch.concurrency." + source, Integer.class, batchConcurrency)),
+                    Math.max(1, env.getProperty("scrapx." + source + ".page-window", Integer.class, pageWindow)),
+                    Math.max(1, env.getProperty("scrapx.jobs.workers." + source, Integer.class, jobWorkers)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.WorldBankResult;
+import com.scrapx.api.scraping.WebScraper;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Fuente WorldBank: lista de firmas sancionadas, desde la copia en memoria o con Selenium.
+ *
+ * Sidenote: En modo "browser" cada búsqueda ocupa una sesión de Chrome, por lo que
+ * sus límites por defecto son menores que los de las demás fuentes.
+ */
+@Component
+@Order(2)
+public class WorldBankSource implements ScrapeSource<WorldBankResult> {
+
+    private final WebScraper scraper;
+    private final SourceSettings settings;
+
+    /**
+     * Constructor que inyecta el scraper y lee la configuración de la fuente.
+     *
+     * @param scraper Scraper de las páginas externas
+     * @param env     Entorno de Spring con las propiedades scrapx.worldbank.*
+     */
+    public WorldBankSource(WebScraper scraper, Environment env) {
+        this.scraper = scraper;
+        this.settings = SourceSettings.builder()
+                .timeout(Duration.ofSeconds(45))
+                .cacheTtl(Duration.ofHours(6))
+                .indexMaxAge(Duration.ofDays(1))
+                .batchConcurrency(1)
+                .jobWorkers(1)
+                .build(env, name());
+    }
+
+    @Override
+    public String name() {
+        return "worldbank";
+    }
+
+    @Override
+    public String field() {
+        return "worldBank";
+    }
+
+    @Override
+    public Class<WorldBankResult> resultType() {
+        return WorldBankResult.class;
+    }
+
+    @Override
+    public SourceSettings settings() {
+        return settings;
+    }
+
+    @Override
+    public boolean search(CacheKey key, Consumer<WorldBankResult> sink) {
+        return scraper.searchWorldBank(key.entity(), sink);
+    }
+}
@@ -0,0 +1,152 @@
+package com.scrapx.api.cache;
+
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.source.StubSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultCacheTest {
+
+    private static final CacheKey KEY = CacheKey.of("ofac", "Aero Holdings", "90");
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ResultCache cache = new ResultCache(
+            StubSource.registry(Duration.ofHours(1)), 100, executor);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<String>> loader = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return List.of("AERO HOLDINGS");
+        };
+
+        List<Future<List<String>>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(executor.submit(() -> cache.get(KEY, loader)));
+        }
+        awaitStats(stats -> stats.misses() == 1 && stats.coalesced() == 7);
+        release.countDown();
+
+        for (Future<List<String>> request : requests) {
+            assertThat(request.get(5, TimeUnit.SECONDS)).containsExactly("AERO HOLDINGS");
+        }
+        assertThat(loads).hasValue(1);
+
+        // La siguiente petición se sirve desde la caché
+        assertThat(cache.get(KEY, loader)).containsExactly("AERO HOLDINGS");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptedWaiterDoesNotCancelTheSharedLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<String>> loader = () -> {
+            await(release);
+            return List.of("AERO HOLDINGS");
+        };
+
+        CompletableFuture<Throwable> interrupted = new CompletableFuture<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                cache.get(KEY, loader);
+                interrupted.complete(null);
+            }
+            catch (RuntimeException e) {
+                interrupted.complete(e);
+            }
+        });
+        waiter.start();
+        awaitStats(stats -> stats.misses() == 1);
+        Future<List<String>> other = executor.submit(() -> cache.get(KEY, () -> List.of("OTRO SCRAPING")));
+        awaitStats(stats -> stats.misses() == 1 && stats.coalesced() == 1);
+
+        waiter.interrupt();
+        assertThat(interrupted.get(5, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+
+        release.countDown();
+        assertThat(other.get(5, TimeUnit.SECONDS)).containsExactly("AERO HOLDINGS");
+        assertThat(cache.getIfPresent(KEY)).isNotNull();
+    }
+
+    @Test
+    void failedLoadReachesEveryWaiterAndIsNotCached() {
+        assertThatThrownBy(() -> cache.get(KEY, () -> {
+            throw new IllegalStateException("la fuente no respondió");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(KEY, () -> List.of("AERO HOLDINGS"))).containsExactly("AERO HOLDINGS");
+    }
+
+    @Test
+    void staleRowsAreReturnedButNotCached() {
+        StaleRows<String> stale = new StaleRows<>(List.of("AERO HOLDINGS"), Instant.parse("2026-01-01T00:00:00Z"));
+
+        assertThat(cache.get(KEY, () -> stale)).isSameAs(stale);
+        assertThat(cache.<String>getIfPresent(KEY)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOverMaxWeight() {
+        CacheKey first = CacheKey.of("ofac", "first", "90");
+        CacheKey second = CacheKey.of("ofac", "second", "90");
+        cache.put(first, rows(60));
+        cache.put(second, rows(30));
+        cache.getIfPresent(first);
+
+        cache.put(CacheKey.of("ofac", "third", "90"), rows(30));
+
+        assertThat(cache.<String>getIfPresent(first)).hasSize(60);
+        assertThat(cache.<String>getIfPresent(second)).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    private static List<String> rows(int size) {
+        return Collections.nCopies(size, "ROW");
+    }
+
+    private void awaitStats(Predicate<CacheStats> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(cache.stats())) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado: %s", cache.stats()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.scrapx.api.cluster;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Nodo del clúster simulado en localhost: responde los endpoints internos con
+ * respuestas fijas y guarda las peticiones que recibe.
+ */
+final class ClusterStub implements AutoCloseable {
+
+    /**
+     * Respuesta fija de un endpoint.
+     */
+    record Reply(int status, String body, Map<String, String> headers) {
+        Reply(int status, String body) {
+            this(status, body, Map.of());
+        }
+    }
+
+    /**
+     * Petición recibida: path con query y cabecera del secreto del clúster.
+     */
+    record Received(String uri, String secret) { }
+
+    private final HttpServer server;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private volatile Reply rows = new Reply(200, "[]");
+    private volatile Reply tokens = new Reply(200, "0");
+
+    ClusterStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/internal/cluster/rows/", exchange -> reply(exchange, rows));
+        server.createContext("/internal/cluster/tokens/", exchange -> reply(exchange, tokens));
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void rows(Reply reply) {
+        this.rows = reply;
+    }
+
+    void tokens(Reply reply) {
+        this.tokens = reply;
+    }
+
+    List<Received> received() {
+        return received;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * @return URL de un puerto de localhost en el que nadie escucha
+     */
+    static String unreachable() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return "http://127.0.0.1:" + socket.getLocalPort();
+        }
+    }
+
+    private void reply(HttpExchange exchange, Reply reply) throws IOException {
+        received.add(new Received(exchange.getRequestURI().toString(),
+                exchange.getRequestHeaders().getFirst(Cluster.SECRET_HEADER)));
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        reply.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.scrapx.api.cluster;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.index.StaleRows;
+import com.scrapx.api.resilience.SourceUnavailableException;
+import com.scrapx.api.scraping.ScrapingException;
+import com.scrapx.api.source.StubSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterTest {
+
+    private static final String SELF = "http://127.0.0.1:1";
+    private static final CacheKey KEY = CacheKey.of("ofac", "Aero Holdings", "90");
+    private static final String ROWS = """
+            [{"name":"AERO HOLDINGS","address":"Main St","type":"Entity","program":"SDGT","list":"SDN","score":"95"}]""";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private ClusterStub owner;
+
+    @BeforeEach
+    void start() throws IOException {
+        owner = new ClusterStub();
+    }
+
+    @AfterEach
+    void stop() {
+        owner.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fetchesRowsFromTheOwnerWithTheSecret() {
+        owner.rows(new ClusterStub.Reply(200, ROWS));
+
+        List<OFACResults> rows = cluster(owner.url()).rows(owner.url(), KEY, Duration.ofSeconds(5));
+
+        assertThat(rows).containsExactly(new OFACResults("AERO HOLDINGS", "Main St", "Entity", "SDGT", "SDN", "95"));
+        assertThat(rows).isNotInstanceOf(StaleRows.class);
+        assertThat(owner.received()).singleElement().satisfies(request -> {
+            assertThat(request.uri()).isEqualTo("/internal/cluster/rows/ofac?entity=aero+holdings&score=90");
+            assertThat(request.secret()).isEqualTo("s3cret");
+        });
+    }
+
+    @Test
+    void staleRowsFromTheOwnerKeepTheirMark() throws Exception {
+        Instant fetchedAt = Instant.parse("2026-01-01T00:00:00Z");
+        owner.rows(new ClusterStub.Reply(200, ROWS, Map.of(Cluster.FETCHED_AT_HEADER, fetchedAt.toString())));
+
+        List<OFACResults> rows = cluster(owner.url()).<OFACResults>rowsAsync(owner.url(), KEY, Duration.ofSeconds(5)).get();
+
+        assertThat(StaleRows.fetchedAt(rows)).isEqualTo(fetchedAt);
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void rejectedAndFailedSearchesAreReported() {
+        Cluster cluster = cluster(owner.url());
+
+        owner.rows(new ClusterStub.Reply(503, "Fuente ofac no disponible"));
+        assertThatThrownBy(() -> cluster.rows(owner.url(), KEY, Duration.ofSeconds(5)))
+                .isInstanceOf(SourceUnavailableException.class)
+                .hasMessage("Fuente ofac no disponible");
+
+        owner.rows(new ClusterStub.Reply(500, ""));
+        assertThatThrownBy(() -> cluster.rows(owner.url(), KEY, Duration.ofSeconds(5)))
+                .isInstanceOf(ScrapingException.class);
+    }
+
+    @Test
+    void unreachableOwnerLeavesTheRing() throws IOException {
+        String down = ClusterStub.unreachable();
+        Cluster cluster = cluster(down);
+
+        assertThat(cluster.rows(down, KEY, Duration.ofSeconds(5))).isNull();
+        assertThat(cluster.tokens(down, "ofac", 5)).isEqualTo(-1);
+
+        // Con el otro nodo fuera del anillo, este nodo es el dueño de todas las llaves
+        assertThat(cluster.nodes()).filteredOn(node -> node.url().equals(down))
+                .singleElement().satisfies(node -> assertThat(node.up()).isFalse());
+        for (int i = 0; i < 50; i++) {
+            assertThat(cluster.owner("ofac|entity " + i + "|90")).isNull();
+        }
+    }
+
+    @Test
+    void requestsTokensFromTheOwner() {
+        owner.tokens(new ClusterStub.Reply(200, "3"));
+
+        assertThat(cluster(owner.url()).tokens(owner.url(), "ofac", 5)).isEqualTo(3);
+        assertThat(owner.received()).singleElement()
+                .satisfies(request -> assertThat(request.uri()).isEqualTo("/internal/cluster/tokens/ofac?count=5"));
+    }
+
+    @Test
+    void singleNodeIsNotAClusterAndRequiresNoPeers() {
+        Cluster cluster = new Cluster(true, SELF, List.of(SELF + "/"), 16, Duration.ofSeconds(30), "s3cret",
+                StubSource.registry(), JsonMapper.builder().build(), executor);
+
+        assertThat(cluster.enabled()).isFalse();
+        assertThat(cluster.owner(KEY)).isNull();
+        assertThatThrownBy(() -> new Cluster(true, SELF, List.of(SELF, owner.url()), 16, Duration.ofSeconds(30), "",
+                StubSource.registry(), JsonMapper.builder().build(), executor))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private Cluster cluster(String peer) {
+        return new Cluster(true, SELF, List.of(SELF, peer), 16, Duration.ofMinutes(1), "s3cret",
+                StubSource.registry(), JsonMapper.builder().build(), executor);
+    }
+}
@@ -0,0 +1,63 @@
+package com.scrapx.api.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+
+    private static final List<String> NODES = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+    private static final List<String> KEYS = IntStream.range(0, 3000).mapToObj(i -> "ofac|entity " + i + "|90").toList();
+
+    @Test
+    void ownerDoesNotDependOnNodeOrder() {
+        HashRing ring = new HashRing(NODES, 64);
+        HashRing reversed = new HashRing(List.of("http://c:8080", "http://b:8080", "http://a:8080"), 64);
+
+        for (String key : KEYS) {
+            assertThat(reversed.owner(key, node -> true)).isEqualTo(ring.owner(key, node -> true));
+        }
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+        HashRing ring = new HashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : KEYS) {
+            counts.merge(ring.owner(key, node -> true), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(3);
+        // Cada nodo recibe su tercio con un margen de ±25%
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(750, 1250));
+    }
+
+    @Test
+    void downOwnerFallsBackToTheNextAliveNode() {
+        HashRing ring = new HashRing(NODES, 64);
+        HashRing withoutB = new HashRing(List.of("http://a:8080", "http://c:8080"), 64);
+
+        for (String key : KEYS) {
+            String owner = ring.owner(key, node -> true);
+            String fallback = ring.owner(key, node -> !node.equals("http://b:8080"));
+
+            assertThat(fallback).isNotEqualTo("http://b:8080");
+            // Solo cambian de dueño las llaves del nodo caído, igual que si se quitara del anillo
+            if (!owner.equals("http://b:8080")) {
+                assertThat(fallback).isEqualTo(owner);
+            }
+            assertThat(fallback).isEqualTo(withoutB.owner(key, node -> true));
+        }
+    }
+
+    @Test
+    void noOwnerWhenEveryNodeIsDown() {
+        assertThat(new HashRing(NODES, 16).owner("ofac|aero|90", node -> false)).isNull();
+        assertThat(new HashRing(List.of(), 16).owner("ofac|aero|90", node -> true)).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.scrapx.api.cluster;
+
+import com.scrapx.api.source.StubSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamLimiterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MockEnvironment env = new MockEnvironment().withProperty("scrapx.cluster.upstream-rate.ofac", "2");
+    private ClusterStub owner;
+
+    @BeforeEach
+    void start() throws IOException {
+        owner = new ClusterStub();
+    }
+
+    @AfterEach
+    void stop() {
+        owner.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void spendsTokensLeasedFromTheOwner() {
+        owner.tokens(new ClusterStub.Reply(200, "2"));
+        UpstreamLimiter limiter = limiter(ownedBy(owner.url()));
+
+        assertThat(limiter.tryAcquire("ofac")).isTrue();
+        assertThat(limiter.tryAcquire("ofac")).isTrue();
+        assertThat(owner.received()).hasSize(1);
+
+        assertThat(limiter.tryAcquire("ofac")).isTrue();
+        assertThat(owner.received()).hasSize(2)
+                .allSatisfy(request -> assertThat(request.uri()).isEqualTo("/internal/cluster/tokens/ofac?count=2"));
+    }
+
+    @Test
+    void zeroGrantIsRememberedUntilTheLeaseExpires() {
+        owner.tokens(new ClusterStub.Reply(200, "0"));
+        UpstreamLimiter limiter = limiter(ownedBy(owner.url()));
+
+        assertThat(limiter.tryAcquire("ofac")).isFalse();
+        assertThat(limiter.tryAcquire("ofac")).isFalse();
+        assertThat(owner.received()).hasSize(1);
+    }
+
+    @Test
+    void unreachableOwnerFallsBackToTheLocalBucket() {
+        Cluster cluster = ownedBy(owner.url());
+        UpstreamLimiter limiter = limiter(cluster);
+        owner.close();
+
+        // El bucket local tiene el mismo límite (2 por minuto): la fuente nunca queda sin límite
+        assertThat(limiter.tryAcquire("ofac")).isTrue();
+        assertThat(limiter.tryAcquire("ofac")).isTrue();
+        assertThat(limiter.tryAcquire("ofac")).isFalse();
+        assertThat(cluster.owner("upstream:ofac")).isNull();
+    }
+
+    @Test
+    void ownerGrantsFromItsOwnBucket() {
+        UpstreamLimiter limiter = limiter(new Cluster(false, "http://127.0.0.1:1", List.of(), 16, Duration.ofMinutes(1),
+                "", StubSource.registry(), JsonMapper.builder().build(), executor));
+
+        assertThat(limiter.grant("ofac", 5)).isEqualTo(2);
+        assertThat(limiter.grant("ofac", 5)).isZero();
+        assertThat(limiter.grant("worldbank", 5)).isEqualTo(5);
+        assertThat(limiter.status()).singleElement().satisfies(status -> assertThat(status.available()).isZero());
+    }
+
+    private UpstreamLimiter limiter(Cluster cluster) {
+        return new UpstreamLimiter(StubSource.registry(), env, cluster, 2, Duration.ofMinutes(1));
+    }
+
+    /**
+     * @return Clúster de dos nodos en el que el límite de "ofac" vive en el nodo dado
+     */
+    private Cluster ownedBy(String node) {
+        for (int port = 1; ; port++) {
+            Cluster cluster = new Cluster(true, "http://127.0.0.1:" + port, List.of(node), 16, Duration.ofMinutes(1),
+                    "s3cret", StubSource.registry(), JsonMapper.builder().build(), executor);
+            if (node.equals(cluster.owner("upstream:ofac"))) {
+                return cluster;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.scrapx.api.index;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.source.SourceRegistry;
+import com.scrapx.api.source.SourceSettings;
+import com.scrapx.api.source.StubSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceIndexTest {
+
+    private static final OFACResults ROW = new OFACResults("AERO HOLDINGS", "Main St", "Entity", "SDGT", "SDN", "95");
+    private static final OFACResults OTHER = new OFACResults("ZETA TRADING", "Port Rd", "Entity", "SDGT", "SDN", "91");
+    private static final CacheKey AERO = CacheKey.of("ofac", "aero", "90");
+    private static final CacheKey ZETA = CacheKey.of("ofac", "zeta", "90");
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lastLineOfEachSearchWinsAndTornLinesAreSkipped() throws IOException {
+        long now = System.currentTimeMillis();
+        write(line(AERO, now, List.of(OTHER)), line(ZETA, now, List.of(OTHER)), line(AERO, now, List.of(ROW)));
+        // Una caída a mitad de la escritura deja la última línea incompleta
+        Files.writeString(segment(), "{\"entity\":\"aero\",\"score\":\"90\",\"fetch", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        SourceIndex index = index(100);
+
+        assertThat(index.<OFACResults>getIfFresh(AERO)).containsExactly(ROW);
+        assertThat(index.<OFACResults>getIfFresh(ZETA)).containsExactly(OTHER);
+        // Al cargar, el segmento se reescribe solo con las búsquedas vigentes
+        assertThat(Files.readAllLines(segment())).hasSize(2);
+    }
+
+    @Test
+    void compactsAfterTwiceTheSearchesPlusOneHundredLines() throws IOException {
+        SourceIndex index = index(100);
+        for (int i = 0; i < 102; i++) {
+            index.put(AERO, List.of(ROW));
+        }
+        assertThat(Files.readAllLines(segment())).hasSize(102);
+
+        index.put(AERO, List.of(OTHER));
+
+        assertThat(Files.readAllLines(segment())).hasSize(1);
+        assertThat(index(100).<OFACResults>getIfFresh(AERO)).containsExactly(OTHER);
+    }
+
+    @Test
+    void evictsTheOldestSearchOverMaxEntries() {
+        SourceIndex index = index(2);
+        CacheKey third = CacheKey.of("ofac", "nova", "90");
+        index.put(AERO, List.of(ROW));
+        index.put(ZETA, List.of(OTHER));
+        // Reemplazar AERO la convierte en la más reciente
+        index.put(AERO, List.of(ROW));
+
+        index.put(third, List.of());
+
+        assertThat(index.<OFACResults>getIfFresh(ZETA)).isNull();
+        assertThat(index.<OFACResults>getIfFresh(AERO)).containsExactly(ROW);
+        assertThat(index.<OFACResults>getIfFresh(third)).isEmpty();
+        assertThat(index(2).stats()).singleElement()
+                .satisfies(stats -> assertThat(stats.entries()).isEqualTo(2));
+    }
+
+    @Test
+    void refreshCandidatesArePastHalfTheirMaxAgeOldestFirst() throws IOException {
+        long now = System.currentTimeMillis();
+        CacheKey fresh = CacheKey.of("ofac", "nova", "90");
+        write(line(AERO, now - 13 * HOUR, List.of(ROW)), line(ZETA, now - 20 * HOUR, List.of(OTHER)),
+                line(fresh, now - HOUR, List.of(ROW)));
+
+        SourceIndex index = index(100);
+
+        assertThat(index.refreshCandidates(10)).containsExactly(ZETA, AERO);
+        assertThat(index.refreshCandidates(1)).containsExactly(ZETA);
+    }
+
+    @Test
+    void failedLiveSearchFallsBackToTheStaleCopy() throws IOException {
+        long fetchedAt = System.currentTimeMillis() - 30 * HOUR;
+        write(line(AERO, fetchedAt, List.of(ROW)));
+        SourceIndex index = index(100);
+
+        List<OFACResults> rows = index.get(AERO, () -> {
+            throw new IllegalStateException("la fuente no respondió");
+        });
+        List<OFACResults> asyncRows = index.<OFACResults>getAsync(AERO,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("la fuente no respondió"))).join();
+
+        for (List<OFACResults> stale : List.of(rows, asyncRows)) {
+            assertThat(stale).isInstanceOf(StaleRows.class).containsExactly(ROW);
+            assertThat(StaleRows.fetchedAt(stale)).isEqualTo(Instant.ofEpochMilli(fetchedAt));
+        }
+        assertThat(index.<OFACResults>getIfFresh(AERO)).isNull();
+    }
+
+    @Test
+    void failedLiveSearchWithoutACopyFails() {
+        SourceIndex index = index(100);
+
+        assertThatThrownBy(() -> index.get(AERO, () -> {
+            throw new IllegalStateException("la fuente no respondió");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(index.last(AERO)).isNull();
+    }
+
+    private SourceIndex index(int maxEntries) {
+        SourceRegistry sources = new SourceRegistry(List.of(StubSource.ofac(SourceSettings.builder().indexMaxAge(Duration.ofDays(1)))));
+        return new SourceIndex(true, dir, sources, maxEntries, mapper);
+    }
+
+    private Path segment() {
+        return dir.resolve("ofac.jsonl");
+    }
+
+    private void write(String... lines) throws IOException {
+        Files.write(segment(), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    private String line(CacheKey key, long fetchedAt, List<OFACResults> rows) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("entity", key.entity());
+        line.put("score", key.score());
+        line.put("fetchedAt", fetchedAt);
+        line.put("rows", rows);
+        return mapper.writeValueAsString(line);
+    }
+}
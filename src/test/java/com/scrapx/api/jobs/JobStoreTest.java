@@ -0,0 +1,127 @@
+package com.scrapx.api.jobs;
+
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.dto.SourceResponse;
+import com.scrapx.api.source.StubSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobStoreTest {
+
+    private static final OFACResults ROW = new OFACResults("AERO HOLDINGS", "Main St", "Entity", "SDGT", "SDN", "95");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lastLineOfEachJobWins() {
+        JobStore store = store();
+        Job first = new Job("a", "ofac", "aero", "90");
+        Job second = new Job("b", "ofac", "zeta", null);
+        store.append(first);
+        store.append(second);
+        first.start();
+        store.append(first);
+        first.finish(new SourceResponse<>(200, "Consulta exitosa", 1, List.of(ROW)));
+        store.append(first);
+
+        List<Job> loaded = store().load();
+
+        assertThat(loaded).extracting(job -> job.id).containsExactly("a", "b");
+        Job done = loaded.get(0);
+        assertThat(done.state()).isEqualTo(Job.State.DONE);
+        assertThat(done.attempts()).isEqualTo(1);
+        assertThat(done.result().results()).isEqualTo(List.of(ROW));
+        assertThat(done.done).isDone();
+        assertThat(loaded.get(1).state()).isEqualTo(Job.State.QUEUED);
+        assertThat(loaded.get(1).score).isNull();
+    }
+
+    @Test
+    void tornLastLineKeepsThePreviousState() throws IOException {
+        JobStore store = store();
+        Job job = new Job("a", "ofac", "aero", "90");
+        store.append(job);
+        job.start();
+        store.append(job);
+        // Una caída a mitad de la escritura deja la última línea incompleta
+        Files.writeString(dir.resolve("jobs.jsonl"), "{\"id\":\"a\",\"source\":\"ofac\",\"state\":\"DO",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<Job> loaded = store().load();
+
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0).state()).isEqualTo(Job.State.RUNNING);
+        assertThat(loaded.get(0).attempts()).isEqualTo(1);
+    }
+
+    @Test
+    void loadCompactsReplacedLines() throws IOException {
+        JobStore store = store();
+        Job job = new Job("a", "ofac", "aero", "90");
+        store.append(job);
+        job.start();
+        store.append(job);
+        assertThat(store.lines()).isEqualTo(2);
+
+        JobStore reloaded = store();
+        assertThat(reloaded.load()).hasSize(1);
+
+        assertThat(reloaded.lines()).isEqualTo(1);
+        assertThat(Files.readAllLines(dir.resolve("jobs.jsonl"))).hasSize(1);
+        assertThat(Files.exists(dir.resolve("jobs.jsonl.tmp"))).isFalse();
+    }
+
+    @Test
+    void compactKeepsOnlyLiveJobs() {
+        JobStore store = store();
+        Job kept = new Job("a", "ofac", "aero", "90");
+        Job expired = new Job("b", "ofac", "zeta", "90");
+        store.append(kept);
+        store.append(expired);
+
+        store.compact(() -> List.of(kept));
+
+        assertThat(store.lines()).isEqualTo(1);
+        assertThat(store().load()).extracting(job -> job.id).containsExactly("a");
+    }
+
+    @Test
+    void keepsTheStaleMarkOfTheResult() {
+        JobStore store = store();
+        Job job = new Job("a", "ofac", "aero", "90");
+        job.start();
+        Instant fetchedAt = Instant.parse("2026-01-01T00:00:00Z");
+        job.finish(new SourceResponse<>(200, "Copia vencida", 1, List.of(ROW), true, fetchedAt));
+        store.append(job);
+
+        SourceResponse<?> result = store().load().get(0).result();
+
+        assertThat(result.stale()).isTrue();
+        assertThat(result.fetchedAt()).isEqualTo(fetchedAt);
+    }
+
+    @Test
+    void disabledStoreKeepsNothing() {
+        JobStore store = new JobStore(false, dir, false, StubSource.registry(), JsonMapper.builder().build());
+        store.append(new Job("a", "ofac", "aero", "90"));
+
+        assertThat(store.load()).isEmpty();
+        assertThat(Files.exists(dir.resolve("jobs.jsonl"))).isFalse();
+    }
+
+    private JobStore store() {
+        return new JobStore(true, dir, false, StubSource.registry(), JsonMapper.builder().build());
+    }
+}
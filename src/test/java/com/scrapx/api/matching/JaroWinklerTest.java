@@ -0,0 +1,47 @@
+package com.scrapx.api.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class JaroWinklerTest {
+
+    @Test
+    void matchesReferenceValues() {
+        assertThat(similarity("MARTHA", "MARHTA")).isCloseTo(0.961, within(0.001));
+        assertThat(similarity("DWAYNE", "DUANE")).isCloseTo(0.840, within(0.001));
+        assertThat(similarity("DIXON", "DICKSONX")).isCloseTo(0.813, within(0.001));
+    }
+
+    @Test
+    void identicalAndDisjointNames() {
+        assertThat(similarity("AERO HOLDINGS", "AERO HOLDINGS")).isEqualTo(1.0);
+        assertThat(similarity("ABC", "XYZ")).isEqualTo(0.0);
+        assertThat(similarity("", "")).isEqualTo(1.0);
+        assertThat(similarity("", "AERO")).isEqualTo(0.0);
+    }
+
+    @Test
+    void isSymmetric() {
+        assertThat(similarity("AERO HOLDINGS", "AEROS HOLDING")).isEqualTo(similarity("AEROS HOLDING", "AERO HOLDINGS"));
+    }
+
+    @Test
+    void longNamesUseTheSameFormulaAsShortOnes() {
+        // 64 caracteres usan las marcas en un long; 65 o más, los arreglos
+        String a = "A".repeat(30) + "MARTHA" + "B".repeat(28);
+        String b = "A".repeat(30) + "MARHTA" + "B".repeat(28);
+        double masked = similarity(a, b);
+        double arrays = similarity(a + "C", b + "C");
+
+        assertThat(a).hasSize(64);
+        assertThat(masked).isGreaterThan(0.9).isLessThan(1.0);
+        assertThat(arrays).isGreaterThan(0.9).isLessThan(1.0);
+        assertThat(similarity(a + "C", a + "C")).isEqualTo(1.0);
+    }
+
+    private static double similarity(String a, String b) {
+        return JaroWinkler.similarity(a.toCharArray(), b.toCharArray());
+    }
+}
@@ -0,0 +1,35 @@
+package com.scrapx.api.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameNormalizerTest {
+
+    @Test
+    void removesAccentsPunctuationAndLegalForms() {
+        assertThat(NameNormalizer.normalize("Aéro Holdings, Ltd.")).isEqualTo("AERO HOLDINGS");
+        assertThat(NameNormalizer.normalize("AERO HOLDINGS LIMITED")).isEqualTo("AERO HOLDINGS");
+        assertThat(NameNormalizer.normalize("Aero-Holdings S.A.")).isEqualTo("AERO HOLDINGS");
+        assertThat(NameNormalizer.normalize("O'Brien & Sons")).isEqualTo("OBRIEN SONS");
+    }
+
+    @Test
+    void keepsLegalFormsWhenTheyAreTheWholeName() {
+        assertThat(NameNormalizer.normalize("S.A.")).isEqualTo("SA");
+        assertThat(NameNormalizer.normalize("Co. Ltd")).isEqualTo("CO LTD");
+    }
+
+    @Test
+    void sortedFormIgnoresWordOrder() {
+        assertThat(NameNormalizer.normalizeSorted("Holdings Aero Ltd"))
+                .isEqualTo(NameNormalizer.normalizeSorted("AERO HOLDINGS"))
+                .isEqualTo("AERO HOLDINGS");
+    }
+
+    @Test
+    void blankNamesNormalizeToEmpty() {
+        assertThat(NameNormalizer.normalize(null)).isEmpty();
+        assertThat(NameNormalizer.normalize("  ., ")).isEmpty();
+    }
+}
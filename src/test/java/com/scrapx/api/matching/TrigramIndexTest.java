@@ -0,0 +1,74 @@
+package com.scrapx.api.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrigramIndexTest {
+
+    private static final List<String> NAMES = List.of(
+            "Aero Holdings Ltd",
+            "AERO HOLDING LIMITED",
+            "Global Aerospace Partners",
+            "Blue Ocean Shipping",
+            "Holdings Aero S.A.",
+            "Zeta Mining Corp");
+
+    @Test
+    void searchFindsSimilarNamesBestFirst() {
+        TrigramIndex<String> index = new TrigramIndex<>(NAMES, name -> name);
+
+        List<TrigramIndex.Match<String>> matches = index.search(NameMatcher.name("Aero Holdings"), 85);
+
+        assertThat(matches).extracting(TrigramIndex.Match::item)
+                .contains("Aero Holdings Ltd", "AERO HOLDING LIMITED", "Holdings Aero S.A.")
+                .doesNotContain("Blue Ocean Shipping", "Zeta Mining Corp");
+        assertThat(matches.get(0).score()).isEqualTo(100);
+        assertThat(matches).isSortedAccordingTo((a, b) -> Integer.compare(b.score(), a.score()));
+    }
+
+    @Test
+    void searchAgreesWithScoringEveryName() {
+        TrigramIndex<String> index = new TrigramIndex<>(NAMES, name -> name);
+        NameMatcher.Name query = NameMatcher.name("aero holding");
+
+        List<String> brute = NAMES.stream()
+                .filter(name -> NameMatcher.score(query, NameMatcher.name(name)) >= 88)
+                .toList();
+
+        assertThat(index.search(query, 88)).extracting(TrigramIndex.Match::item)
+                .containsExactlyInAnyOrderElementsOf(brute);
+    }
+
+    @Test
+    void containingMatchesStringContains() {
+        TrigramIndex<String> index = new TrigramIndex<>(NAMES, name -> name, name -> name.toLowerCase(Locale.ROOT));
+
+        for (String text : List.of("aero", "holding", "ro ho", "s.a.", "ship", "zz", "o", "", "aerospace partners x")) {
+            int[] expected = IntStream.range(0, NAMES.size())
+                    .filter(i -> NAMES.get(i).toLowerCase(Locale.ROOT).contains(text))
+                    .toArray();
+            assertThat(index.containing(text)).as(text).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void containingVerifiesCandidatesThatShareEveryTrigram() {
+        // "cabca abc" tiene los trigramas de "abcab" (abc, bca, cab) pero no lo contiene
+        TrigramIndex<String> index = new TrigramIndex<>(List.of("cabca abc", "xabcabx"), name -> name, name -> name);
+
+        assertThat(index.containing("abcab")).containsExactly(1);
+    }
+
+    @Test
+    void containingRequiresIndexedTexts() {
+        TrigramIndex<String> index = new TrigramIndex<>(NAMES, name -> name);
+
+        assertThatThrownBy(() -> index.containing("aero")).isInstanceOf(IllegalStateException.class);
+    }
+}
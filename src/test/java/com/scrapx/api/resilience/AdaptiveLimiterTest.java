@@ -0,0 +1,73 @@
+package com.scrapx.api.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    private static final long TARGET = 1_000_000_000L;
+
+    @Test
+    void rejectsOverTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 8, TARGET);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsByAboutOnePerRoundOfFastSearches() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 8, TARGET);
+
+        // 2 -> 2.5 -> 2.9 -> 3.24
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(TARGET / 2, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(3);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(TARGET / 2, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(8);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void backsOffOnSlowOrFailedSearchesDownToTheMinimum() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 2, 8, TARGET);
+
+        limiter.tryAcquire();
+        limiter.onComplete(TARGET * 2, true);
+        // 8 * 0.7 = 5.6
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        limiter.tryAcquire();
+        limiter.onComplete(TARGET / 2, false);
+        assertThat(limiter.limit()).isEqualTo(3);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(TARGET / 2, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void releaseDoesNotAdjustTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 8, TARGET);
+
+        limiter.tryAcquire();
+        limiter.release();
+
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
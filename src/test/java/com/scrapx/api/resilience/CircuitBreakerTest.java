@@ -0,0 +1,98 @@
+package com.scrapx.api.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long LONG_OPEN = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, LONG_OPEN);
+
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure(breaker.tryAcquire());
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThroughAndClosesOnItsSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure(breaker.tryAcquire());
+
+        long trial = breaker.tryAcquire();
+        assertThat(trial).isNotEqualTo(CircuitBreaker.REJECTED);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+
+        breaker.onSuccess(trial);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    void failedTrialReopensForAnotherFullWait() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, TimeUnit.MILLISECONDS.toNanos(50));
+        breaker.onFailure(breaker.tryAcquire());
+        Thread.sleep(60);
+
+        breaker.onFailure(breaker.tryAcquire());
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    void slowSuccessFromBeforeTheOpeningDoesNotCloseTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker(1, LONG_OPEN);
+        long slow = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+
+        breaker.onSuccess(slow);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    void staleResultsDoNotDecideTheTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        long slowSuccess = breaker.tryAcquire();
+        long slowFailure = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        long trial = breaker.tryAcquire();
+
+        breaker.onFailure(slowFailure);
+        breaker.onSuccess(slowSuccess);
+        breaker.cancel(slowFailure);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).as("la prueba sigue en curso").isEqualTo(CircuitBreaker.REJECTED);
+
+        breaker.onSuccess(trial);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void cancelledTrialFreesTheSlot() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure(breaker.tryAcquire());
+        long trial = breaker.tryAcquire();
+
+        breaker.cancel(trial);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(CircuitBreaker.REJECTED);
+    }
+}
@@ -0,0 +1,129 @@
+package com.scrapx.api.resilience;
+
+import com.scrapx.api.cluster.Cluster;
+import com.scrapx.api.cluster.UpstreamLimiter;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import com.scrapx.api.source.SourceRegistry;
+import com.scrapx.api.source.SourceSettings;
+import com.scrapx.api.source.StubSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceGuardTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MockEnvironment env = new MockEnvironment().withProperty("scrapx.breaker.failure-threshold", "1");
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void saturatedSourceDoesNotSpendUpstreamTokens() {
+        env.setProperty("scrapx.cluster.upstream-rate.ofac", "2");
+        Fixture fixture = new Fixture(1);
+
+        CompletableFuture<String> running = new CompletableFuture<>();
+        CompletableFuture<String> first = fixture.guard.callAsync("ofac", () -> running);
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> "AERO")).isInstanceOf(SourceUnavailableException.class);
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> "AERO")).isInstanceOf(SourceUnavailableException.class);
+
+        // Solo la búsqueda admitida gastó un token: queda 1 de 2
+        assertThat(fixture.upstream.status()).singleElement()
+                .satisfies(status -> assertThat(status.available()).isEqualTo(1));
+        running.complete("AERO");
+        assertThat(first).isCompletedWithValue("AERO");
+    }
+
+    @Test
+    void upstreamRefusalReleasesTheLimiterSlot() {
+        env.setProperty("scrapx.cluster.upstream-rate.ofac", "1");
+        Fixture fixture = new Fixture(4);
+
+        assertThat(fixture.guard.call("ofac", () -> "AERO")).isEqualTo("AERO");
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> "AERO"))
+                .isInstanceOf(SourceUnavailableException.class)
+                .hasMessageContaining("límite de peticiones");
+
+        assertThat(fixture.status().inFlight()).isZero();
+        assertThat(fixture.status().circuit()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void cancellationIsNotAFailure() {
+        Fixture fixture = new Fixture(4);
+
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> {
+            throw new CancellationException("plazo agotado");
+        })).isInstanceOf(CancellationException.class);
+
+        assertThat(fixture.status().circuit()).isEqualTo("CLOSED");
+        assertThat(fixture.status().limit()).isEqualTo(4);
+        assertThat(fixture.status().inFlight()).isZero();
+    }
+
+    @Test
+    void failureOpensTheCircuitAndRejectsImmediately() {
+        Fixture fixture = new Fixture(4);
+
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> {
+            throw new IllegalStateException("la fuente no respondió");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(fixture.status().circuit()).isEqualTo("OPEN");
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> "AERO"))
+                .isInstanceOf(SourceUnavailableException.class)
+                .hasMessageContaining("no está disponible");
+    }
+
+    @Test
+    void slowSuccessAdmittedBeforeTheOpeningKeepsTheCircuitOpen() {
+        Fixture fixture = new Fixture(4);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture<String> pending = fixture.guard.callAsync("ofac", () -> slow);
+
+        assertThatThrownBy(() -> fixture.guard.call("ofac", () -> {
+            throw new IllegalStateException("la fuente no respondió");
+        })).isInstanceOf(IllegalStateException.class);
+        slow.complete("AERO");
+
+        assertThat(pending).isCompletedWithValue("AERO");
+        assertThat(fixture.status().circuit()).isEqualTo("OPEN");
+        assertThat(fixture.status().inFlight()).isZero();
+    }
+
+    /**
+     * SourceGuard de la fuente "ofac", con el límite de peticiones local (sin clúster).
+     */
+    private final class Fixture {
+        final UpstreamLimiter upstream;
+        final SourceGuard guard;
+
+        Fixture(int concurrency) {
+            SourceRegistry sources = new SourceRegistry(List.of(StubSource.ofac(
+                    SourceSettings.builder().limiter(concurrency, concurrency, Duration.ofSeconds(10)))));
+            Cluster cluster = new Cluster(false, "http://127.0.0.1:1", List.of(), 16, Duration.ofMinutes(1), "",
+                    sources, JsonMapper.builder().build(), executor);
+            upstream = new UpstreamLimiter(sources, env, cluster, 5, Duration.ofSeconds(10));
+            guard = new SourceGuard(sources, env, new ScrapeMetrics(new SimpleMeterRegistry()), upstream);
+        }
+
+        SourceStatus status() {
+            return guard.status().get(0);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.scrapx.api.scraping;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BodyDecoderTest {
+
+    private static final String TEXT = "<html><body>Aéro Holdings — ñandú</body></html>";
+
+    @Test
+    void decodesPlainBodyWithDeclaredCharset() throws IOException {
+        byte[] latin1 = TEXT.replace("—", "-").getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(BodyDecoder.decode(headers("Content-Type", "text/html; charset=\"ISO-8859-1\""), latin1))
+                .isEqualTo(TEXT.replace("—", "-"));
+        assertThat(BodyDecoder.decode(headers(), TEXT.getBytes(StandardCharsets.UTF_8))).isEqualTo(TEXT);
+    }
+
+    @Test
+    void unknownCharsetFallsBackToUtf8() {
+        assertThat(BodyDecoder.charset(headers("Content-Type", "text/html; charset=no-such-charset")))
+                .isEqualTo(StandardCharsets.UTF_8);
+        assertThat(BodyDecoder.charset(headers("Content-Type", "text/html"))).isEqualTo(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void decodesGzipAndBothDeflateVariants() throws IOException {
+        byte[] utf8 = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "gzip"), gzip(utf8))).isEqualTo(TEXT);
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "deflate"), deflate(utf8, false))).isEqualTo(TEXT);
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "deflate"), deflate(utf8, true))).isEqualTo(TEXT);
+    }
+
+    @Test
+    void undoesStackedEncodingsInReverseOrder() throws IOException {
+        byte[] body = gzip(deflate(TEXT.getBytes(StandardCharsets.UTF_8), false));
+
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "deflate, gzip"), body)).isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodesBodiesLargerThanTheThreadBuffer() throws IOException {
+        String large = TEXT.repeat(20_000);
+
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "gzip"), gzip(large.getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(large);
+        // El buffer del hilo se reutiliza: una respuesta corta después de una larga no arrastra bytes
+        assertThat(BodyDecoder.decode(headers("Content-Encoding", "gzip"), gzip(TEXT.getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(TEXT);
+    }
+
+    @Test
+    void readerStreamsTheDecompressedText() throws IOException {
+        byte[] body = gzip(TEXT.getBytes(StandardCharsets.UTF_8));
+
+        try (Reader reader = BodyDecoder.reader(headers("Content-Encoding", "gzip"), new ByteArrayInputStream(body))) {
+            StringWriter out = new StringWriter();
+            reader.transferTo(out);
+            assertThat(out.toString()).isEqualTo(TEXT);
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedEncodings() {
+        assertThatThrownBy(() -> BodyDecoder.decode(headers("Content-Encoding", "zstd"), new byte[] {1, 2, 3}))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("zstd");
+    }
+
+    private static HttpHeaders headers(String... nameValues) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int i = 0; i < nameValues.length; i += 2) {
+            map.put(nameValues[i], List.of(nameValues[i + 1]));
+        }
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param raw true para un flujo deflate sin la cabecera zlib (lo que envían algunos servidores)
+     */
+    private static byte[] deflate(byte[] bytes, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(bytes);
+        }
+        finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,150 @@
+package com.scrapx.api.scraping;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PagePublisherTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Integer> fetched = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fetchesOnlyThePagesTheDemandNeeds() throws Exception {
+        CompletableFuture<Integer> pages = new CompletableFuture<>();
+        Collector subscriber = new Collector();
+        new PagePublisher<>(this::page, PAGE_SIZE, 4, Long.MAX_VALUE, executor, pages::complete).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+        await(() -> subscriber.rows.size() == 5);
+        assertThat(fetched).containsExactly(0);
+
+        subscriber.subscription.request(10);
+        await(() -> subscriber.rows.size() == 15);
+        assertThat(fetched).containsExactlyInAnyOrder(0, 1);
+
+        subscriber.subscription.cancel();
+        assertThat(pages.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(subscriber.done).isNotDone();
+        assertThat(subscriber.rows).isEqualTo(IntStream.range(0, 15).boxed().toList());
+    }
+
+    @Test
+    void stopsAtTheLimit() throws Exception {
+        Collector subscriber = new Collector();
+        new PagePublisher<>(this::page, PAGE_SIZE, 4, 25, executor, pages -> { }).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.done.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(subscriber.rows).isEqualTo(IntStream.range(0, 25).boxed().toList());
+        assertThat(fetched).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void stopsAtTheFirstEmptyPage() throws Exception {
+        Collector subscriber = new Collector();
+        new PagePublisher<>(this::page, PAGE_SIZE, 2, Long.MAX_VALUE, executor, pages -> { }).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.done.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(subscriber.rows).hasSize(70).isSorted();
+    }
+
+    @Test
+    void failedPageEndsWithTheError() throws Exception {
+        PagePublisher.PageFetcher<Integer> failing = page -> {
+            if (page == 1) {
+                throw new IOException("página 1");
+            }
+            return page(page);
+        };
+        Collector subscriber = new Collector();
+        new PagePublisher<>(failing, PAGE_SIZE, 1, Long.MAX_VALUE, executor, pages -> { }).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.done.get(5, TimeUnit.SECONDS)).isInstanceOf(IOException.class).hasMessage("página 1");
+        assertThat(subscriber.rows).hasSize(PAGE_SIZE);
+    }
+
+    @Test
+    void nonPositiveDemandIsAnError() throws Exception {
+        Collector subscriber = new Collector();
+        new PagePublisher<>(this::page, PAGE_SIZE, 1, Long.MAX_VALUE, executor, pages -> { }).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.done.get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(fetched).isEmpty();
+    }
+
+    /**
+     * Páginas 0 a 6 con PAGE_SIZE filas consecutivas; desde la 7, vacías.
+     */
+    private List<Integer> page(int page) {
+        fetched.add(page);
+        return page < 7 ? IntStream.range(page * PAGE_SIZE, (page + 1) * PAGE_SIZE).boxed().toList() : List.of();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        // Margen para que una página pedida de más alcance a registrarse
+        Thread.sleep(50);
+    }
+
+    /**
+     * Suscriptor que guarda las filas; done se completa con el error (o null) al terminar.
+     */
+    private static final class Collector implements Flow.Subscriber<Integer> {
+        final List<Integer> rows = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Throwable> done = new CompletableFuture<>();
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.complete(error);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
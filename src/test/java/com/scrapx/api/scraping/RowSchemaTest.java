@@ -0,0 +1,67 @@
+package com.scrapx.api.scraping;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowSchemaTest {
+
+    private static final RowSchema<List<String>> SCHEMA = RowSchema.<List<String>>builder()
+            .text("td", "a.name")
+            .text("td.jurisdiction").shared()
+            .attr("td.source", "a", "title")
+            .build(List::of);
+
+    @Test
+    void extractsFieldsBySelector() {
+        Element row = row("<td><a class=\"name\">AERO HOLDINGS</a></td>"
+                + "<td class=\"jurisdiction\">Malta</td>"
+                + "<td class=\"source\"><a title=\"Pandora Papers\">ICIJ</a></td>");
+
+        assertThat(SCHEMA.extract(row)).containsExactly("AERO HOLDINGS", "Malta", "Pandora Papers");
+    }
+
+    @Test
+    void missingCellsBecomeEmpty() {
+        Element row = row("<td><a class=\"name\">AERO HOLDINGS</a></td>");
+
+        assertThat(SCHEMA.extract(row)).containsExactly("AERO HOLDINGS", "", "");
+    }
+
+    @Test
+    void sharedFieldsReuseTheSameInstance() {
+        String first = SCHEMA.extract(row("<td class=\"jurisdiction\">" + "Malta" + "</td>")).get(1);
+        String second = SCHEMA.extract(row("<td class=\"jurisdiction\">" + new String("Malta") + "</td>")).get(1);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void positionalFieldsRejectShortRows() {
+        RowSchema<List<String>> schema = RowSchema.<List<String>>builder()
+                .cell(0).cell(2)
+                .build(List::of);
+
+        assertThat(schema.extract(row("<td>a</td><td>b</td><td>c</td>"))).containsExactly("a", "c");
+        assertThat(schema.extract(row("<th>a</th><th>b</th><th>c</th>"))).isNull();
+        assertThat(schema.extract(row("<td>a</td><td>b</td>"))).isNull();
+    }
+
+    @Test
+    void rejectsCombinatorsAndEmptyShared() {
+        assertThatThrownBy(() -> RowSchema.builder().text("tr td")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RowSchema.builder().text("td", "div > a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RowSchema.builder().text("td:has(a)")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RowSchema.builder().cell(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RowSchema.builder().shared()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Element row(String cells) {
+        return Jsoup.parse("<table><tr>" + cells + "</tr></table>").selectFirst("tr");
+    }
+}
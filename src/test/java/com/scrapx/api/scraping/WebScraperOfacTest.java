@@ -0,0 +1,162 @@
+package com.scrapx.api.scraping;
+
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Flujo completo de OFAC (GET del form y POST de la búsqueda) contra un servidor
+ * ASP.NET simulado en localhost, que responde con las páginas de prueba comprimidas.
+ */
+class WebScraperOfacTest {
+
+    private static final String ERROR_PAGE = "<html><body><h1>Runtime Error</h1></body></html>";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService serverExecutor = Executors.newFixedThreadPool(8);
+    private final AtomicInteger gets = new AtomicInteger();
+    private final List<String> posts = new CopyOnWriteArrayList<>();
+
+    /** POSTs que se responden con una página de error antes de aceptar la búsqueda */
+    private final AtomicInteger rejections = new AtomicInteger();
+
+    private HttpServer server;
+    private byte[] form;
+    private byte[] results;
+    private WebScraper scraper;
+
+    @BeforeEach
+    void start() throws IOException {
+        form = fixture("ofac-form.html");
+        results = fixture("ofac-results.html");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/Default.aspx";
+        scraper = new WebScraper(null, null, executor, Duration.ofMinutes(15), url, "http://127.0.0.1:1/", 16,
+                new ScrapeMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void searchReusesTheFormStateBetweenSearches() {
+        assertThat(scraper.searchOFAC("  Aero Holdings ", "90")).hasSize(150)
+                .first().isEqualTo(new OFACResults("AVIATION HOLDINGS S.A.", "580 Street 23, China",
+                        "Aircraft", "VENEZUELA", "SDN", "97"));
+        assertThat(scraper.searchOFAC("Zeta Mining", "85")).hasSize(150);
+
+        assertThat(gets).hasValue(1);
+        assertThat(posts).hasSize(2);
+        assertThat(posts.get(0)).contains("ctl00$MainContent$txtLastName=Aero Holdings", "ctl00$MainContent$Slider1=90",
+                "__VIEWSTATE=");
+        assertThat(posts.get(1)).contains("ctl00$MainContent$txtLastName=Zeta Mining");
+    }
+
+    @Test
+    void concurrentAsyncSearchesShareOneFormRequest() throws Exception {
+        List<CompletableFuture<List<OFACResults>>> searches = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            searches.add(scraper.searchOFACAsync("entity " + i, "90"));
+        }
+
+        for (CompletableFuture<List<OFACResults>> search : searches) {
+            assertThat(search.get(10, TimeUnit.SECONDS)).hasSize(150);
+        }
+        assertThat(gets).hasValue(1);
+        assertThat(posts).hasSize(32);
+    }
+
+    @Test
+    void rejectedPostIsRetriedWithAFreshForm() {
+        scraper.searchOFAC("warm up", "90");
+        rejections.set(1);
+
+        assertThat(scraper.searchOFAC("Aero Holdings", "90")).hasSize(150);
+        assertThat(gets).hasValue(2);
+    }
+
+    @Test
+    void searchFailsWhenEveryPostIsRejected() {
+        rejections.set(Integer.MAX_VALUE);
+
+        assertThat(scraper.searchOFAC("Aero Holdings", "90", row -> { })).isFalse();
+        assertThatThrownBy(() -> scraper.searchOFACAsync("Aero Holdings", "90").get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ScrapingException.class);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] page;
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                posts.add(URLDecoder.decode(new String(in.readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+            }
+            page = rejections.getAndUpdate(n -> Math.max(0, n - 1)) > 0
+                    ? ERROR_PAGE.getBytes(StandardCharsets.UTF_8) : results;
+        }
+        else {
+            gets.incrementAndGet();
+            page = form;
+        }
+
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (accept != null && accept.contains("gzip")) {
+            page = gzip(page);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(page);
+        }
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = WebScraperOfacTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,186 @@
+package com.scrapx.api.scraping;
+
+import com.scrapx.api.dto.OffShoreResult;
+import com.scrapx.api.metrics.ScrapeMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ventana deslizante de OffShore Leaks contra un servidor local que responde bloques
+ * numerados: el bloque n (from = n * 100) tiene ROWS filas "P{n}-{fila}".
+ */
+class WebScraperOffShoreTest {
+
+    private static final int ROWS = 3;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService serverExecutor = Executors.newFixedThreadPool(16);
+
+    /** Bloques pedidos (número de bloque), en el orden en que llegaron */
+    private final List<Integer> requested = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /** Bloques con resultados; los demás se responden con un tbody vacío */
+    private Set<Integer> full = Set.of();
+
+    /** Demora de la respuesta de cada bloque (ms) */
+    private Delay delay = page -> 0;
+
+    private HttpServer server;
+    private WebScraper scraper;
+
+    private interface Delay {
+        long millis(int page);
+    }
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        scraper = new WebScraper(null, null, executor, Duration.ofMinutes(15), "http://127.0.0.1:1/Default.aspx", url, 0,
+                new ScrapeMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rowsKeepThePageOrderWhenLaterPagesArriveFirst() {
+        full = pages(0, 6);
+        // Cada bloque de la ventana tarda más que el siguiente
+        delay = page -> page < 6 ? (6 - page) * 40L : 0;
+
+        List<OffShoreResult> rows = new ArrayList<>();
+        assertThat(scraper.searchOffShore("Aero Holdings", 4, rows::add)).isTrue();
+
+        assertThat(rows).extracting(OffShoreResult::entity).containsExactlyElementsOf(names(6));
+    }
+
+    @Test
+    void windowIsRefilledAsEachPageIsConsumed() {
+        full = pages(0, 5);
+        delay = page -> 50;
+
+        List<OffShoreResult> rows = new ArrayList<>();
+        assertThat(scraper.searchOffShore("Aero Holdings", 2, rows::add)).isTrue();
+
+        assertThat(rows).hasSize(5 * ROWS);
+        // Nunca más de 2 bloques en vuelo, y la ventana se mantuvo llena
+        assertThat(maxInFlight).hasValue(2);
+        // El bloque 6 se pide al consumir el 4, y puede cancelarse antes de llegar al servidor
+        assertThat(requested).contains(0, 1, 2, 3, 4, 5).allMatch(page -> page <= 6);
+    }
+
+    @Test
+    void windowOfOneRequestsThePagesOneAtATime() {
+        full = pages(0, 3);
+
+        assertThat(scraper.searchOffShore("Aero Holdings", 1, row -> { })).isTrue();
+
+        assertThat(requested).containsExactly(0, 1, 2, 3);
+        assertThat(maxInFlight).hasValue(1);
+    }
+
+    @Test
+    void stopsAtTheFirstEmptyPage() {
+        // El bloque 3 está vacío: los resultados del 4 en adelante no se emiten
+        full = Set.of(0, 1, 2, 4, 5, 6, 7);
+
+        List<OffShoreResult> rows = new ArrayList<>();
+        assertThat(scraper.searchOffShore("Aero Holdings", 4, rows::add)).isTrue();
+
+        assertThat(rows).extracting(OffShoreResult::entity).containsExactlyElementsOf(names(3));
+        assertThat(requested).allMatch(page -> page <= 6);
+    }
+
+    @Test
+    void failedPageFailsTheSearch() {
+        server.removeContext("/");
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+
+        assertThat(scraper.searchOffShore("Aero Holdings", 4, row -> { })).isFalse();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        int page = Integer.parseInt(query.substring(query.indexOf("from=") + 5)) / 100;
+        requested.add(page);
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(delay.millis(page));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            inFlight.decrementAndGet();
+        }
+
+        byte[] body = page(page).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String page(int page) {
+        StringBuilder html = new StringBuilder("<html><body><table class=\"search__results__table\"><tbody>");
+        if (full.contains(page)) {
+            for (int row = 0; row < ROWS; row++) {
+                html.append("<tr><td class=\"description\"><a href=\"/nodes/1\" class=\"font-weight-bold text-dark\">")
+                        .append("P").append(page).append('-').append(row)
+                        .append("</a></td><td class=\"jurisdiction\">Malta</td><td class=\"country\">China</td>")
+                        .append("<td class=\"source text-nowrap\"><a href=\"/investigations/pandora\" title=\"Pandora Papers\">Pandora</a></td></tr>");
+            }
+        }
+        return html.append("</tbody></table></body></html>").toString();
+    }
+
+    private static Set<Integer> pages(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static List<String> names(int pages) {
+        List<String> names = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            for (int row = 0; row < ROWS; row++) {
+                names.add("P" + page + "-" + row);
+            }
+        }
+        return names;
+    }
+}
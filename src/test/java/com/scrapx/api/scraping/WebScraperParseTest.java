@@ -0,0 +1,71 @@
+package com.scrapx.api.scraping;
+
+import com.scrapx.api.dto.OFACResults;
+import com.scrapx.api.dto.OffShoreResult;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebScraperParseTest {
+
+    private static final String OFFSHORE_URL = "https://offshoreleaks.icij.org/search?q=aero&c=&j=&d=&from=0";
+    private static final String OFAC_URL = "https://sanctionssearch.ofac.treas.gov/";
+
+    @Test
+    void parsesOffShoreRows() throws IOException {
+        List<OffShoreResult> rows = new ArrayList<>();
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(fixture("offshore-page.html"), OFFSHORE_URL)) {
+            WebScraper.parseOffShoreRows(parser, rows::add);
+        }
+
+        assertThat(rows).hasSize(100);
+        assertThat(rows.get(0)).isEqualTo(new OffShoreResult("STAR AVIATION LTD.", "Malta", "China",
+                "Pandora Papers data is current through 2018"));
+    }
+
+    @Test
+    void parsesOfacResultsTable() throws IOException {
+        List<OFACResults> rows = new ArrayList<>();
+
+        assertThat(WebScraper.parseOFACRows(stream(fixture("ofac-results.html")), OFAC_URL, rows::add)).isTrue();
+        assertThat(rows).hasSize(150);
+        assertThat(rows.get(0)).isEqualTo(new OFACResults("AVIATION HOLDINGS S.A.", "580 Street 23, China",
+                "Aircraft", "VENEZUELA", "SDN", "97"));
+    }
+
+    @Test
+    void viewStateWithoutTableIsAnEmptyResult() throws IOException {
+        String page = "<html><body><form><input type=\"hidden\" id=\"__VIEWSTATE\" value=\"x\"></form>"
+                + "<p>No results</p></body></html>";
+        List<OFACResults> rows = new ArrayList<>();
+
+        assertThat(WebScraper.parseOFACRows(stream(page), OFAC_URL, rows::add)).isTrue();
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    void errorPageIsNotAValidResponse() throws IOException {
+        String page = "<html><body><h1>Runtime Error</h1></body></html>";
+
+        assertThat(WebScraper.parseOFACRows(stream(page), OFAC_URL, row -> { })).isFalse();
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = WebScraperParseTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream stream(String page) {
+        return new ByteArrayInputStream(page.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package com.scrapx.api.source;
+
+import com.scrapx.api.cache.CacheKey;
+import com.scrapx.api.dto.OFACResults;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fuente de prueba con resultados de OFAC y sin búsqueda: la caché, el registro de
+ * trabajos y el clúster solo leen su nombre, su configuración y el tipo de sus resultados.
+ *
+ * @param name     Nombre de la fuente
+ * @param settings Configuración de la fuente
+ */
+public record StubSource(String name, SourceSettings settings) implements ScrapeSource<OFACResults> {
+
+    /**
+     * @return Fuente "ofac" con la configuración por defecto
+     */
+    public static StubSource ofac() {
+        return ofac(SourceSettings.builder());
+    }
+
+    /**
+     * @return Fuente "ofac" con la configuración dada
+     */
+    public static StubSource ofac(SourceSettings.Builder settings) {
+        return new StubSource("ofac", settings.build(new MockEnvironment(), "ofac"));
+    }
+
+    /**
+     * @return Registro con la fuente "ofac" como única fuente
+     */
+    public static SourceRegistry registry() {
+        return new SourceRegistry(List.of(ofac()));
+    }
+
+    /**
+     * @return Registro con la fuente "ofac" y el TTL de caché dado
+     */
+    public static SourceRegistry registry(Duration cacheTtl) {
+        return new SourceRegistry(List.of(ofac(SourceSettings.builder().cacheTtl(cacheTtl))));
+    }
+
+    @Override
+    public String field() {
+        return name;
+    }
+
+    @Override
+    public Class<OFACResults> resultType() {
+        return OFACResults.class;
+    }
+
+    @Override
+    public boolean search(CacheKey key, Consumer<OFACResults> sink) {
+        throw new UnsupportedOperationException("La fuente " + name + " no busca en ninguna página");
+    }
+}